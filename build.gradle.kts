@@ -61,6 +61,14 @@ tasks.withType<Javadoc> {
     options.encoding = "UTF-8"
 }
 
+// JMH benchmarks live in their own source set and are not part of the regular build, run them with `./gradlew jmh`
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+
 dependencies {
     implementation(libs.sonar.scanner.library)
     compileOnly(libs.findbugs.jsr305)
@@ -78,6 +86,19 @@ dependencies {
         exclude(module = "groovy-all")
     }
     testImplementation(libs.archunit.junit5)
+    "jmhImplementation"(gradleApi())
+    "jmhImplementation"(libs.jmh.core)
+    "jmhCompileOnly"(libs.findbugs.jsr305)
+    "jmhAnnotationProcessor"(libs.jmh.generator.annprocess)
+}
+
+tasks.register<JavaExec>("jmh") {
+    description = "Runs the JMH benchmarks. Pass JMH options with -Pjmh.args=\"...\", e.g. -Pjmh.args=\"Csv -p size=1000 -prof gc\"."
+    group = "verification"
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    // Report the allocation rate along with the throughput, unless other options are given
+    args = providers.gradleProperty("jmh.args").map { it.split(" ").filter(String::isNotBlank) }.getOrElse(listOf("-prof", "gc"))
 }
 
 gradlePlugin {
@@ -19,12 +19,15 @@
  */
 package org.sonarqube.gradle;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import org.junit.Assume;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -109,4 +112,24 @@ public class AndroidTest extends AbstractGradleIT {
       .contains("junit-4.13.2.jar", "hamcrest-core-1.3.jar")
       .doesNotContain("android.jar", "jetified-junit-", "jetified-hamcrest-core-");
   }
+
+  @Test
+  public void gradle9AndroidStrippedLibraries() throws Exception {
+    ignoreThisTestIfGradleVersionIsLessThan("9.0.0");
+    assumeTrue(getAndroidGradleVersion().isGreaterThanOrEqualTo("9.0.0"));
+    Properties props = runGradlewSonarSimulationModeWithEnv("/android-gradle9", emptyMap(), new DefaultRunConfiguration(), "--quiet", "--console=plain",
+      "-Psonar.gradle.libraries.abi=true");
+
+    // junit is resolved from a jar, turned into an Android class jar by the Android plugin, then stripped of its resources
+    File junit = stream(props.getProperty(":app.sonar.java.test.libraries").split(","))
+      .map(File::new)
+      .filter(file -> file.getName().endsWith("junit-4.13.2.jar"))
+      .findFirst()
+      .orElseThrow(() -> new AssertionError("junit is not a test library of :app"));
+    try (ZipFile jar = new ZipFile(junit)) {
+      assertThat(jar.stream().map(ZipEntry::getName))
+        .contains("org/junit/Test.class")
+        .doesNotContain("LICENSE-junit.txt");
+    }
+  }
 }
@@ -0,0 +1,80 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Temporary tree shared by the benchmarks that hit the file system. Only every other path of {@link #paths(int)} exists,
+ * so that filters on existence keep half of their input.
+ */
+class BenchmarkFiles {
+
+  private static final int FILES_PER_DIRECTORY = 1000;
+
+  private final Path root;
+
+  private BenchmarkFiles(Path root) {
+    this.root = root;
+  }
+
+  static BenchmarkFiles create(int count) {
+    try {
+      BenchmarkFiles files = new BenchmarkFiles(Files.createTempDirectory("sonar-benchmark"));
+      List<Path> paths = files.paths(count);
+      for (int i = 0; i < count; i += 2) {
+        Files.createDirectories(paths.get(i).getParent());
+        Files.createFile(paths.get(i));
+      }
+      return files;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  Path getRoot() {
+    return root;
+  }
+
+  List<Path> paths(int count) {
+    List<Path> paths = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      paths.add(root.resolve("module" + (i / FILES_PER_DIRECTORY)).resolve("File" + i + ".java"));
+    }
+    return paths;
+  }
+
+  void delete() {
+    try (Stream<Path> stream = Files.walk(root)) {
+      for (Path path : (Iterable<Path>) stream.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
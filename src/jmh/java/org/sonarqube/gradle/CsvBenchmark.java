@@ -0,0 +1,88 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the CSV helpers of {@link SonarUtils} on lists of library paths, as found in {@code sonar.java.libraries}.
+ * With {@code commas}, every tenth path contains a comma and is quoted in the joined string, which takes the slow path
+ * of {@link SonarUtils#splitAsCsv(String)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvBenchmark {
+
+  @Param({"10", "1000", "100000"})
+  private int size;
+
+  @Param({"false", "true"})
+  private boolean commas;
+
+  private List<String> values;
+  private String joined;
+  private String firstHalf;
+  private String secondHalf;
+
+  @Setup
+  public void setup() {
+    values = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      String version = commas && i % 10 == 0 ? ("1," + i) : ("1." + i);
+      values.add("/home/user/.gradle/caches/modules-2/files-2.1/org.example/library" + i + "/" + version + "/library" + i + "-" + version + ".jar");
+    }
+    joined = SonarUtils.joinAsCsv(values);
+    // Both halves share a quarter of the values, to exercise the deduplication
+    firstHalf = SonarUtils.joinAsCsv(values.subList(0, size * 3 / 4));
+    secondHalf = SonarUtils.joinAsCsv(values.subList(size / 2, size));
+  }
+
+  @Benchmark
+  public List<String> splitAsCsv() {
+    return SonarUtils.splitAsCsv(joined);
+  }
+
+  @Benchmark
+  public String joinAsCsv() {
+    return SonarUtils.joinAsCsv(values);
+  }
+
+  @Benchmark
+  public String joinCsvStringsWithoutDuplicates() {
+    return SonarUtils.joinCsvStringsWithoutDuplicates(firstHalf, secondHalf);
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link PathSet} on source directories of the usual depth, where three out of four are nested in the previous
+ * one. The time per path should stay about the same from 1000 to 100000 paths, as the lookups only depend on the depth
+ * of the paths. The paths do not need to exist.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathSetBenchmark {
+
+  @Param({"1000", "10000", "100000"})
+  private int size;
+
+  private List<Path> directories;
+  private List<Path> files;
+  private PathSet pathSet;
+
+  @Setup
+  public void setup() {
+    Path root = Path.of("/benchmark/project").toAbsolutePath();
+    directories = new ArrayList<>(size);
+    files = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      Path module = root.resolve("module" + (i / 4));
+      Path directory = i % 4 == 0 ? module : module.resolve("src/main/java/package" + (i % 4));
+      directories.add(directory);
+      files.add(directory.resolve("File" + i + ".java"));
+    }
+    pathSet = build();
+  }
+
+  @Benchmark
+  public PathSet add() {
+    return build();
+  }
+
+  @Benchmark
+  public int containsAncestorOf() {
+    int covered = 0;
+    for (Path file : files) {
+      if (pathSet.containsAncestorOf(file)) {
+        covered++;
+      }
+    }
+    return covered;
+  }
+
+  private PathSet build() {
+    PathSet paths = new PathSet();
+    directories.forEach(paths::add);
+    return paths;
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import com.google.gson.GsonBuilder;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how fast {@link ResolutionSerializer} reads the output of a module with {@code size} dependencies, in the
+ * compact format and in the JSON format written by previous versions of the plugin.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResolutionSerializerBenchmark {
+
+  @Param({"10", "1000", "10000"})
+  private int size;
+
+  private Path directory;
+  private File compact;
+  private File json;
+
+  @Setup
+  public void setup() throws IOException {
+    List<String> classpath = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      classpath.add("/home/user/.gradle/caches/modules-2/files-2.1/org.example.group" + (i % 50) + "/library" + i + "/1.0." + i
+        + "/0123456789abcdef0123456789abcdef01234567/library" + i + "-1.0." + i + ".jar");
+    }
+    ProjectProperties properties = new ProjectProperties.Builder(":module", false)
+      .compileClasspath(classpath)
+      .testCompileClasspath(classpath)
+      .build();
+
+    directory = Files.createTempDirectory("sonar-resolver-benchmark");
+    compact = directory.resolve("properties").toFile();
+    ResolutionSerializer.write(compact, properties);
+    json = directory.resolve("properties.json").toFile();
+    try (Writer writer = Files.newBufferedWriter(json.toPath(), StandardCharsets.UTF_8)) {
+      new GsonBuilder().setPrettyPrinting().create().toJson(properties, writer);
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.delete(compact.toPath());
+    Files.delete(json.toPath());
+    Files.delete(directory);
+  }
+
+  @Benchmark
+  public ProjectProperties readCompact() throws IOException {
+    return ResolutionSerializer.read(compact).orElseThrow();
+  }
+
+  @Benchmark
+  public ProjectProperties readJson() throws IOException {
+    return ResolutionSerializer.read(json).orElseThrow();
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonarqube.gradle.properties.SonarProperty;
+
+/**
+ * Measures the post-processing of the properties sent to the scanner, on a multi-module build with {@code size} paths
+ * spread over modules of 100 paths each.
+ * <p>
+ * {@code parse} parses every property key, and {@code classify} tags every key with its {@link PropertyKeys.Kind}, as done
+ * once by {@link SonarTask} before {@link SonarTask#filterPathProperties(Map, Set)}, which in turn is measured end to end by
+ * {@code filterPathProperties}. Every other path exists, and some are generated sources or contain wildcards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SonarPropertyBenchmark {
+
+  private static final int PATHS_PER_MODULE = 100;
+  private static final String[] PATH_PROPERTIES = {SonarProperty.PROJECT_SOURCE_DIRS, SonarProperty.PROJECT_TEST_DIRS,
+    SonarProperty.JAVA_BINARIES, SonarProperty.JAVA_LIBRARIES, SonarProperty.JUNIT_REPORT_PATHS};
+  private static final String[] OTHER_PROPERTIES = {"sonar.projectKey", "sonar.projectName", "sonar.projectBaseDir",
+    "sonar.java.source", "sonar.java.target", "sonar.moduleKey", "sonar.working.directory"};
+
+  @Param({"10", "1000", "100000"})
+  private int size;
+
+  private BenchmarkFiles benchmarkFiles;
+  private Map<String, String> properties;
+  private List<String> keys;
+  private Set<String> userDefinedKeys;
+
+  @Setup
+  public void setup() {
+    benchmarkFiles = BenchmarkFiles.create(size);
+    List<Path> paths = benchmarkFiles.paths(size);
+    properties = new HashMap<>();
+    for (int module = 0; module * PATHS_PER_MODULE < size; module++) {
+      String prefix = module == 0 ? "" : (":parent:module" + module + ".");
+      for (String key : OTHER_PROPERTIES) {
+        properties.put(prefix + key, "value" + module);
+      }
+      List<Path> modulePaths = paths.subList(module * PATHS_PER_MODULE, Math.min(size, (module + 1) * PATHS_PER_MODULE));
+      for (int i = 0; i < PATH_PROPERTIES.length; i++) {
+        int index = i;
+        String value = modulePaths.stream()
+          .filter(path -> Math.floorMod(path.hashCode(), PATH_PROPERTIES.length) == index)
+          .map(SonarPropertyBenchmark::decorate)
+          .collect(Collectors.joining(","));
+        properties.put(prefix + PATH_PROPERTIES[i], value);
+      }
+    }
+    keys = new ArrayList<>(properties.keySet());
+    // A few modules declare their sources explicitly
+    userDefinedKeys = keys.stream()
+      .filter(key -> key.endsWith(SonarProperty.PROJECT_SOURCE_DIRS) && key.hashCode() % 10 == 0)
+      .collect(Collectors.toSet());
+  }
+
+  private static String decorate(Path path) {
+    String value = path.toString();
+    int hash = Math.floorMod(value.hashCode(), 20);
+    if (hash == 0) {
+      return value.replace("module", "build/generated/module");
+    } else if (hash == 1) {
+      return value.replace("File", "*File");
+    }
+    return value;
+  }
+
+  @TearDown
+  public void tearDown() {
+    benchmarkFiles.delete();
+  }
+
+  @Benchmark
+  public int parse() {
+    int parsed = 0;
+    for (String key : keys) {
+      Optional<SonarProperty> property = SonarProperty.parse(key);
+      if (property.isPresent()) {
+        parsed++;
+      }
+    }
+    return parsed;
+  }
+
+  @Benchmark
+  public PropertyKeys classify() {
+    return PropertyKeys.classify(keys);
+  }
+
+  @Benchmark
+  public Map<String, String> filterPathProperties() {
+    Map<String, String> copy = new HashMap<>(properties);
+    SonarTask.filterPathProperties(copy, userDefinedKeys);
+    return copy;
+  }
+}
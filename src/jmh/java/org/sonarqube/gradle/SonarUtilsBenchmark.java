@@ -0,0 +1,94 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the file list helpers of {@link SonarUtils}. Both are linear in the number of files, so the throughput
+ * divided by the size should stay about the same from 1000 to 100000 files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SonarUtilsBenchmark {
+
+  @Param({"10", "1000", "10000", "100000"})
+  private int size;
+
+  private BenchmarkFiles benchmarkFiles;
+  private List<File> files;
+  private List<File> directories;
+
+  @Setup
+  public void setup() {
+    benchmarkFiles = BenchmarkFiles.create(size);
+    files = new ArrayList<>(size);
+    for (Path path : benchmarkFiles.paths(size)) {
+      files.add(path.toFile());
+    }
+    // Every tenth file is listed twice, as when several source sets share a directory
+    for (int i = 0; i < size; i += 10) {
+      files.set(i + 1 < size ? i + 1 : i, files.get(i));
+    }
+
+    // Source directories, where three out of four are nested in the previous one
+    directories = new ArrayList<>(size);
+    Path root = benchmarkFiles.getRoot();
+    for (int i = 0; i < size; i++) {
+      Path module = root.resolve("module" + (i / 4));
+      directories.add((i % 4 == 0 ? module : module.resolve("src/main/java/package" + (i % 4))).toFile());
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    benchmarkFiles.delete();
+  }
+
+  @Benchmark
+  public List<File> exists() {
+    return SonarUtils.exists(files);
+  }
+
+  @Benchmark
+  public List<File> filterOutSubFiles() {
+    return SonarUtils.filterOutSubFiles(directories);
+  }
+}
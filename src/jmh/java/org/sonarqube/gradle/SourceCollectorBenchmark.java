@@ -0,0 +1,240 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.nio.file.FileVisitResult;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many paths per second {@link SourceCollector} classifies, on a synthetic tree of one million files
+ * spread over 100 modules. The tree only exists in memory, so that the numbers reflect the classification cost and not
+ * the file system.
+ * <p>
+ * {@code legacyMatchers} runs the stream-based classification {@link SourceCollector} used before precompiled matchers,
+ * as a baseline for {@code precompiledMatchers}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SourceCollectorBenchmark {
+
+  private static final int FILES = 1_000_000;
+  private static final int MODULES = 100;
+  private static final String[] DIRECTORIES = {"src/main/resources", "src/test/resources", "scripts", "docs", ".config"};
+  private static final String[] FILE_NAMES = {
+    "data.json", "config.yml", "run.sh", "Main.java", "Main.class", "app.properties", "id_rsa-prod", "server.log", "README.md", "notes"
+  };
+
+  private static final BasicFileAttributes DIRECTORY = new Attributes(true);
+  private static final BasicFileAttributes FILE = new Attributes(false);
+
+  private final List<Path> directories = new ArrayList<>();
+  private final List<List<Path>> filesByDirectory = new ArrayList<>();
+  private Path root;
+  private Set<Path> existingSources;
+
+  @Setup
+  public void setup() {
+    root = Paths.get("/benchmark/project");
+    Map<Path, List<Path>> tree = new TreeMap<>();
+    for (int i = 0; i < FILES; i++) {
+      Path module = root.resolve("module" + (i % MODULES));
+      String kind = DIRECTORIES[(i / MODULES) % DIRECTORIES.length];
+      Path directory = kind.startsWith(".") ? module.resolve(kind) : module.resolve(kind).resolve("package" + ((i / 1000) % 10));
+      tree.computeIfAbsent(directory, d -> new ArrayList<>()).add(directory.resolve(i + "-" + FILE_NAMES[i % FILE_NAMES.length]));
+    }
+    // Ancestors sort before their descendants, so directories are entered in walk order
+    List.copyOf(tree.keySet()).stream()
+      .flatMap(directory -> Stream.iterate(directory, d -> !d.equals(root), Path::getParent))
+      .forEach(directory -> tree.putIfAbsent(directory, List.of()));
+    tree.forEach((directory, files) -> {
+      directories.add(directory);
+      filesByDirectory.add(files);
+    });
+    existingSources = IntStream.range(0, MODULES)
+      .mapToObj(i -> root.resolve("module" + i).resolve("src/main/java"))
+      .collect(Collectors.toSet());
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(FILES)
+  public int precompiledMatchers() {
+    SourceCollector collector = SourceCollector.builder().setRoot(root).setExistingSources(existingSources).build();
+    collector.preVisitDirectory(root, DIRECTORY);
+    int collected = 0;
+    for (int i = 0; i < directories.size(); i++) {
+      if (collector.preVisitDirectory(directories.get(i), DIRECTORY) == FileVisitResult.CONTINUE) {
+        for (Path file : filesByDirectory.get(i)) {
+          if (collector.isCollectable(file, FILE)) {
+            collected++;
+          }
+        }
+      }
+    }
+    return collected;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(FILES)
+  public int legacyMatchers() {
+    LegacyMatchers collector = new LegacyMatchers(root, existingSources);
+    int collected = 0;
+    for (int i = 0; i < directories.size(); i++) {
+      if (collector.preVisitDirectory(directories.get(i))) {
+        for (Path file : filesByDirectory.get(i)) {
+          if (collector.isCollectable(file)) {
+            collected++;
+          }
+        }
+      }
+    }
+    return collected;
+  }
+
+  /**
+   * The classification of {@link SourceCollector} before precompiled matchers, reduced to what the synthetic tree
+   * exercises.
+   */
+  private static class LegacyMatchers {
+    private static final Set<String> EXCLUDED_DIRECTORIES = Set.of(".cache", ".env", ".git", ".gradle", ".jruby", ".m2",
+      ".node_modules", ".npm", ".pycache", ".pytest_cache", ".venv", "bin", "build", "dist", "nbbuild", "nbdist", "out", "target", "tmp");
+    private static final Set<String> EXCLUDED_EXTENSIONS = Stream.of(".jar", ".war", ".class", ".ear", ".nar", ".DS_Store", ".zip", ".7z",
+      ".rar", ".gz", ".tar", ".xz", ".log", ".bak", ".tmp", ".swp", ".iml", ".ipr", ".iws", ".nib", ".java", ".jav", ".kt")
+      .map(ext -> ext.toLowerCase(Locale.ROOT))
+      .collect(Collectors.toSet());
+    private static final Set<String> INCLUDE_EXTENSIONS_FOR_HIDDEN_FILES = Set.of(".bash", ".bat", ".cnf", ".config", ".db", ".env",
+      ".htpasswd", ".json", ".ksh", ".properties", ".ps1", ".settings", ".sh", ".txt", ".xml", ".yaml", ".yml", ".zsh");
+    private static final Set<String> INCLUDE_HIDDEN_FILES_KEYWORDS = Set.of(".env.", "access", "cfg", "config", "credential", "history",
+      "id_dsa", "id_ecdsa", "id_ed25519", "id_rsa", "key", "password", "private", "pwd", "secret", "sessions", "token");
+
+    private final Path root;
+    private final Set<Path> existingSources;
+
+    private LegacyMatchers(Path root, Set<Path> existingSources) {
+      this.root = root;
+      this.existingSources = existingSources;
+    }
+
+    private boolean preVisitDirectory(Path path) {
+      boolean isHiddenAndTooFarDownTheTree = isHidden(path) && !(root.equals(path.getParent()) || root.equals(path.getParent().getParent()));
+      return !isHiddenAndTooFarDownTheTree
+        && !EXCLUDED_DIRECTORIES.contains(path.getFileName().toString().toLowerCase(Locale.ROOT))
+        && !existingSources.contains(path);
+    }
+
+    private boolean isCollectable(Path path) {
+      if (existingSources.stream().anyMatch(path::equals)) {
+        return false;
+      }
+      String lowerCaseFileName = path.getFileName().toString().toLowerCase(Locale.ROOT);
+      if (isHidden(path)) {
+        return INCLUDE_HIDDEN_FILES_KEYWORDS.stream().anyMatch(lowerCaseFileName::contains)
+          || INCLUDE_EXTENSIONS_FOR_HIDDEN_FILES.stream().anyMatch(lowerCaseFileName::endsWith);
+      }
+      return EXCLUDED_EXTENSIONS.stream().noneMatch(lowerCaseFileName::endsWith);
+    }
+
+    private static boolean isHidden(Path path) {
+      return StreamSupport.stream(path.spliterator(), true)
+        .anyMatch(token -> token.toString().startsWith("."));
+    }
+  }
+
+  private static class Attributes implements BasicFileAttributes {
+    private final boolean directory;
+
+    private Attributes(boolean directory) {
+      this.directory = directory;
+    }
+
+    @Override
+    public FileTime lastModifiedTime() {
+      return FileTime.fromMillis(0);
+    }
+
+    @Override
+    public FileTime lastAccessTime() {
+      return FileTime.fromMillis(0);
+    }
+
+    @Override
+    public FileTime creationTime() {
+      return FileTime.fromMillis(0);
+    }
+
+    @Override
+    public boolean isRegularFile() {
+      return !directory;
+    }
+
+    @Override
+    public boolean isDirectory() {
+      return directory;
+    }
+
+    @Override
+    public boolean isSymbolicLink() {
+      return false;
+    }
+
+    @Override
+    public boolean isOther() {
+      return false;
+    }
+
+    @Override
+    public long size() {
+      return 0;
+    }
+
+    @Override
+    public Object fileKey() {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.dsl.DependencyHandler;
+import org.gradle.api.artifacts.transform.CacheableTransform;
+import org.gradle.api.artifacts.transform.InputArtifact;
+import org.gradle.api.artifacts.transform.TransformAction;
+import org.gradle.api.artifacts.transform.TransformOutputs;
+import org.gradle.api.artifacts.transform.TransformParameters;
+import org.gradle.api.artifacts.type.ArtifactTypeDefinition;
+import org.gradle.api.attributes.Attribute;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.FileSystemLocation;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.util.GradleVersion;
+
+/**
+ * Artifact transform replacing the library jars of the analysis with their signatures only, see {@link AbiStripper}.
+ * Enabled with the {@value #ENABLED_PROPERTY} property. The stripped jars are kept in the transform cache of Gradle, so
+ * each library is only stripped once for all the projects and builds that use it.
+ * <p>
+ * The jars, the Android archives and the Android class jars are marked as not stripped with the {@link #ABI_ATTRIBUTE}
+ * attribute, and the classpaths of the analysis request stripped artifacts, following the "minified" example of the Gradle
+ * documentation. The Android class jars derived from the other types by the Android plugin keep the attribute. The other
+ * artifacts, such as the class directories of other projects, do not have the attribute and are used as they are.
+ * <p>
+ * The stripped jars get their own artifact type, which the Android plugin does not transform. Otherwise an Android class
+ * jar could be derived from a jar both by stripping it first or last, and Gradle fails on chains of the same length.
+ */
+@CacheableTransform
+public abstract class AbiJarTransform implements TransformAction<TransformParameters.None> {
+
+  public static final String ENABLED_PROPERTY = "sonar.gradle.libraries.abi";
+  public static final Attribute<Boolean> ABI_ATTRIBUTE = Attribute.of("org.sonarqube.abi", Boolean.class);
+  private static final String STRIPPED_JAR_TYPE = "sonar-abi-jar";
+  private static final String AAR_TYPE = "aar";
+  private static final String ANDROID_CLASSES_JAR_TYPE = "android-classes-jar";
+  private static final Logger LOGGER = Logging.getLogger(AbiJarTransform.class);
+
+  @InputArtifact
+  @Classpath
+  public abstract Provider<FileSystemLocation> getInputArtifact();
+
+  @Override
+  public void transform(TransformOutputs outputs) {
+    File input = getInputArtifact().get().getAsFile();
+    if (!input.isFile()) {
+      outputs.dir(input);
+      return;
+    }
+    File output = outputs.file(input.getName());
+    try {
+      AbiStripper.stripJar(input.toPath(), output.toPath());
+    } catch (IOException e) {
+      LOGGER.info("Could not strip {}, using it as it is", input, e);
+      try {
+        Files.copy(input.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      } catch (IOException copyException) {
+        throw new IllegalStateException("Could not copy " + input, copyException);
+      }
+    }
+  }
+
+  /**
+   * Registers the transform of the jars and Android class jars of the given project.
+   */
+  static void register(Project project) {
+    DependencyHandler dependencies = project.getDependencies();
+    dependencies.getAttributesSchema().attribute(ABI_ATTRIBUTE);
+    for (String artifactType : new String[] {ArtifactTypeDefinition.JAR_TYPE, AAR_TYPE, ANDROID_CLASSES_JAR_TYPE}) {
+      dependencies.getArtifactTypes().maybeCreate(artifactType).getAttributes().attribute(ABI_ATTRIBUTE, false);
+    }
+    registerTransform(dependencies, ArtifactTypeDefinition.JAR_TYPE, STRIPPED_JAR_TYPE);
+    registerTransform(dependencies, ANDROID_CLASSES_JAR_TYPE, ANDROID_CLASSES_JAR_TYPE);
+  }
+
+  private static void registerTransform(DependencyHandler dependencies, String fromType, String toType) {
+    dependencies.registerTransform(AbiJarTransform.class, spec -> {
+      spec.getFrom().attribute(ArtifactTypeDefinition.ARTIFACT_TYPE_ATTRIBUTE, fromType).attribute(ABI_ATTRIBUTE, false);
+      spec.getTo().attribute(ArtifactTypeDefinition.ARTIFACT_TYPE_ATTRIBUTE, toType).attribute(ABI_ATTRIBUTE, true);
+    });
+  }
+
+  /**
+   * @return the files of the given configuration, with the stripped version of its jars
+   */
+  static FileCollection strippedFiles(Configuration configuration) {
+    return configuration.getIncoming()
+      .artifactView(view -> view.attributes(attributes -> attributes.attribute(ABI_ATTRIBUTE, true)))
+      .getFiles();
+  }
+
+  /**
+   * The transform is registered when the plugin is applied, so it is enabled with a Gradle or system property instead of
+   * the sonar block. It needs artifact transforms with injected input artifacts, available since Gradle 6.0.
+   */
+  static boolean isEnabled(Project project) {
+    return isRequested(project) && GradleVersion.current().compareTo(GradleVersion.version("6.0")) >= 0;
+  }
+
+  static boolean isRequested(Project project) {
+    return SonarUtils.isEnabledWithGradleOrSystemProperty(project, ENABLED_PROPERTY);
+  }
+}
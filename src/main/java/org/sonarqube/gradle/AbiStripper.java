@@ -0,0 +1,236 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.GregorianCalendar;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+/**
+ * Strips library jars down to what the analysis needs to resolve the types used by the analyzed code: the class files
+ * without the method bodies, the private members and the debug extensions. The resources are removed, except for:
+ * <ul>
+ *   <li>the manifest, which tells whether the jar is a multi-release jar,</li>
+ *   <li>the {@code .kotlin_module} files of {@code META-INF}, with which the Kotlin analyzer finds the classes holding the
+ *   top-level and extension functions of each package,</li>
+ *   <li>the {@code .kotlin_builtins} files of the Kotlin standard library, describing its built-in types.</li>
+ * </ul>
+ * The stripped jars are only meant to be read by the analyzers, not to be loaded by a JVM.
+ */
+class AbiStripper {
+
+  private static final Logger LOGGER = Logging.getLogger(AbiStripper.class);
+
+  private static final int MAGIC = 0xCAFEBABE;
+  private static final int ACC_PRIVATE = 0x0002;
+  private static final Set<String> REMOVED_MEMBER_ATTRIBUTES = Set.of("Code");
+  private static final Set<String> REMOVED_CLASS_ATTRIBUTES = Set.of("SourceDebugExtension");
+  private static final String MANIFEST = "META-INF/MANIFEST.MF";
+  // Same timestamp as the reproducible archives of Gradle, so that the stripped jar only depends on the original one
+  private static final long ENTRY_TIME = new GregorianCalendar(1980, 1, 1, 0, 0, 0).getTimeInMillis();
+
+  private AbiStripper() {
+    // Utility class
+  }
+
+  /**
+   * Writes to the output the stripped version of the input jar. The classes that cannot be parsed are copied unchanged.
+   */
+  static void stripJar(Path input, Path output) throws IOException {
+    try (ZipFile zip = new ZipFile(input.toFile());
+      OutputStream stream = Files.newOutputStream(output);
+      ZipOutputStream out = new ZipOutputStream(stream)) {
+      Enumeration<? extends ZipEntry> entries = zip.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
+        String name = entry.getName();
+        if (entry.isDirectory() || !isKept(name)) {
+          continue;
+        }
+        byte[] content;
+        try (InputStream entryInput = zip.getInputStream(entry)) {
+          content = entryInput.readAllBytes();
+        }
+        if (name.endsWith(".class")) {
+          content = stripClassOrKeep(name, content);
+        }
+        ZipEntry stripped = new ZipEntry(name);
+        stripped.setTime(ENTRY_TIME);
+        out.putNextEntry(stripped);
+        out.write(content);
+        out.closeEntry();
+      }
+    }
+  }
+
+  private static boolean isKept(String name) {
+    return name.endsWith(".class")
+      || name.equals(MANIFEST)
+      || (name.startsWith("META-INF/") && name.endsWith(".kotlin_module"))
+      || name.endsWith(".kotlin_builtins");
+  }
+
+  private static byte[] stripClassOrKeep(String name, byte[] content) {
+    try {
+      return stripClass(content);
+    } catch (IOException e) {
+      LOGGER.debug("Could not strip class {}, keeping it unchanged", name, e);
+      return content;
+    }
+  }
+
+  /**
+   * @return the class file without the method bodies, the private fields and methods and the class attributes of
+   * {@link #REMOVED_CLASS_ATTRIBUTES}. The constant pool is kept as is, so the remaining indexes stay valid.
+   * @throws IOException if the content is not a class file
+   */
+  static byte[] stripClass(byte[] content) throws IOException {
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(content));
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length);
+    DataOutputStream output = new DataOutputStream(bytes);
+
+    if (input.readInt() != MAGIC) {
+      throw new IOException("Not a class file");
+    }
+    output.writeInt(MAGIC);
+    // minor and major versions
+    output.writeInt(input.readInt());
+    String[] strings = copyConstantPool(input, output);
+    // access flags, this class and super class
+    copy(input, output, 6);
+    int interfaces = input.readUnsignedShort();
+    output.writeShort(interfaces);
+    copy(input, output, 2 * interfaces);
+    copyMembers(input, output, strings);
+    copyMembers(input, output, strings);
+    copyAttributes(input, output, strings, REMOVED_CLASS_ATTRIBUTES);
+    if (input.available() > 0) {
+      throw new IOException("Unexpected content after the class attributes");
+    }
+    output.flush();
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Copies the constant pool.
+   *
+   * @return the strings of the constant pool by index, to look up the attribute names
+   */
+  private static String[] copyConstantPool(DataInputStream input, DataOutputStream output) throws IOException {
+    int count = input.readUnsignedShort();
+    output.writeShort(count);
+    String[] strings = new String[count];
+    for (int i = 1; i < count; i++) {
+      int tag = input.readUnsignedByte();
+      output.writeByte(tag);
+      if (tag == ClassReferences.CONSTANT_UTF8) {
+        strings[i] = input.readUTF();
+        output.writeUTF(strings[i]);
+      } else {
+        copy(input, output, ClassReferences.constantLength(tag));
+        if (ClassReferences.isTwoEntriesConstant(tag)) {
+          i++;
+        }
+      }
+    }
+    return strings;
+  }
+
+  private static void copyMembers(DataInputStream input, DataOutputStream output, String[] strings) throws IOException {
+    int count = input.readUnsignedShort();
+    ByteArrayOutputStream members = new ByteArrayOutputStream();
+    DataOutputStream membersOutput = new DataOutputStream(members);
+    int kept = 0;
+    for (int i = 0; i < count; i++) {
+      int access = input.readUnsignedShort();
+      // name and descriptor
+      byte[] nameAndDescriptor = input.readNBytes(4);
+      if ((access & ACC_PRIVATE) != 0) {
+        skipAttributes(input);
+        continue;
+      }
+      kept++;
+      membersOutput.writeShort(access);
+      membersOutput.write(nameAndDescriptor);
+      copyAttributes(input, membersOutput, strings, REMOVED_MEMBER_ATTRIBUTES);
+    }
+    output.writeShort(kept);
+    membersOutput.flush();
+    members.writeTo(output);
+  }
+
+  private static void copyAttributes(DataInputStream input, DataOutputStream output, String[] strings, Set<String> removed) throws IOException {
+    int count = input.readUnsignedShort();
+    ByteArrayOutputStream attributes = new ByteArrayOutputStream();
+    DataOutputStream attributesOutput = new DataOutputStream(attributes);
+    int kept = 0;
+    for (int i = 0; i < count; i++) {
+      int nameIndex = input.readUnsignedShort();
+      int length = input.readInt();
+      byte[] content = input.readNBytes(length);
+      if (content.length != length) {
+        throw new IOException("Truncated attribute");
+      }
+      if (nameIndex < strings.length && strings[nameIndex] != null && removed.contains(strings[nameIndex])) {
+        continue;
+      }
+      kept++;
+      attributesOutput.writeShort(nameIndex);
+      attributesOutput.writeInt(length);
+      attributesOutput.write(content);
+    }
+    output.writeShort(kept);
+    attributesOutput.flush();
+    attributes.writeTo(output);
+  }
+
+  private static void skipAttributes(DataInputStream input) throws IOException {
+    int count = input.readUnsignedShort();
+    for (int i = 0; i < count; i++) {
+      input.readUnsignedShort();
+      int length = input.readInt();
+      if (input.skip(length) != length) {
+        throw new IOException("Truncated attribute");
+      }
+    }
+  }
+
+  private static void copy(DataInputStream input, DataOutputStream output, int length) throws IOException {
+    byte[] content = input.readNBytes(length);
+    if (content.length != length) {
+      throw new IOException("Truncated class file");
+    }
+    output.write(content);
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.sonarqube.gradle.SonarUtils.InputFileType;
+
+/**
+ * The inclusions and exclusions the scanner engine applies to the sources of the root project, so that
+ * {@code sonar.gradle.scanAll} does not collect files the engine would discard.
+ * <p>
+ * Main files are filtered with {@code sonar.inclusions} and {@code sonar.exclusions}, test files with
+ * {@code sonar.test.inclusions} and {@code sonar.test.exclusions}. Whether a file is a test file depends on its path,
+ * see {@link SonarUtils#findProjectFileType(Path, Path)}, so a directory is only pruned when none of the files below
+ * it can be in the scope, whatever their type.
+ */
+public final class AnalysisScope {
+
+  private final Path baseDir;
+  private final List<SonarPathPattern> inclusions;
+  private final List<SonarPathPattern> exclusions;
+  private final List<SonarPathPattern> testInclusions;
+  private final List<SonarPathPattern> testExclusions;
+
+  AnalysisScope(Path baseDir, Collection<String> inclusions, Collection<String> exclusions, Collection<String> testInclusions,
+    Collection<String> testExclusions) {
+    this.baseDir = baseDir;
+    this.inclusions = compile(inclusions);
+    this.exclusions = compile(exclusions);
+    this.testInclusions = compile(testInclusions);
+    this.testExclusions = compile(testExclusions);
+  }
+
+  private static List<SonarPathPattern> compile(Collection<String> patterns) {
+    return patterns.stream()
+      .filter(pattern -> !pattern.isBlank())
+      .map(SonarPathPattern::new)
+      .collect(Collectors.toList());
+  }
+
+  boolean isEmpty() {
+    return inclusions.isEmpty() && exclusions.isEmpty() && testInclusions.isEmpty() && testExclusions.isEmpty();
+  }
+
+  /**
+   * @return whether no file below the directory can be in the scope
+   */
+  boolean isExcludedDirectory(Path directory) {
+    if (directory.equals(baseDir)) {
+      return false;
+    }
+    boolean excludedFromTests = isExcludedDirectory(directory, testInclusions, testExclusions);
+    if (SonarUtils.findProjectFileType(baseDir, directory) == InputFileType.TEST) {
+      // Everything below a test directory is a test file
+      return excludedFromTests;
+    }
+    return excludedFromTests && isExcludedDirectory(directory, inclusions, exclusions);
+  }
+
+  private boolean isExcludedDirectory(Path directory, List<SonarPathPattern> included, List<SonarPathPattern> excluded) {
+    return anyMatch(excluded, directory, SonarPathPattern::matchesEverythingBelow)
+      || (!included.isEmpty() && !anyMatch(included, directory, SonarPathPattern::mayMatchBelow));
+  }
+
+  boolean isExcluded(Path file, InputFileType type) {
+    return type == InputFileType.TEST
+      ? isExcluded(file, testInclusions, testExclusions)
+      : isExcluded(file, inclusions, exclusions);
+  }
+
+  private boolean isExcluded(Path file, List<SonarPathPattern> included, List<SonarPathPattern> excluded) {
+    return anyMatch(excluded, file, SonarPathPattern::matches)
+      || (!included.isEmpty() && !anyMatch(included, file, SonarPathPattern::matches));
+  }
+
+  /**
+   * Computes the relative and absolute forms of the path at most once, and only if a pattern needs them.
+   */
+  private boolean anyMatch(List<SonarPathPattern> patterns, Path path, BiPredicate<SonarPathPattern, String> predicate) {
+    String relativePath = null;
+    String absolutePath = null;
+    for (SonarPathPattern pattern : patterns) {
+      String matchedPath;
+      if (pattern.isAbsolute()) {
+        absolutePath = absolutePath == null ? SonarPathPattern.toString(path.toAbsolutePath()) : absolutePath;
+        matchedPath = absolutePath;
+      } else {
+        relativePath = relativePath == null ? SonarPathPattern.toString(baseDir.relativize(path)) : relativePath;
+        matchedPath = relativePath;
+      }
+      if (predicate.test(pattern, matchedPath)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return an identifier of the patterns, which changes when any of them changes
+   */
+  String fingerprint() {
+    return Stream.of(inclusions, exclusions, testInclusions, testExclusions)
+      .map(patterns -> patterns.stream().map(SonarPathPattern::toString).collect(Collectors.joining(",")))
+      .collect(Collectors.joining(";"));
+  }
+}
@@ -230,6 +230,9 @@ public class AndroidConfig {
         TargetJvmEnvironment.TARGET_JVM_ENVIRONMENT_ATTRIBUTE,
         project.getObjects().named(TargetJvmEnvironment.class, TargetJvmEnvironment.ANDROID)
       );
+      if (AbiJarTransform.isEnabled(project)) {
+        attributeContainer.attribute(AbiJarTransform.ABI_ATTRIBUTE, true);
+      }
     })).getFiles();
   }
 
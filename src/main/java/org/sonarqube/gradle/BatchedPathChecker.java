@@ -0,0 +1,157 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+
+/**
+ * Checks at once the paths of the properties filtered by the {@link SonarTask}: which files exist and which directories
+ * contain test reports. The files are grouped by parent directory, and the directories are checked on several threads.
+ * The results only depend on the files, so they do not depend on the order in which the directories are checked.
+ * <p>
+ * Files exist as with {@link java.nio.file.Files#exists}, following symbolic links. When several files share a parent,
+ * the parent is listed once to rule out the missing files without looking each of them up.
+ */
+class BatchedPathChecker {
+
+  /**
+   * Below this number of files, looking them up costs less than listing their parent, which can be large, such as the
+   * directories of the Gradle caches.
+   */
+  static final int MIN_FILES_TO_LIST = 3;
+
+  private final FileStatusCache fileStatus;
+  private final Predicate<String> isReport;
+  private final Set<String> files = new LinkedHashSet<>();
+  private final Set<String> reportDirectories = new LinkedHashSet<>();
+  private final Map<String, Boolean> existingFiles = new ConcurrentHashMap<>();
+  private final Map<String, Boolean> directoriesWithReports = new ConcurrentHashMap<>();
+
+  BatchedPathChecker(FileStatusCache fileStatus, Predicate<String> isReport) {
+    this.fileStatus = fileStatus;
+    this.isReport = isReport;
+  }
+
+  void addFile(String path) {
+    files.add(path);
+  }
+
+  void addReportDirectory(String path) {
+    reportDirectories.add(path);
+  }
+
+  /**
+   * Checks the added paths, on up to {@code parallelism} threads.
+   */
+  void check(int parallelism) {
+    List<Runnable> checks = new ArrayList<>();
+    groupByParent(files).forEach((parent, paths) -> checks.add(() -> checkFiles(parent.orElse(null), paths)));
+    reportDirectories.forEach(directory -> checks.add(() -> directoriesWithReports.put(directory, listsReports(directory))));
+    if (parallelism == 1 || checks.size() < 2) {
+      checks.forEach(Runnable::run);
+      return;
+    }
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      checks.stream()
+        .map(pool::submit)
+        .collect(Collectors.toList())
+        .forEach(ForkJoinTask::join);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * @return whether the given file, added with {@link #addFile(String)}, exists
+   */
+  boolean exists(String path) {
+    return existingFiles.getOrDefault(path, false);
+  }
+
+  /**
+   * @return whether the given directory, added with {@link #addReportDirectory(String)}, contains a test report
+   */
+  boolean containsReports(String path) {
+    return directoriesWithReports.getOrDefault(path, false);
+  }
+
+  private static Map<Optional<Path>, List<String>> groupByParent(Set<String> paths) {
+    Map<Optional<Path>, List<String>> groups = new LinkedHashMap<>();
+    for (String path : paths) {
+      groups.computeIfAbsent(Optional.ofNullable(Path.of(path).getParent()), parent -> new ArrayList<>()).add(path);
+    }
+    return groups;
+  }
+
+  /**
+   * The files listed in their parent directory are still looked up, as they may be dangling symbolic links. The others
+   * do not exist, unless their name may match a listed file without being equal to it: {@code .} and {@code ..}, names
+   * that differ in case on case-insensitive file systems or in Unicode normalization.
+   */
+  private void checkFiles(@Nullable Path parent, List<String> paths) {
+    if (parent == null || paths.size() < MIN_FILES_TO_LIST) {
+      paths.forEach(path -> existingFiles.put(path, fileStatus.exists(Path.of(path))));
+      return;
+    }
+    List<String> names = fileStatus.list(parent.toFile());
+    if (names == null && !fileStatus.exists(parent)) {
+      paths.forEach(path -> existingFiles.put(path, false));
+      return;
+    }
+    Set<String> listed = new HashSet<>();
+    if (names != null) {
+      names.forEach(name -> listed.add(name.toLowerCase(Locale.ROOT)));
+    }
+    for (String path : paths) {
+      Path file = Path.of(path);
+      String name = file.getFileName().toString();
+      boolean mayExist = names == null || listed.contains(name.toLowerCase(Locale.ROOT)) || !isPlainName(name);
+      existingFiles.put(path, mayExist && fileStatus.exists(file));
+    }
+  }
+
+  /**
+   * @return whether the name is only made of ASCII characters and is not {@code .} or {@code ..}
+   */
+  private static boolean isPlainName(String name) {
+    return !".".equals(name) && !"..".equals(name) && name.chars().allMatch(c -> c < 0x80);
+  }
+
+  private boolean listsReports(String directory) {
+    List<String> names = fileStatus.list(Path.of(directory).toFile());
+    return names != null && names.stream().anyMatch(isReport);
+  }
+}
@@ -0,0 +1,244 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+/**
+ * Reads the packages referenced by class files from their constant pool, without loading the classes.
+ * <p>
+ * Besides the class entries, every string of the constant pool is searched for type descriptors such as
+ * {@code Lcom/acme/Foo;}, which covers the field and method types, the generic signatures and the annotations. This can
+ * report a few packages that are not actually used, but does not miss any, which is what {@link ClasspathShrinker} needs.
+ * Packages are in the internal form of the class files, such as {@code com/acme}.
+ */
+class ClassReferences {
+
+  private static final Logger LOGGER = Logging.getLogger(ClassReferences.class);
+
+  private static final int MAGIC = 0xCAFEBABE;
+  private static final String CLASS_SUFFIX = ".class";
+
+  static final int CONSTANT_UTF8 = 1;
+  private static final int CONSTANT_INTEGER = 3;
+  private static final int CONSTANT_FLOAT = 4;
+  private static final int CONSTANT_LONG = 5;
+  private static final int CONSTANT_DOUBLE = 6;
+  private static final int CONSTANT_CLASS = 7;
+  private static final int CONSTANT_STRING = 8;
+  private static final int CONSTANT_FIELDREF = 9;
+  private static final int CONSTANT_METHODREF = 10;
+  private static final int CONSTANT_INTERFACE_METHODREF = 11;
+  private static final int CONSTANT_NAME_AND_TYPE = 12;
+  private static final int CONSTANT_METHOD_HANDLE = 15;
+  private static final int CONSTANT_METHOD_TYPE = 16;
+  private static final int CONSTANT_DYNAMIC = 17;
+  private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+  private static final int CONSTANT_MODULE = 19;
+  private static final int CONSTANT_PACKAGE = 20;
+
+  private ClassReferences() {
+    // Utility class
+  }
+
+  /**
+   * Adds to the given set the packages referenced by the class files below the given directory.
+   * Class files that cannot be read are ignored.
+   */
+  static void addReferencedPackagesOfDirectory(Path directory, Set<String> packages) throws IOException {
+    List<Path> classFiles;
+    try (Stream<Path> files = Files.walk(directory)) {
+      classFiles = files
+        .filter(file -> file.getFileName().toString().endsWith(CLASS_SUFFIX))
+        .filter(Files::isRegularFile)
+        .collect(Collectors.toList());
+    }
+    for (Path classFile : classFiles) {
+      try (InputStream input = Files.newInputStream(classFile)) {
+        addReferencedPackages(input, packages);
+      } catch (IOException e) {
+        LOGGER.debug("Could not read class file {}", classFile, e);
+      }
+    }
+  }
+
+  /**
+   * Adds to the given set the packages referenced by the constant pool of the given class file.
+   *
+   * @throws IOException if the input is not a class file or the constant pool uses an unknown tag
+   */
+  static void addReferencedPackages(InputStream classFile, Set<String> packages) throws IOException {
+    DataInputStream input = new DataInputStream(new BufferedInputStream(classFile));
+    if (input.readInt() != MAGIC) {
+      throw new IOException("Not a class file");
+    }
+    // minor and major versions
+    input.readUnsignedShort();
+    input.readUnsignedShort();
+    int count = input.readUnsignedShort();
+    String[] strings = new String[count];
+    List<Integer> classNames = new ArrayList<>();
+    byte[] skipped = new byte[8];
+    for (int i = 1; i < count; i++) {
+      int tag = input.readUnsignedByte();
+      if (tag == CONSTANT_UTF8) {
+        strings[i] = input.readUTF();
+      } else if (tag == CONSTANT_CLASS) {
+        classNames.add(input.readUnsignedShort());
+      } else {
+        input.readFully(skipped, 0, constantLength(tag));
+        if (isTwoEntriesConstant(tag)) {
+          i++;
+        }
+      }
+    }
+    for (int index : classNames) {
+      String name = index < count ? strings[index] : null;
+      if (name != null && !name.startsWith("[")) {
+        packages.add(packageOf(name));
+      }
+    }
+    for (String string : strings) {
+      if (string != null) {
+        addDescriptorPackages(string, packages);
+      }
+    }
+  }
+
+  /**
+   * @return the length of a constant pool entry with the given tag, which is not {@link #CONSTANT_UTF8}, after the tag
+   * @throws IOException if the tag is unknown
+   */
+  static int constantLength(int tag) throws IOException {
+    switch (tag) {
+      case CONSTANT_CLASS:
+      case CONSTANT_STRING:
+      case CONSTANT_METHOD_TYPE:
+      case CONSTANT_MODULE:
+      case CONSTANT_PACKAGE:
+        return 2;
+      case CONSTANT_METHOD_HANDLE:
+        return 3;
+      case CONSTANT_INTEGER:
+      case CONSTANT_FLOAT:
+      case CONSTANT_FIELDREF:
+      case CONSTANT_METHODREF:
+      case CONSTANT_INTERFACE_METHODREF:
+      case CONSTANT_NAME_AND_TYPE:
+      case CONSTANT_DYNAMIC:
+      case CONSTANT_INVOKE_DYNAMIC:
+        return 4;
+      case CONSTANT_LONG:
+      case CONSTANT_DOUBLE:
+        return 8;
+      default:
+        throw new IOException("Unknown constant pool tag " + tag);
+    }
+  }
+
+  /**
+   * @return whether a constant pool entry with the given tag takes two indexes of the constant pool
+   */
+  static boolean isTwoEntriesConstant(int tag) {
+    return tag == CONSTANT_LONG || tag == CONSTANT_DOUBLE;
+  }
+
+  /**
+   * @return the package of a class in internal form, empty for the default package
+   */
+  static String packageOf(String internalName) {
+    int lastSlash = internalName.lastIndexOf('/');
+    return lastSlash < 0 ? "" : internalName.substring(0, lastSlash);
+  }
+
+  /**
+   * @return the package of a class file entry of a jar, or {@code null} if the entry is not a class of the jar, such as
+   * {@code module-info.class}. The classes of multi-release jars are in the package they would have without the version prefix.
+   */
+  @CheckForNull
+  static String packageOfEntry(String entryName) {
+    if (!entryName.endsWith(CLASS_SUFFIX) || entryName.endsWith("module-info.class")) {
+      return null;
+    }
+    String name = entryName;
+    if (name.startsWith("META-INF/versions/")) {
+      int versionEnd = name.indexOf('/', "META-INF/versions/".length());
+      if (versionEnd < 0) {
+        return null;
+      }
+      name = name.substring(versionEnd + 1);
+    } else if (name.startsWith("META-INF/")) {
+      return null;
+    }
+    return packageOf(name);
+  }
+
+  /**
+   * Adds the packages of the {@code L<internal name>;} sequences of a string, which are the class types of descriptors and signatures.
+   */
+  private static void addDescriptorPackages(String string, Set<String> packages) {
+    int start = string.indexOf('L');
+    while (start >= 0) {
+      int end = descriptorEnd(string, start + 1);
+      if (end > 0) {
+        packages.add(packageOf(string.substring(start + 1, end)));
+        start = string.indexOf('L', end);
+      } else {
+        start = string.indexOf('L', start + 1);
+      }
+    }
+  }
+
+  /**
+   * @return the index of the {@code ;} or {@code <} ending a class type starting at the given index, or -1 if there is
+   * none or the class is in the default package, which keeps the plain strings of the constant pool out
+   */
+  private static int descriptorEnd(String string, int from) {
+    boolean hasSlash = false;
+    boolean identifierStart = true;
+    for (int i = from; i < string.length(); i++) {
+      char c = string.charAt(i);
+      if ((c == ';' || c == '<') && !identifierStart) {
+        return hasSlash ? i : -1;
+      } else if (c == '/' && !identifierStart) {
+        hasSlash = true;
+        identifierStart = true;
+      } else if (identifierStart ? Character.isJavaIdentifierStart(c) : Character.isJavaIdentifierPart(c)) {
+        identifierStart = false;
+      } else {
+        return -1;
+      }
+    }
+    return -1;
+  }
+}
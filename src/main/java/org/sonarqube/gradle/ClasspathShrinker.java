@@ -0,0 +1,211 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import static org.sonarqube.gradle.properties.SonarProperty.JAVA_BINARIES;
+import static org.sonarqube.gradle.properties.SonarProperty.JAVA_LIBRARIES;
+import static org.sonarqube.gradle.properties.SonarProperty.JAVA_TEST_BINARIES;
+import static org.sonarqube.gradle.properties.SonarProperty.JAVA_TEST_LIBRARIES;
+
+/**
+ * Removes from the libraries of each module the jars that cannot provide any class used by the module.
+ * <p>
+ * The packages referenced by the classes of {@code sonar.java.binaries}, and of {@code sonar.java.test.binaries} for the
+ * test libraries, are read with {@link ClassReferences}. A jar is kept if it provides one of these packages, or one of the
+ * packages referenced by another kept jar, so that the super types of the used classes stay on the classpath. Directories,
+ * wildcards and files that are not jars are always kept, and the libraries of modules without compiled classes are not
+ * changed.
+ */
+class ClasspathShrinker {
+
+  private static final Logger LOGGER = Logging.getLogger(ClasspathShrinker.class);
+
+  private final LibraryPackages libraryPackages;
+  private final Map<List<String>, Optional<Set<String>>> referencedPackagesByBinaries = new HashMap<>();
+
+  ClasspathShrinker(LibraryPackages libraryPackages) {
+    this.libraryPackages = libraryPackages;
+  }
+
+  /**
+   * @return the number of removed libraries
+   */
+  int shrink(Map<String, String> properties) {
+    return shrink(properties, PropertyKeys.classify(properties.keySet()));
+  }
+
+  /**
+   * Same as {@link #shrink(Map)}, with the keys of the properties already classified.
+   */
+  int shrink(Map<String, String> properties, PropertyKeys keys) {
+    int removed = 0;
+    for (PropertyKeys.Key librariesKey : keys.get(PropertyKeys.Kind.LIBRARIES)) {
+      String key = librariesKey.key;
+      String value = properties.get(key);
+      if (value == null || value.isEmpty()) {
+        continue;
+      }
+      List<String> binariesKeys = binariesKeys(librariesKey);
+      Optional<Set<String>> referencedPackages = referencedPackages(properties, binariesKeys);
+      if (referencedPackages.isEmpty()) {
+        LOGGER.debug("Not shrinking {}, the classes of the module are not available", key);
+        continue;
+      }
+      List<String> libraries = SonarUtils.splitAsCsv(value);
+      List<String> kept = shrink(libraries, referencedPackages.get());
+      if (kept.size() < libraries.size()) {
+        LOGGER.debug("Removed {} of the {} libraries of {}, they provide no class used by the module", libraries.size() - kept.size(), libraries.size(), key);
+        removed += libraries.size() - kept.size();
+        properties.put(key, SonarUtils.joinAsCsv(kept));
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * @return the keys of the binaries used with the given libraries property
+   */
+  private static List<String> binariesKeys(PropertyKeys.Key librariesKey) {
+    String prefix = librariesKey.modulePrefix();
+    if (JAVA_TEST_LIBRARIES.equals(librariesKey.property.getProperty())) {
+      return List.of(prefix + JAVA_BINARIES, prefix + JAVA_TEST_BINARIES);
+    }
+    return List.of(prefix + JAVA_BINARIES);
+  }
+
+  /**
+   * @return the packages referenced by the given binaries, or empty if one of the properties has no class, such as the
+   * test binaries when the tests are not compiled, or the classes cannot all be read
+   */
+  private Optional<Set<String>> referencedPackages(Map<String, String> properties, List<String> binariesKeys) {
+    return referencedPackagesByBinaries.computeIfAbsent(binariesKeys, keys -> {
+      Set<String> packages = new HashSet<>();
+      for (String key : keys) {
+        Set<String> keyPackages = new HashSet<>();
+        for (String binaries : SonarUtils.splitAsCsv(properties.getOrDefault(key, ""))) {
+          if (!addReferencedPackages(binaries.trim(), keyPackages)) {
+            return Optional.empty();
+          }
+        }
+        if (keyPackages.isEmpty()) {
+          return Optional.empty();
+        }
+        packages.addAll(keyPackages);
+      }
+      return Optional.of(packages);
+    });
+  }
+
+  private boolean addReferencedPackages(String binaries, Set<String> packages) {
+    if (binaries.isEmpty()) {
+      return true;
+    }
+    if (SonarTask.containsWildcard(binaries)) {
+      return false;
+    }
+    try {
+      Path path = Path.of(binaries);
+      if (Files.isDirectory(path)) {
+        ClassReferences.addReferencedPackagesOfDirectory(path, packages);
+      } else if (isJar(path)) {
+        packages.addAll(libraryPackages.get(path).referenced);
+      }
+      return true;
+    } catch (IOException | InvalidPathException e) {
+      LOGGER.debug("Could not read the classes of {}", binaries, e);
+      return false;
+    }
+  }
+
+  private List<String> shrink(List<String> libraries, Set<String> referencedPackages) {
+    List<LibraryPackages.Entry> jars = new ArrayList<>(libraries.size());
+    Map<String, List<Integer>> jarsByPackage = new HashMap<>();
+    for (int i = 0; i < libraries.size(); i++) {
+      LibraryPackages.Entry jar = jar(libraries.get(i).trim());
+      jars.add(jar);
+      if (jar != null) {
+        for (String packageName : jar.provided) {
+          jarsByPackage.computeIfAbsent(packageName, p -> new ArrayList<>()).add(i);
+        }
+      }
+    }
+
+    Set<Integer> usedJars = new HashSet<>();
+    Set<String> visitedPackages = new HashSet<>(referencedPackages);
+    Deque<String> pendingPackages = new ArrayDeque<>(referencedPackages);
+    while (!pendingPackages.isEmpty()) {
+      for (int index : jarsByPackage.getOrDefault(pendingPackages.poll(), List.of())) {
+        if (usedJars.add(index)) {
+          jars.get(index).referenced.stream()
+            .filter(visitedPackages::add)
+            .forEach(pendingPackages::add);
+        }
+      }
+    }
+
+    List<String> kept = new ArrayList<>(libraries.size());
+    for (int i = 0; i < libraries.size(); i++) {
+      if (jars.get(i) == null || usedJars.contains(i)) {
+        kept.add(libraries.get(i));
+      } else {
+        LOGGER.debug("Removing unused library {}", libraries.get(i));
+      }
+    }
+    return kept;
+  }
+
+  /**
+   * @return the packages of the given library, or {@code null} if it is not a readable jar and must be kept
+   */
+  @CheckForNull
+  private LibraryPackages.Entry jar(String library) {
+    if (library.isEmpty() || SonarTask.containsWildcard(library)) {
+      return null;
+    }
+    try {
+      Path path = Path.of(library);
+      return isJar(path) ? libraryPackages.get(path) : null;
+    } catch (IOException | InvalidPathException e) {
+      LOGGER.debug("Could not read the classes of library {}", library, e);
+      return null;
+    }
+  }
+
+  private static boolean isJar(Path path) {
+    return path.getFileName() != null && path.getFileName().toString().endsWith(".jar") && Files.isRegularFile(path);
+  }
+}
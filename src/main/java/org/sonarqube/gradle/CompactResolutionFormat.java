@@ -0,0 +1,260 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Binary encoding of {@link ProjectProperties}, written by {@link SonarResolverTask} for one project or by
+ * {@link SonarAggregatedResolverTask} for all of them, and read by {@link SonarTask}.
+ * <p>
+ * Modules share most of their dependencies, and the paths of these dependencies share long prefixes in the Gradle
+ * caches. The paths of all lists of all modules are therefore stored once, sorted and prefix-compressed, in a table at
+ * the start of the file, and the lists only reference them by index. The paths below one of the {@link PathRoots} are
+ * stored relative to it, so that the file can be restored from the build cache on another machine:
+ * <pre>
+ *   magic "SQRF", version byte
+ *   root count, root names
+ *   path count, then for each path: root (0 for an absolute path, otherwise the index of the root name plus one),
+ *     length of the prefix shared with the previous path, suffix
+ *   module count, then for each module:
+ *     project name, root project flag (0 false, 1 true, 2 null)
+ *     for each list: size, then the index of each path
+ * </pre>
+ * Numbers are unsigned variable-length integers and strings are UTF-8 bytes prefixed with their length.
+ */
+class CompactResolutionFormat {
+
+  static final byte[] MAGIC = {'S', 'Q', 'R', 'F'};
+  static final int VERSION = 2;
+
+  private static final int ROOT_PROJECT_NULL = 2;
+
+  private CompactResolutionFormat() {
+    /* No instantiation expected */
+  }
+
+  static void write(DataOutputStream output, List<ProjectProperties> modules, PathRoots roots) throws IOException {
+    Set<String> distinctPaths = new LinkedHashSet<>();
+    for (ProjectProperties properties : modules) {
+      lists(properties).forEach(distinctPaths::addAll);
+    }
+    List<String> rootNames = roots.names();
+    List<StoredPath> sortedPaths = new ArrayList<>(distinctPaths.size());
+    for (String path : distinctPaths) {
+      String root = roots.findRoot(path);
+      sortedPaths.add(root == null
+        ? new StoredPath(path, 0, path)
+        : new StoredPath(path, rootNames.indexOf(root) + 1, roots.relativize(root, path)));
+    }
+    sortedPaths.sort(Comparator.comparingInt((StoredPath stored) -> stored.root).thenComparing(stored -> stored.relativePath));
+
+    output.write(MAGIC);
+    output.writeByte(VERSION);
+
+    writeVarInt(output, rootNames.size());
+    for (String rootName : rootNames) {
+      writeBytes(output, rootName.getBytes(StandardCharsets.UTF_8));
+    }
+
+    Map<String, Integer> indexes = new HashMap<>();
+    writeVarInt(output, sortedPaths.size());
+    byte[] previous = new byte[0];
+    for (StoredPath stored : sortedPaths) {
+      indexes.put(stored.path, indexes.size());
+      byte[] bytes = stored.relativePath.getBytes(StandardCharsets.UTF_8);
+      int prefix = Arrays.mismatch(previous, bytes);
+      // mismatch is -1 for equal relative paths below different roots, or the length of the shorter array for prefixes
+      prefix = prefix < 0 ? bytes.length : prefix;
+      writeVarInt(output, stored.root);
+      writeVarInt(output, prefix);
+      writeVarInt(output, bytes.length - prefix);
+      output.write(bytes, prefix, bytes.length - prefix);
+      previous = bytes;
+    }
+
+    writeVarInt(output, modules.size());
+    for (ProjectProperties properties : modules) {
+      writeBytes(output, properties.projectName.getBytes(StandardCharsets.UTF_8));
+      output.writeByte(properties.isRootProject == null ? ROOT_PROJECT_NULL : (properties.isRootProject ? 1 : 0));
+      for (List<String> list : lists(properties)) {
+        writeVarInt(output, list.size());
+        for (String path : list) {
+          writeVarInt(output, indexes.get(path));
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads the modules written by {@link #write(DataOutputStream, List, PathRoots)}, after the magic bytes, rebasing the
+   * relative paths on the given roots.
+   */
+  static List<ProjectProperties> read(DataInputStream input, PathRoots roots) throws IOException {
+    int version = input.readUnsignedByte();
+    if (version != VERSION) {
+      throw new IOException("Unsupported resolver file version " + version + ", expected " + VERSION);
+    }
+
+    int rootCount = readVarInt(input);
+    String[] rootNames = new String[rootCount];
+    for (int i = 0; i < rootCount; i++) {
+      rootNames[i] = new String(readBytes(input), StandardCharsets.UTF_8);
+    }
+
+    int pathCount = readVarInt(input);
+    String[] paths = new String[pathCount];
+    byte[] buffer = new byte[256];
+    int length = 0;
+    for (int i = 0; i < pathCount; i++) {
+      int root = readVarInt(input);
+      if (root > rootCount) {
+        throw new IOException("Corrupted resolver file, invalid root " + root);
+      }
+      int prefix = readVarInt(input);
+      int suffix = readVarInt(input);
+      if (prefix > length) {
+        throw new IOException("Corrupted resolver file, invalid prefix length " + prefix);
+      }
+      length = prefix + suffix;
+      if (length > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(length, buffer.length * 2));
+      }
+      input.readFully(buffer, prefix, suffix);
+      String path = new String(buffer, 0, length, StandardCharsets.UTF_8);
+      if (root == 0) {
+        paths[i] = path;
+      } else {
+        paths[i] = roots.resolve(rootNames[root - 1], path);
+        if (paths[i] == null) {
+          throw new IOException("Unknown root '" + rootNames[root - 1] + "' in resolver file");
+        }
+      }
+    }
+
+    int moduleCount = readVarInt(input);
+    List<ProjectProperties> modules = new ArrayList<>(Math.min(moduleCount, 1024));
+    for (int i = 0; i < moduleCount; i++) {
+      String projectName = new String(readBytes(input), StandardCharsets.UTF_8);
+      int rootProject = input.readUnsignedByte();
+      modules.add(new ProjectProperties.Builder(projectName, rootProject == ROOT_PROJECT_NULL ? null : (rootProject == 1))
+        .compileClasspath(readList(input, paths))
+        .testCompileClasspath(readList(input, paths))
+        .mainLibraries(readList(input, paths))
+        .testLibraries(readList(input, paths))
+        .androidSources(readList(input, paths))
+        .androidTests(readList(input, paths))
+        .build());
+    }
+    return modules;
+  }
+
+  private static class StoredPath {
+    private final String path;
+    private final int root;
+    private final String relativePath;
+
+    private StoredPath(String path, int root, String relativePath) {
+      this.path = path;
+      this.root = root;
+      this.relativePath = relativePath;
+    }
+  }
+
+  /**
+   * The lists of paths in the order they are written.
+   */
+  private static List<List<String>> lists(ProjectProperties properties) {
+    return Arrays.asList(
+      nonNull(properties.compileClasspath),
+      nonNull(properties.testCompileClasspath),
+      nonNull(properties.mainLibraries),
+      nonNull(properties.testLibraries),
+      nonNull(properties.androidSources),
+      nonNull(properties.androidTests));
+  }
+
+  private static List<String> nonNull(@Nullable List<String> list) {
+    return list == null ? List.of() : list;
+  }
+
+  private static List<String> readList(DataInputStream input, String[] paths) throws IOException {
+    int size = readVarInt(input);
+    List<String> list = new ArrayList<>(Math.min(size, paths.length));
+    for (int i = 0; i < size; i++) {
+      int index = readVarInt(input);
+      if (index >= paths.length) {
+        throw new IOException("Corrupted resolver file, invalid path index " + index);
+      }
+      list.add(paths[index]);
+    }
+    return list;
+  }
+
+  private static void writeBytes(DataOutputStream output, byte[] bytes) throws IOException {
+    writeVarInt(output, bytes.length);
+    output.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInputStream input) throws IOException {
+    byte[] bytes = new byte[readVarInt(input)];
+    input.readFully(bytes);
+    return bytes;
+  }
+
+  static void writeVarInt(DataOutputStream output, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      output.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    output.writeByte(value);
+  }
+
+  static int readVarInt(DataInputStream input) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = input.read();
+      if (b < 0) {
+        throw new EOFException();
+      }
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        if (value < 0) {
+          break;
+        }
+        return value;
+      }
+    }
+    throw new IOException("Corrupted resolver file, invalid number");
+  }
+}
@@ -30,10 +30,10 @@ import java.util.Set;
  * </p>
  */
 public class ComputedProperties {
-  public final Map<String, Object> properties;
+  public final Map<String, String> properties;
   public final Set<String> userDefinedKeys;
 
-  public ComputedProperties(Map<String, Object> properties, Set<String> userDefinedKeys) {
+  public ComputedProperties(Map<String, String> properties, Set<String> userDefinedKeys) {
     this.properties = properties;
     this.userDefinedKeys = userDefinedKeys;
   }
@@ -0,0 +1,159 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+/**
+ * Drops files {@code sonar.gradle.scanAll} would otherwise collect because of their name, when they are larger than a
+ * size ceiling or when their content is binary.
+ * <p>
+ * The size comes from the attributes read while walking, so it costs nothing. A file is considered binary when its
+ * first {@value #SNIFF_SIZE} bytes contain a NUL byte, which is the heuristic git uses, unless they start with a
+ * UTF-16 or UTF-32 byte order mark. Only this bounded head is read, into a per-thread direct buffer, and only for files
+ * that passed every other check.
+ */
+public final class ContentSniffer {
+
+  static final int SNIFF_SIZE = 8 * 1024;
+
+  private static final Logger LOGGER = Logging.getLogger(ContentSniffer.class);
+  private static final ThreadLocal<ByteBuffer> BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(SNIFF_SIZE));
+
+  private final boolean skipBinaryFiles;
+  private final long maxFileSize;
+  private final AtomicInteger binaryFiles = new AtomicInteger();
+  private final AtomicInteger oversizedFiles = new AtomicInteger();
+
+  /**
+   * @param skipBinaryFiles whether to read the head of files to drop binary ones
+   * @param maxFileSize     the size in bytes above which files are dropped, or {@link Long#MAX_VALUE}
+   */
+  public ContentSniffer(boolean skipBinaryFiles, long maxFileSize) {
+    this.skipBinaryFiles = skipBinaryFiles;
+    this.maxFileSize = maxFileSize;
+  }
+
+  /**
+   * Outcome of the check of a file, kept in the {@link ScanAllIndex} so that unchanged files are not read again.
+   */
+  enum Verdict {
+    ACCEPTED,
+    BINARY,
+    OVERSIZED
+  }
+
+  boolean accept(Path file, BasicFileAttributes attributes) {
+    return sniff(file, attributes) == Verdict.ACCEPTED;
+  }
+
+  Verdict sniff(Path file, BasicFileAttributes attributes) {
+    Verdict verdict;
+    if (attributes.size() > maxFileSize) {
+      verdict = Verdict.OVERSIZED;
+    } else if (skipBinaryFiles && isBinary(file)) {
+      verdict = Verdict.BINARY;
+    } else {
+      verdict = Verdict.ACCEPTED;
+    }
+    count(verdict);
+    return verdict;
+  }
+
+  /**
+   * Counts a verdict reused from a previous walk for an unchanged file.
+   */
+  void count(Verdict verdict) {
+    if (verdict == Verdict.OVERSIZED) {
+      oversizedFiles.incrementAndGet();
+    } else if (verdict == Verdict.BINARY) {
+      binaryFiles.incrementAndGet();
+    }
+  }
+
+  private static boolean isBinary(Path file) {
+    ByteBuffer buffer = BUFFER.get();
+    buffer.clear();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+        // Filling the buffer, a single read may return less than what is available
+      }
+    } catch (IOException e) {
+      // Left to the scanner engine, which reports unreadable files
+      LOGGER.debug("Could not read {}", file, e);
+      return false;
+    }
+    buffer.flip();
+    if (startsWithByteOrderMark(buffer)) {
+      return false;
+    }
+    for (int i = 0; i < buffer.limit(); i++) {
+      if (buffer.get(i) == 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * UTF-16 and UTF-32 text contains NUL bytes.
+   */
+  private static boolean startsWithByteOrderMark(ByteBuffer buffer) {
+    int length = buffer.limit();
+    if (length < 2) {
+      return false;
+    }
+    int first = Byte.toUnsignedInt(buffer.get(0));
+    int second = Byte.toUnsignedInt(buffer.get(1));
+    boolean utf16 = (first == 0xFE && second == 0xFF) || (first == 0xFF && second == 0xFE);
+    boolean utf32BigEndian = length >= 4 && first == 0 && second == 0 && Byte.toUnsignedInt(buffer.get(2)) == 0xFE && Byte.toUnsignedInt(buffer.get(3)) == 0xFF;
+    return utf16 || utf32BigEndian;
+  }
+
+  /**
+   * @return the number of files dropped because their content is binary
+   */
+  public int getBinaryFiles() {
+    return binaryFiles.get();
+  }
+
+  /**
+   * @return the number of files dropped because of their size
+   */
+  public int getOversizedFiles() {
+    return oversizedFiles.get();
+  }
+
+  long getMaxFileSize() {
+    return maxFileSize;
+  }
+
+  String fingerprint() {
+    return skipBinaryFiles + "," + maxFileSize;
+  }
+}
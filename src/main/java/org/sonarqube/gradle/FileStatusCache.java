@@ -0,0 +1,105 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.annotation.CheckForNull;
+
+/**
+ * Remembers the files that exist and what directories contain, as the same paths are looked up many times before the
+ * analysis, such as the jars shared by the classpaths of all the modules. Files are keyed by their absolute path.
+ * <p>
+ * An instance is shared by the resolver tasks and the sonar tasks of a build through the {@link FileStatusService}.
+ * It is only used while these tasks run, after tasks such as {@code clean} that remove files, and not for the lookups
+ * made when the configuration cache is stored. The files that do not exist are looked up again, as some are created by
+ * other tasks between the resolver tasks. The directory contents and whether files are directories are only looked up
+ * by the sonar task, which runs after the tasks writing the reports. Lookups can be made from several threads.
+ */
+class FileStatusCache {
+
+  private final Set<String> existingFiles = ConcurrentHashMap.newKeySet();
+  private final Map<String, Optional<List<String>>> directoryContents = new ConcurrentHashMap<>();
+  private final Map<String, Boolean> directories = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  boolean exists(File file) {
+    String key = file.getAbsolutePath();
+    if (existingFiles.contains(key)) {
+      hits.increment();
+      return true;
+    }
+    misses.increment();
+    if (file.exists()) {
+      existingFiles.add(key);
+      return true;
+    }
+    return false;
+  }
+
+  boolean exists(Path path) {
+    return exists(path.toFile());
+  }
+
+  /**
+   * @return the names of the files in the given directory, or {@code null} if it is not a directory that can be read
+   */
+  @CheckForNull
+  List<String> list(File directory) {
+    return lookup(directoryContents, directory.getAbsolutePath(), () -> {
+      String[] names = directory.list();
+      return names == null ? Optional.<List<String>>empty() : Optional.of(Collections.unmodifiableList(Arrays.asList(names)));
+    }).orElse(null);
+  }
+
+  boolean isDirectory(File file) {
+    return lookup(directories, file.getAbsolutePath(), file::isDirectory);
+  }
+
+  long getHits() {
+    return hits.sum();
+  }
+
+  long getMisses() {
+    return misses.sum();
+  }
+
+  private <T> T lookup(Map<String, T> cache, String key, Supplier<T> loader) {
+    T value = cache.get(key);
+    if (value != null) {
+      hits.increment();
+      return value;
+    }
+    misses.increment();
+    value = loader.get();
+    T previous = cache.putIfAbsent(key, value);
+    return previous == null ? value : previous;
+  }
+}
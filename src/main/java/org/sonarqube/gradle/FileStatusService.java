@@ -0,0 +1,38 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * Holds the {@link FileStatusCache} shared by the resolver tasks and the {@link SonarTask}s of a build, so that the files
+ * used by several modules are only looked up once per build.
+ */
+public abstract class FileStatusService implements BuildService<BuildServiceParameters.None> {
+
+  public static final String SERVICE_NAME = "sonarFileStatus";
+
+  private final FileStatusCache cache = new FileStatusCache();
+
+  FileStatusCache getCache() {
+    return cache;
+  }
+}
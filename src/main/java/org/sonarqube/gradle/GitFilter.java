@@ -0,0 +1,329 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+/**
+ * Prunes the {@code sonar.gradle.scanAll} walk using the git repository containing the project, read straight from
+ * the {@code .git} directory.
+ * <p>
+ * In {@link Mode#GITIGNORE} mode, files and directories ignored by {@code .gitignore} files or by
+ * {@code .git/info/exclude} are skipped, and ignored directories are not descended into. As in git, ignore rules do
+ * not apply to tracked files: when the index can be read, an ignored directory is still entered if it contains tracked
+ * files, and only those are kept. In {@link Mode#TRACKED} mode, only the files listed in the index are kept, and
+ * directories without any tracked file are not descended into.
+ * <p>
+ * {@code .gitignore} files are read when their directory is entered, so the walk must enter a directory before
+ * visiting its content, as {@link java.nio.file.Files#walkFileTree} does. The global {@code core.excludesFile} is not
+ * read, as it depends on the machine rather than on the repository.
+ */
+public final class GitFilter {
+
+  private static final Logger LOGGER = Logging.getLogger(GitFilter.class);
+  private static final String DOT_GIT = ".git";
+  private static final String GITIGNORE = ".gitignore";
+  private static final int SHA1_SIZE = 20;
+  private static final int SHA256_SIZE = 32;
+  private static final Pattern SHA256_OBJECT_FORMAT = Pattern.compile("^\\s*objectformat\\s*=\\s*sha256\\s*$", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
+
+  public enum Mode {
+    GITIGNORE,
+    TRACKED;
+
+    /**
+     * @return the mode named by a {@code sonar.gradle.scanAll.git} value, or empty when filtering is disabled
+     */
+    public static Optional<Mode> parse(@Nullable String value) {
+      if (value == null || value.isBlank() || "none".equalsIgnoreCase(value.trim())) {
+        return Optional.empty();
+      }
+      return Optional.of(valueOf(value.trim().toUpperCase(Locale.ROOT)));
+    }
+  }
+
+  private final Mode mode;
+  private final Path workTree;
+  private final GitIgnoreRules excludes;
+  @Nullable
+  private final GitIndex index;
+  private final String fingerprint;
+  private final Map<Path, DirectoryState> directories = new ConcurrentHashMap<>();
+
+  private GitFilter(Mode mode, Path workTree, byte[] excludes, @Nullable GitIndex index) {
+    this.mode = mode;
+    this.workTree = workTree;
+    this.excludes = mode == Mode.TRACKED ? GitIgnoreRules.EMPTY : GitIgnoreRules.parse(lines(excludes));
+    this.index = index;
+    DirectoryState workTreeState = newState(null, workTree, "", false, mode == Mode.TRACKED ? new byte[0] : excludes);
+    directories.put(workTree, workTreeState);
+    this.fingerprint = mode + "," + (index == null ? "" : index.digest());
+  }
+
+  /**
+   * Looks for the git repository containing {@code root}.
+   *
+   * @return the filter, or empty if {@code root} is not in a git work tree or if the repository cannot be read
+   */
+  public static Optional<GitFilter> create(Path root, Mode mode) {
+    Path absoluteRoot = root.toAbsolutePath().normalize();
+    Path workTree = absoluteRoot;
+    while (workTree != null && !Files.exists(workTree.resolve(DOT_GIT))) {
+      workTree = workTree.getParent();
+    }
+    if (workTree == null) {
+      LOGGER.warn("No git repository found for {}, scanAll sources will not be filtered with git.", absoluteRoot);
+      return Optional.empty();
+    }
+
+    try {
+      Path gitDir = resolveGitDir(workTree.resolve(DOT_GIT));
+      Path commonDir = resolveCommonDir(gitDir);
+      GitIndex index = readIndex(gitDir.resolve("index"), hashSize(commonDir.resolve("config")));
+      if (mode == Mode.TRACKED && index == null) {
+        LOGGER.warn("The git index of {} could not be read, scanAll sources will not be filtered with git.", workTree);
+        return Optional.empty();
+      }
+      GitFilter filter = new GitFilter(mode, workTree, readIfExists(commonDir.resolve("info").resolve("exclude")), index);
+      // The .gitignore files between the work tree and the project apply to the project too
+      filter.stateOf(absoluteRoot);
+      return Optional.of(filter);
+    } catch (IOException e) {
+      LOGGER.warn("The git repository of {} could not be read, scanAll sources will not be filtered with git.", workTree);
+      LOGGER.debug("Could not read the git repository", e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Worktrees and submodules have a {@code .git} file pointing to their git directory.
+   */
+  private static Path resolveGitDir(Path dotGit) throws IOException {
+    if (Files.isDirectory(dotGit)) {
+      return dotGit;
+    }
+    String content = new String(Files.readAllBytes(dotGit), StandardCharsets.UTF_8).trim();
+    if (!content.startsWith("gitdir:")) {
+      throw new IOException("Unexpected content in " + dotGit);
+    }
+    return dotGit.getParent().resolve(content.substring("gitdir:".length()).trim()).normalize();
+  }
+
+  /**
+   * A worktree shares the configuration and the exclude file of the main repository.
+   */
+  private static Path resolveCommonDir(Path gitDir) throws IOException {
+    Path commonDirFile = gitDir.resolve("commondir");
+    if (!Files.isRegularFile(commonDirFile)) {
+      return gitDir;
+    }
+    return gitDir.resolve(new String(Files.readAllBytes(commonDirFile), StandardCharsets.UTF_8).trim()).normalize();
+  }
+
+  private static int hashSize(Path config) throws IOException {
+    String content = new String(readIfExists(config), StandardCharsets.UTF_8);
+    return SHA256_OBJECT_FORMAT.matcher(content).find() ? SHA256_SIZE : SHA1_SIZE;
+  }
+
+  @CheckForNull
+  private static GitIndex readIndex(Path indexFile, int hashSize) {
+    if (!Files.isRegularFile(indexFile)) {
+      return null;
+    }
+    try {
+      return GitIndex.read(indexFile, hashSize);
+    } catch (IOException e) {
+      LOGGER.debug("Could not read git index {}", indexFile, e);
+      return null;
+    }
+  }
+
+  /**
+   * Called when the walk is about to enter a directory.
+   *
+   * @return false when the directory should not be descended into
+   */
+  boolean enterDirectory(Path dir) {
+    Path absoluteDir = dir.toAbsolutePath();
+    if (directories.containsKey(absoluteDir)) {
+      return true;
+    }
+    DirectoryState parent = stateOf(absoluteDir.getParent());
+    if (parent == null) {
+      return true;
+    }
+    String relativePath = child(parent, absoluteDir);
+    boolean ignored = isIgnored(parent, relativePath, true);
+    if (isSkipped(relativePath, ignored)) {
+      return false;
+    }
+    directories.putIfAbsent(absoluteDir, newState(parent, absoluteDir, relativePath, ignored));
+    return true;
+  }
+
+  boolean isIgnoredFile(Path file) {
+    Path absoluteFile = file.toAbsolutePath();
+    DirectoryState parent = stateOf(absoluteFile.getParent());
+    if (parent == null) {
+      return false;
+    }
+    String relativePath = child(parent, absoluteFile);
+    if (mode == Mode.TRACKED) {
+      return !index.isTracked(relativePath);
+    }
+    return isIgnored(parent, relativePath, false) && (index == null || !index.isTracked(relativePath));
+  }
+
+  /**
+   * @return a stamp of the ignore rules applying to the content of a directory entered by the walk, which changes when
+   * any of the {@code .gitignore} files involved changes
+   */
+  @CheckForNull
+  String rulesStamp(Path dir) {
+    DirectoryState state = directories.get(dir.toAbsolutePath());
+    return state == null ? null : state.stamp;
+  }
+
+  /**
+   * @return an identifier of the mode and of the tracked paths
+   */
+  String fingerprint() {
+    return fingerprint;
+  }
+
+  private boolean isSkipped(String relativePath, boolean ignored) {
+    if (mode == Mode.TRACKED) {
+      return !index.containsTracked(relativePath);
+    }
+    return ignored && (index == null || !index.containsTracked(relativePath));
+  }
+
+  /**
+   * Applies the rules of the closest {@code .gitignore} first, then those of its parents, as rules of deeper files
+   * take precedence. Nothing in an ignored directory can be re-included.
+   */
+  private boolean isIgnored(DirectoryState parent, String relativePath, boolean isDirectory) {
+    if (mode == Mode.TRACKED) {
+      return false;
+    }
+    if (parent.ignored) {
+      return true;
+    }
+    for (DirectoryState state = parent; state != null; state = state.parent) {
+      if (!state.rules.isEmpty()) {
+        String relativeToRules = state.relativePath.isEmpty() ? relativePath : relativePath.substring(state.relativePath.length() + 1);
+        GitIgnoreRules.Result result = state.rules.match(relativeToRules, isDirectory);
+        if (result != GitIgnoreRules.Result.UNMATCHED) {
+          return result == GitIgnoreRules.Result.IGNORED;
+        }
+      }
+    }
+    return excludes.match(relativePath, isDirectory) == GitIgnoreRules.Result.IGNORED;
+  }
+
+  /**
+   * Returns the state of a directory, creating the states of the directories leading to it from the work tree when
+   * they were not entered yet.
+   */
+  @CheckForNull
+  private DirectoryState stateOf(@Nullable Path dir) {
+    if (dir == null || !dir.startsWith(workTree)) {
+      return null;
+    }
+    DirectoryState state = directories.get(dir);
+    if (state == null) {
+      DirectoryState parent = stateOf(dir.getParent());
+      String relativePath = child(parent, dir);
+      state = newState(parent, dir, relativePath, isIgnored(parent, relativePath, true));
+      DirectoryState previous = directories.putIfAbsent(dir, state);
+      return previous != null ? previous : state;
+    }
+    return state;
+  }
+
+  private DirectoryState newState(@Nullable DirectoryState parent, Path dir, String relativePath, boolean ignored) {
+    return newState(parent, dir, relativePath, ignored, new byte[0]);
+  }
+
+  private DirectoryState newState(@Nullable DirectoryState parent, Path dir, String relativePath, boolean ignored, byte[] extraRules) {
+    byte[] content = new byte[0];
+    if (mode == Mode.GITIGNORE) {
+      try {
+        content = readIfExists(dir.resolve(GITIGNORE));
+      } catch (IOException e) {
+        LOGGER.debug("Could not read {}", dir.resolve(GITIGNORE), e);
+      }
+    }
+    MessageDigest sha = GitIndex.sha256();
+    if (parent != null) {
+      sha.update(parent.stamp.getBytes(StandardCharsets.UTF_8));
+    }
+    sha.update(extraRules);
+    sha.update(content);
+    String stamp = new BigInteger(1, sha.digest()).toString(16);
+    return new DirectoryState(parent, relativePath, GitIgnoreRules.parse(lines(content)), ignored, stamp);
+  }
+
+  private static String child(DirectoryState parent, Path path) {
+    String name = path.getFileName().toString();
+    return parent.relativePath.isEmpty() ? name : (parent.relativePath + "/" + name);
+  }
+
+  private static byte[] readIfExists(Path file) throws IOException {
+    return Files.isRegularFile(file) ? Files.readAllBytes(file) : new byte[0];
+  }
+
+  private static List<String> lines(byte[] content) {
+    return content.length == 0 ? List.of() : Arrays.asList(new String(content, StandardCharsets.UTF_8).split("\n"));
+  }
+
+  private static final class DirectoryState {
+    @Nullable
+    private final DirectoryState parent;
+    private final String relativePath;
+    private final GitIgnoreRules rules;
+    private final boolean ignored;
+    private final String stamp;
+
+    private DirectoryState(@Nullable DirectoryState parent, String relativePath, GitIgnoreRules rules, boolean ignored, String stamp) {
+      this.parent = parent;
+      this.relativePath = relativePath;
+      this.rules = rules;
+      this.ignored = ignored;
+      this.stamp = stamp;
+    }
+  }
+}
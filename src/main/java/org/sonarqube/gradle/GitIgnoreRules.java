@@ -0,0 +1,204 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Patterns of a single {@code .gitignore} file, or of {@code .git/info/exclude}, following the syntax described in
+ * the {@code gitignore} manual: {@code !} negates a pattern, a trailing {@code /} only matches directories, a pattern
+ * containing a {@code /} is relative to the directory of the file it is read from, and any other pattern matches the
+ * name of a file or directory at any depth below it. {@code *}, {@code ?}, bracket expressions and {@code **} are
+ * supported.
+ */
+final class GitIgnoreRules {
+
+  static final GitIgnoreRules EMPTY = new GitIgnoreRules(List.of());
+
+  enum Result {
+    UNMATCHED,
+    IGNORED,
+    NOT_IGNORED
+  }
+
+  private final List<Rule> rules;
+
+  private GitIgnoreRules(List<Rule> rules) {
+    this.rules = rules;
+  }
+
+  static GitIgnoreRules parse(List<String> lines) {
+    List<Rule> rules = new ArrayList<>();
+    for (String line : lines) {
+      Rule rule = parseLine(line);
+      if (rule != null) {
+        rules.add(rule);
+      }
+    }
+    return rules.isEmpty() ? EMPTY : new GitIgnoreRules(rules);
+  }
+
+  boolean isEmpty() {
+    return rules.isEmpty();
+  }
+
+  /**
+   * @param relativePath path relative to the directory the patterns were read from, using {@code /} as separator
+   * @return the outcome of the last pattern matching the path, as later patterns override earlier ones
+   */
+  Result match(String relativePath, boolean isDirectory) {
+    String name = relativePath.substring(relativePath.lastIndexOf('/') + 1);
+    for (int i = rules.size() - 1; i >= 0; i--) {
+      Rule rule = rules.get(i);
+      if ((!rule.directoryOnly || isDirectory) && rule.pattern.matcher(rule.anchored ? relativePath : name).matches()) {
+        return rule.negated ? Result.NOT_IGNORED : Result.IGNORED;
+      }
+    }
+    return Result.UNMATCHED;
+  }
+
+  private static Rule parseLine(String line) {
+    String pattern = trimTrailingSpaces(line);
+    if (pattern.isEmpty() || pattern.startsWith("#")) {
+      return null;
+    }
+    boolean negated = pattern.startsWith("!");
+    if (negated) {
+      pattern = pattern.substring(1);
+    }
+    boolean directoryOnly = pattern.endsWith("/");
+    if (directoryOnly) {
+      pattern = pattern.substring(0, pattern.length() - 1);
+    }
+    boolean anchored = pattern.contains("/");
+    if (pattern.startsWith("/")) {
+      pattern = pattern.substring(1);
+    }
+    if (pattern.isEmpty()) {
+      return null;
+    }
+    return new Rule(Pattern.compile(toRegex(pattern)), negated, directoryOnly, anchored);
+  }
+
+  private static String trimTrailingSpaces(String line) {
+    int end = line.length();
+    if (end > 0 && line.charAt(end - 1) == '\r') {
+      end--;
+    }
+    while (end > 0 && line.charAt(end - 1) == ' ' && (end < 2 || line.charAt(end - 2) != '\\')) {
+      end--;
+    }
+    return line.substring(0, end);
+  }
+
+  static String toRegex(String glob) {
+    StringBuilder regex = new StringBuilder();
+    int length = glob.length();
+    int i = 0;
+    while (i < length) {
+      char c = glob.charAt(i);
+      if (c == '*') {
+        i = appendStars(glob, i, regex);
+      } else if (c == '?') {
+        regex.append("[^/]");
+        i++;
+      } else if (c == '[' && bracketEnd(glob, i) > 0) {
+        int end = bracketEnd(glob, i);
+        appendBracket(glob.substring(i + 1, end), regex);
+        i = end + 1;
+      } else if (c == '\\' && i + 1 < length) {
+        regex.append(Pattern.quote(String.valueOf(glob.charAt(i + 1))));
+        i += 2;
+      } else {
+        regex.append(Pattern.quote(String.valueOf(c)));
+        i++;
+      }
+    }
+    return regex.toString();
+  }
+
+  /**
+   * {@code **} only has a special meaning as a whole path segment: a leading {@code **}&#47; matches any number of
+   * directories, a trailing &#47;{@code **} everything inside, and any other run of stars a single segment part.
+   */
+  private static int appendStars(String glob, int start, StringBuilder regex) {
+    int end = start;
+    while (end < glob.length() && glob.charAt(end) == '*') {
+      end++;
+    }
+    boolean wholeSegment = end - start == 2
+      && (start == 0 || glob.charAt(start - 1) == '/')
+      && (end == glob.length() || glob.charAt(end) == '/');
+    if (!wholeSegment) {
+      regex.append("[^/]*");
+      return end;
+    }
+    if (end == glob.length()) {
+      regex.append(".*");
+      return end;
+    }
+    regex.append("(?:.*/)?");
+    return end + 1;
+  }
+
+  private static int bracketEnd(String glob, int start) {
+    int i = start + 1;
+    if (i < glob.length() && (glob.charAt(i) == '!' || glob.charAt(i) == '^')) {
+      i++;
+    }
+    // A closing bracket right after the opening one is part of the set
+    if (i < glob.length() && glob.charAt(i) == ']') {
+      i++;
+    }
+    while (i < glob.length() && glob.charAt(i) != ']') {
+      i++;
+    }
+    return i < glob.length() ? i : -1;
+  }
+
+  private static void appendBracket(String content, StringBuilder regex) {
+    boolean negated = !content.isEmpty() && (content.charAt(0) == '!' || content.charAt(0) == '^');
+    regex.append(negated ? "[^/" : "[");
+    for (int i = negated ? 1 : 0; i < content.length(); i++) {
+      char c = content.charAt(i);
+      if (c == '\\' || c == '[' || c == ']' || c == '^' || c == '&') {
+        regex.append('\\');
+      }
+      regex.append(c);
+    }
+    regex.append(']');
+  }
+
+  private static final class Rule {
+    private final Pattern pattern;
+    private final boolean negated;
+    private final boolean directoryOnly;
+    private final boolean anchored;
+
+    private Rule(Pattern pattern, boolean negated, boolean directoryOnly, boolean anchored) {
+      this.pattern = pattern;
+      this.negated = negated;
+      this.directoryOnly = directoryOnly;
+      this.anchored = anchored;
+    }
+  }
+}
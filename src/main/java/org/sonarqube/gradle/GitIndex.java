@@ -0,0 +1,188 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Paths tracked by a git repository, read from its {@code .git/index} file without running git.
+ * <p>
+ * Versions 2, 3 and 4 of the index format are supported. Paths are relative to the work tree and use {@code /} as
+ * separator. Submodules and the directories of a sparse index are tracked as a whole: everything below them is
+ * considered tracked.
+ */
+final class GitIndex {
+
+  private static final int SIGNATURE = 0x44495243; // "DIRC"
+  private static final int ENTRY_FIXED_SIZE = 40;
+  private static final int EXTENDED_FLAG = 0x4000;
+  private static final int MODE_TYPE_MASK = 0xF000;
+  private static final int MODE_GITLINK = 0xE000;
+  private static final int MODE_DIRECTORY = 0x4000;
+
+  private final Set<String> files = new HashSet<>();
+  private final Set<String> directories = new HashSet<>();
+  private final Set<String> trackedTrees = new HashSet<>();
+  private final String digest;
+
+  private GitIndex(ByteBuffer buffer, int hashSize) throws IOException {
+    if (buffer.remaining() < 12 || buffer.getInt() != SIGNATURE) {
+      throw new IOException("Not a git index");
+    }
+    int version = buffer.getInt();
+    if (version < 2 || version > 4) {
+      throw new IOException("Unsupported git index version " + version);
+    }
+    int entries = buffer.getInt();
+    MessageDigest sha = sha256();
+    String previous = "";
+    for (int i = 0; i < entries; i++) {
+      previous = readEntry(buffer, version, hashSize, previous);
+      sha.update(previous.getBytes(StandardCharsets.UTF_8));
+      sha.update((byte) 0);
+    }
+    this.digest = new BigInteger(1, sha.digest()).toString(16);
+  }
+
+  static GitIndex read(Path indexFile, int hashSize) throws IOException {
+    try {
+      return new GitIndex(ByteBuffer.wrap(Files.readAllBytes(indexFile)), hashSize);
+    } catch (RuntimeException e) {
+      throw new IOException("Malformed git index " + indexFile, e);
+    }
+  }
+
+  private String readEntry(ByteBuffer buffer, int version, int hashSize, String previous) throws IOException {
+    int start = buffer.position();
+    buffer.position(start + 24);
+    int mode = buffer.getInt();
+    buffer.position(start + ENTRY_FIXED_SIZE + hashSize);
+    int flags = Short.toUnsignedInt(buffer.getShort());
+    if (version >= 3 && (flags & EXTENDED_FLAG) != 0) {
+      buffer.getShort();
+    }
+
+    String path;
+    if (version == 4) {
+      int strip = readOffset(buffer);
+      path = previous.substring(0, previous.length() - strip) + readNulTerminated(buffer);
+    } else {
+      path = readNulTerminated(buffer);
+      // Entries are padded with 1 to 8 NUL bytes to a multiple of 8 bytes
+      int length = buffer.position() - start;
+      buffer.position(start + ((length + 7) & ~7));
+    }
+
+    int type = mode & MODE_TYPE_MASK;
+    String normalized = path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    if (type == MODE_GITLINK || type == MODE_DIRECTORY) {
+      trackedTrees.add(normalized);
+    } else {
+      files.add(normalized);
+    }
+    addParentDirectories(normalized);
+    return path;
+  }
+
+  private void addParentDirectories(String path) {
+    int slash = path.lastIndexOf('/');
+    while (slash > 0 && directories.add(path.substring(0, slash))) {
+      slash = path.lastIndexOf('/', slash - 1);
+    }
+  }
+
+  /**
+   * Reads the variable-length offset used by version 4 to prefix-compress paths.
+   */
+  private static int readOffset(ByteBuffer buffer) {
+    int b = Byte.toUnsignedInt(buffer.get());
+    int value = b & 0x7F;
+    while ((b & 0x80) != 0) {
+      b = Byte.toUnsignedInt(buffer.get());
+      value = ((value + 1) << 7) | (b & 0x7F);
+    }
+    return value;
+  }
+
+  private static String readNulTerminated(ByteBuffer buffer) throws IOException {
+    int start = buffer.position();
+    while (buffer.get() != 0) {
+      // Looking for the end of the path
+    }
+    int end = buffer.position() - 1;
+    if (end == start) {
+      throw new IOException("Empty path in git index");
+    }
+    return new String(buffer.array(), buffer.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @param relativePath path of a file relative to the work tree
+   */
+  boolean isTracked(String relativePath) {
+    return files.contains(relativePath) || isInTrackedTree(relativePath);
+  }
+
+  /**
+   * @param relativePath path of a directory relative to the work tree, empty for the work tree itself
+   * @return whether any tracked path lies below the directory
+   */
+  boolean containsTracked(String relativePath) {
+    return relativePath.isEmpty() || directories.contains(relativePath) || trackedTrees.contains(relativePath) || isInTrackedTree(relativePath);
+  }
+
+  private boolean isInTrackedTree(String relativePath) {
+    if (trackedTrees.isEmpty()) {
+      return false;
+    }
+    int slash = relativePath.lastIndexOf('/');
+    while (slash > 0) {
+      if (trackedTrees.contains(relativePath.substring(0, slash))) {
+        return true;
+      }
+      slash = relativePath.lastIndexOf('/', slash - 1);
+    }
+    return trackedTrees.contains(relativePath);
+  }
+
+  /**
+   * @return a digest of the tracked paths, which changes when paths are added to or removed from the index
+   */
+  String digest() {
+    return digest;
+  }
+
+  static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
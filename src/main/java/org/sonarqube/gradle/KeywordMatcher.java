@@ -0,0 +1,98 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tells whether a string contains any of a fixed set of keywords.
+ * <p>
+ * This is an Aho-Corasick automaton: the keywords are stored in a trie whose nodes carry a failure link to the longest
+ * proper suffix of their prefix that is also a prefix in the trie. A lookup reads the candidate once, left to right,
+ * whatever the number of keywords.
+ */
+final class KeywordMatcher {
+
+  private final Node root = new Node();
+
+  KeywordMatcher(Collection<String> keywords) {
+    for (String keyword : keywords) {
+      Node node = root;
+      for (int i = 0; i < keyword.length(); i++) {
+        node = node.children.computeIfAbsent(keyword.charAt(i), c -> new Node());
+      }
+      node.output = true;
+    }
+    computeFailureLinks();
+  }
+
+  private void computeFailureLinks() {
+    Deque<Node> queue = new ArrayDeque<>();
+    for (Node child : root.children.values()) {
+      child.failure = root;
+      queue.add(child);
+    }
+    while (!queue.isEmpty()) {
+      Node node = queue.poll();
+      for (Map.Entry<Character, Node> entry : node.children.entrySet()) {
+        Node child = entry.getValue();
+        Node failure = node.failure;
+        while (failure != root && !failure.children.containsKey(entry.getKey())) {
+          failure = failure.failure;
+        }
+        Node candidate = failure.children.get(entry.getKey());
+        child.failure = (candidate == null || candidate == child) ? root : candidate;
+        // A keyword ending at the failure node also ends here
+        child.output |= child.failure.output;
+        queue.add(child);
+      }
+    }
+  }
+
+  boolean containsAny(String value) {
+    Node node = root;
+    if (node.output) {
+      return true;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      Node next = node.children.get(c);
+      while (next == null && node != root) {
+        node = node.failure;
+        next = node.children.get(c);
+      }
+      node = next == null ? root : next;
+      if (node.output) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static final class Node {
+    private final Map<Character, Node> children = new HashMap<>();
+    private Node failure;
+    private boolean output;
+  }
+}
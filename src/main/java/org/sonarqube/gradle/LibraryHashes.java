@@ -0,0 +1,152 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+/**
+ * Content hashes of library files, persisted between builds and keyed by the path, size and modification time of the
+ * files, so that only new or changed libraries are read again. Used by {@link SonarTask} to remove the copies of the same
+ * library that are on a classpath under different paths when {@code sonar.gradle.libraries.deduplicate} is enabled.
+ */
+public class LibraryHashes {
+
+  static final String FILE_NAME = "library-hashes.json";
+  private static final int VERSION = 1;
+
+  private static final Gson GSON = new Gson();
+  private static final Logger LOGGER = Logging.getLogger(LibraryHashes.class);
+
+  private int version = VERSION;
+  private Map<String, Entry> files = new ConcurrentHashMap<>();
+  private final transient Set<String> usedPaths = ConcurrentHashMap.newKeySet();
+
+  /**
+   * @return the hashes stored in the given file, or empty if there are none
+   */
+  static LibraryHashes read(Path input) {
+    if (!Files.isRegularFile(input)) {
+      return new LibraryHashes();
+    }
+    try (Reader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+      LibraryHashes hashes = GSON.fromJson(reader, LibraryHashes.class);
+      if (hashes == null || hashes.version != VERSION || hashes.files == null) {
+        LOGGER.debug("Ignoring outdated library hashes {}", input);
+        return new LibraryHashes();
+      }
+      hashes.files = new ConcurrentHashMap<>(hashes.files);
+      return hashes;
+    } catch (IOException | JsonParseException e) {
+      LOGGER.debug("Could not read library hashes {}", input, e);
+      return new LibraryHashes();
+    }
+  }
+
+  /**
+   * Writes the hashes of the files used since this instance was created, so that the removed libraries do not accumulate.
+   */
+  void write(Path output) throws IOException {
+    LibraryHashes used = new LibraryHashes();
+    Map<String, Entry> usedFiles = new LinkedHashMap<>();
+    files.forEach((path, entry) -> {
+      if (usedPaths.contains(path)) {
+        usedFiles.put(path, entry);
+      }
+    });
+    used.files = usedFiles;
+    Files.createDirectories(output.getParent());
+    try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+      GSON.toJson(used, writer);
+    }
+  }
+
+  /**
+   * @return the hash of the content of the file, from the cache if the file did not change since it was computed
+   */
+  String hash(Path file) throws IOException {
+    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    long size = attributes.size();
+    long lastModified = attributes.lastModifiedTime().toMillis();
+    String path = file.toString();
+    usedPaths.add(path);
+    Entry entry = files.get(path);
+    if (entry != null && entry.size == size && entry.lastModified == lastModified) {
+      return entry.hash;
+    }
+    String hash = computeHash(file);
+    files.put(path, new Entry(size, lastModified, hash));
+    return hash;
+  }
+
+  int size() {
+    return files.size();
+  }
+
+  private static String computeHash(Path file) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    byte[] buffer = new byte[64 * 1024];
+    try (InputStream input = Files.newInputStream(file)) {
+      int read;
+      while ((read = input.read(buffer)) > 0) {
+        digest.update(buffer, 0, read);
+      }
+    }
+    StringBuilder hex = new StringBuilder();
+    for (byte b : digest.digest()) {
+      hex.append(String.format("%02x", b));
+    }
+    return hex.toString();
+  }
+
+  static class Entry {
+    final long size;
+    final long lastModified;
+    final String hash;
+
+    Entry(long size, long lastModified, String hash) {
+      this.size = size;
+      this.lastModified = lastModified;
+      this.hash = hash;
+    }
+  }
+}
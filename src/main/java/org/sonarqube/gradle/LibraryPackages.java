@@ -0,0 +1,157 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+/**
+ * Packages provided and referenced by the classes of library jars, persisted between builds and keyed by the path, size
+ * and modification time of the jars, so that only new or changed jars are read again. Used by {@link ClasspathShrinker}
+ * when {@code sonar.gradle.libraries.shrink} is enabled.
+ */
+public class LibraryPackages {
+
+  static final String FILE_NAME = "library-packages.json";
+  private static final int VERSION = 1;
+
+  private static final Gson GSON = new Gson();
+  private static final Logger LOGGER = Logging.getLogger(LibraryPackages.class);
+
+  private int version = VERSION;
+  private Map<String, Entry> files = new ConcurrentHashMap<>();
+  private final transient Set<String> usedPaths = ConcurrentHashMap.newKeySet();
+
+  /**
+   * @return the packages stored in the given file, or empty if there are none
+   */
+  static LibraryPackages read(Path input) {
+    if (!Files.isRegularFile(input)) {
+      return new LibraryPackages();
+    }
+    try (Reader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+      LibraryPackages packages = GSON.fromJson(reader, LibraryPackages.class);
+      if (packages == null || packages.version != VERSION || packages.files == null) {
+        LOGGER.debug("Ignoring outdated library packages {}", input);
+        return new LibraryPackages();
+      }
+      packages.files = new ConcurrentHashMap<>(packages.files);
+      return packages;
+    } catch (IOException | JsonParseException e) {
+      LOGGER.debug("Could not read library packages {}", input, e);
+      return new LibraryPackages();
+    }
+  }
+
+  /**
+   * Writes the packages of the jars used since this instance was created, so that the removed libraries do not accumulate.
+   */
+  void write(Path output) throws IOException {
+    LibraryPackages used = new LibraryPackages();
+    Map<String, Entry> usedFiles = new LinkedHashMap<>();
+    files.forEach((path, entry) -> {
+      if (usedPaths.contains(path)) {
+        usedFiles.put(path, entry);
+      }
+    });
+    used.files = usedFiles;
+    Files.createDirectories(output.getParent());
+    try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+      GSON.toJson(used, writer);
+    }
+  }
+
+  /**
+   * @return the packages of the given jar, from the cache if the jar did not change since they were read
+   */
+  Entry get(Path jar) throws IOException {
+    BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+    long size = attributes.size();
+    long lastModified = attributes.lastModifiedTime().toMillis();
+    String path = jar.toString();
+    usedPaths.add(path);
+    Entry entry = files.get(path);
+    if (entry != null && entry.size == size && entry.lastModified == lastModified) {
+      return entry;
+    }
+    entry = index(jar, size, lastModified);
+    files.put(path, entry);
+    return entry;
+  }
+
+  int size() {
+    return files.size();
+  }
+
+  private static Entry index(Path jar, long size, long lastModified) throws IOException {
+    Set<String> provided = new TreeSet<>();
+    Set<String> referenced = new TreeSet<>();
+    try (ZipFile zip = new ZipFile(jar.toFile())) {
+      Enumeration<? extends ZipEntry> entries = zip.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry zipEntry = entries.nextElement();
+        String packageName = ClassReferences.packageOfEntry(zipEntry.getName());
+        if (packageName == null || zipEntry.isDirectory()) {
+          continue;
+        }
+        provided.add(packageName);
+        try (InputStream input = zip.getInputStream(zipEntry)) {
+          ClassReferences.addReferencedPackages(input, referenced);
+        } catch (IOException e) {
+          LOGGER.debug("Could not read class {} of {}", zipEntry.getName(), jar, e);
+        }
+      }
+    }
+    referenced.removeAll(provided);
+    return new Entry(size, lastModified, provided, referenced);
+  }
+
+  static class Entry {
+    final long size;
+    final long lastModified;
+    final Set<String> provided;
+    final Set<String> referenced;
+
+    Entry(long size, long lastModified, Set<String> provided, Set<String> referenced) {
+      this.size = size;
+      this.lastModified = lastModified;
+      this.provided = provided;
+      this.referenced = referenced;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+
+/**
+ * Shares identical paths, path lists and comma-separated path values between the modules of an analysis. Modules mostly
+ * depend on the same jars of the Gradle caches, so without sharing, each of them would hold its own copy of the same
+ * strings. Safe to use from several threads.
+ */
+class PathInterner {
+
+  private final Map<String, String> strings = new ConcurrentHashMap<>();
+  private final Map<List<String>, List<String>> lists = new ConcurrentHashMap<>();
+  private final AtomicLong sharedStrings = new AtomicLong();
+  private final AtomicLong sharedLists = new AtomicLong();
+
+  String intern(String value) {
+    String shared = strings.putIfAbsent(value, value);
+    if (shared == null) {
+      return value;
+    }
+    if (shared != value) {
+      sharedStrings.incrementAndGet();
+    }
+    return shared;
+  }
+
+  /**
+   * @return an unmodifiable list equal to the given one, whose elements are interned
+   */
+  List<String> intern(List<String> values) {
+    List<String> shared = lists.get(values);
+    if (shared != null) {
+      sharedLists.incrementAndGet();
+      return shared;
+    }
+    List<String> interned = new ArrayList<>(values.size());
+    for (String value : values) {
+      interned.add(intern(value));
+    }
+    List<String> unmodifiable = Collections.unmodifiableList(interned);
+    shared = lists.putIfAbsent(unmodifiable, unmodifiable);
+    return shared == null ? unmodifiable : shared;
+  }
+
+  @Nullable
+  List<String> internNullable(@Nullable List<String> values) {
+    return values == null ? null : intern(values);
+  }
+
+  /**
+   * @return the properties with interned paths
+   */
+  ProjectProperties intern(ProjectProperties properties) {
+    return new ProjectProperties.Builder(properties.projectName, properties.isRootProject)
+      .compileClasspath(internNullable(properties.compileClasspath))
+      .testCompileClasspath(internNullable(properties.testCompileClasspath))
+      .mainLibraries(internNullable(properties.mainLibraries))
+      .testLibraries(internNullable(properties.testLibraries))
+      .androidSources(internNullable(properties.androidSources))
+      .androidTests(internNullable(properties.androidTests))
+      .build();
+  }
+
+  long getSharedStrings() {
+    return sharedStrings.get();
+  }
+
+  long getSharedLists() {
+    return sharedLists.get();
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import org.gradle.api.Project;
+
+/**
+ * Well-known directories that differ between machines, such as the checkout directory of a CI agent. The resolver
+ * files and the inputs of the resolver tasks store the paths below these directories relative to them, so that
+ * the outputs of the tasks can be shared through the build cache and rebased when {@link SonarTask} reads them.
+ */
+public final class PathRoots {
+
+  static final String ROOT_DIR = "rootDir";
+  static final String GRADLE_USER_HOME = "gradleUserHome";
+  static final String JAVA_HOME = "javaHome";
+
+  /**
+   * No root, the paths are kept absolute.
+   */
+  static final PathRoots NONE = new PathRoots(Map.of());
+
+  private final Map<String, String> roots;
+
+  PathRoots(Map<String, String> roots) {
+    this.roots = Collections.unmodifiableMap(new LinkedHashMap<>(roots));
+  }
+
+  static PathRoots of(Project project) {
+    Map<String, String> roots = new LinkedHashMap<>();
+    roots.put(ROOT_DIR, project.getRootDir().getAbsolutePath());
+    roots.put(GRADLE_USER_HOME, project.getGradle().getGradleUserHomeDir().getAbsolutePath());
+    File javaHome = new File(System.getProperty("java.home"));
+    try {
+      // The runtime jars are listed from the canonical Java home
+      roots.put(JAVA_HOME, javaHome.getCanonicalPath());
+    } catch (IOException e) {
+      roots.put(JAVA_HOME, javaHome.getAbsolutePath());
+    }
+    return new PathRoots(roots);
+  }
+
+  List<String> names() {
+    return new ArrayList<>(roots.keySet());
+  }
+
+  /**
+   * @return the name of the deepest root containing the path, or {@code null} if there is none
+   */
+  @Nullable
+  String findRoot(String path) {
+    String found = null;
+    int foundLength = -1;
+    for (Map.Entry<String, String> root : roots.entrySet()) {
+      String base = root.getValue();
+      if (base.length() > foundLength && isBelow(path, base)) {
+        found = root.getKey();
+        foundLength = base.length();
+      }
+    }
+    return found;
+  }
+
+  /**
+   * @return the path relative to the given root, which must contain it
+   */
+  String relativize(String root, String path) {
+    String base = roots.get(root);
+    return path.length() == base.length() ? "" : path.substring(base.length() + 1);
+  }
+
+  /**
+   * @return the absolute path of a path relative to the given root, or {@code null} if the root is unknown
+   */
+  @Nullable
+  String resolve(String root, String relativePath) {
+    String base = roots.get(root);
+    if (base == null) {
+      return null;
+    }
+    return relativePath.isEmpty() ? base : (base + File.separatorChar + relativePath);
+  }
+
+  /**
+   * @return the paths in a form that does not depend on the location of the roots, to be used as task inputs
+   */
+  List<String> toRelocatable(List<String> paths) {
+    if (roots.isEmpty()) {
+      return paths;
+    }
+    return paths.stream()
+      .map(path -> {
+        String root = findRoot(path);
+        return root == null ? path : ("{" + root + "}" + File.separatorChar + relativize(root, path));
+      })
+      .collect(Collectors.toList());
+  }
+
+  private static boolean isBelow(String path, String base) {
+    return path.startsWith(base) && (path.length() == base.length() || path.charAt(base.length()) == File.separatorChar);
+  }
+}
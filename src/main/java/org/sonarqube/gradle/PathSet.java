@@ -0,0 +1,116 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+
+/**
+ * A set of paths telling whether it contains a path or one of its ancestors.
+ * <p>
+ * The paths are made absolute and normalized, then stored by name in a trie, so a lookup reads the names of the path
+ * once, stopping at the first name no stored path continues with, whatever the number of paths. Names are compared as
+ * paths, so following the case sensitivity of the file system. Lookups can run concurrently once all paths are added.
+ */
+final class PathSet {
+
+  private final Node root = new Node();
+  private int size;
+
+  /**
+   * @return whether the path was added, {@code false} if it was already in the set
+   */
+  boolean add(Path path) {
+    Path normalized = normalize(path);
+    Node node = root.children.computeIfAbsent(normalized.getRoot(), name -> new Node());
+    for (Path name : normalized) {
+      node = node.children.computeIfAbsent(name, n -> new Node());
+    }
+    if (node.terminal) {
+      return false;
+    }
+    node.terminal = true;
+    size++;
+    return true;
+  }
+
+  boolean contains(Path path) {
+    Path normalized = normalize(path);
+    Node node = find(normalized);
+    return node != null && node.terminal;
+  }
+
+  /**
+   * @return whether the set contains the given path or one of its ancestors
+   */
+  boolean containsAncestorOf(Path path) {
+    return containsAncestor(path, true);
+  }
+
+  /**
+   * @return whether the set contains one of the ancestors of the given path, not counting the path itself
+   */
+  boolean containsStrictAncestorOf(Path path) {
+    return containsAncestor(path, false);
+  }
+
+  int size() {
+    return size;
+  }
+
+  private boolean containsAncestor(Path path, boolean includingPath) {
+    Path normalized = normalize(path);
+    int nameCount = normalized.getNameCount();
+    Node node = root.children.get(normalized.getRoot());
+    for (int i = 0; node != null; i++) {
+      if (node.terminal && (includingPath || i < nameCount)) {
+        return true;
+      }
+      if (i == nameCount) {
+        return false;
+      }
+      node = node.children.get(normalized.getName(i));
+    }
+    return false;
+  }
+
+  /**
+   * @return the node of the given normalized path, or {@code null} if no stored path starts with it
+   */
+  @CheckForNull
+  private Node find(Path normalized) {
+    Node node = root.children.get(normalized.getRoot());
+    for (int i = 0; i < normalized.getNameCount() && node != null; i++) {
+      node = node.children.get(normalized.getName(i));
+    }
+    return node;
+  }
+
+  private static Path normalize(Path path) {
+    return path.toAbsolutePath().normalize();
+  }
+
+  private static final class Node {
+    private final Map<Path, Node> children = new HashMap<>();
+    private boolean terminal;
+  }
+}
@@ -0,0 +1,205 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.provider.Provider;
+
+/**
+ * Resolution of the classpaths and Android sources of a project. {@link SonarResolverTask} and the
+ * {@link ProjectResolutionInputs} of {@link SonarAggregatedResolverTask} declare the inputs and delegate to it.
+ * <p>
+ * Only the paths of the existing classpath entries are written to the output, so they are tracked instead of the
+ * content of the jars, which Gradle would otherwise hash. The library paths include the legacy Android libraries.
+ * The paths below the {@link PathRoots} are relative to them, so that the output can be reused on another machine.
+ */
+final class ProjectResolution {
+  private static final Logger LOGGER = Logger.getLogger(ProjectResolution.class.getName());
+  private static final String FILE_COLLECTION_RESOLUTION_FAILURE_MESSAGE = "Failed to resolve file collection input; skipping it.";
+
+  private Provider<FileCollection> compileClasspath;
+  private Provider<FileCollection> testCompileClasspath;
+  @Nullable
+  private Provider<FileCollection> legacyMainLibraries;
+  @Nullable
+  private Provider<FileCollection> legacyTestLibraries;
+  private PathRoots pathRoots = PathRoots.NONE;
+  @Nullable
+  private Provider<FileStatusService> fileStatus;
+  @Nullable
+  private transient FileStatusCache localFileStatus;
+
+  /**
+   * @param tracked the collection of the existing entries of the classpath, tracked by the task. It can be evaluated
+   *                when the configuration cache is stored, before tasks such as {@code clean} run, so it does not use the
+   *                cache shared by the build.
+   */
+  void setCompileClasspath(Provider<FileCollection> compileClasspath, ConfigurableFileCollection tracked) {
+    this.compileClasspath = compileClasspath;
+    tracked.setFrom(compileClasspath.map(files -> getExistingClasspathEntries(files, new FileStatusCache())));
+  }
+
+  /**
+   * @param tracked the collection of the existing entries of the classpath, tracked by the task. It can be evaluated
+   *                when the configuration cache is stored, before tasks such as {@code clean} run, so it does not use the
+   *                cache shared by the build.
+   */
+  void setTestCompileClasspath(Provider<FileCollection> testCompileClasspath, ConfigurableFileCollection tracked) {
+    this.testCompileClasspath = testCompileClasspath;
+    tracked.setFrom(testCompileClasspath.map(files -> getExistingClasspathEntries(files, new FileStatusCache())));
+  }
+
+  void setLegacyMainLibraries(Provider<FileCollection> legacyMainLibraries) {
+    this.legacyMainLibraries = legacyMainLibraries;
+  }
+
+  void setLegacyTestLibraries(Provider<FileCollection> legacyTestLibraries) {
+    this.legacyTestLibraries = legacyTestLibraries;
+  }
+
+  PathRoots getPathRoots() {
+    return pathRoots;
+  }
+
+  void setPathRoots(PathRoots pathRoots) {
+    this.pathRoots = pathRoots;
+  }
+
+  void setFileStatus(Provider<FileStatusService> fileStatus) {
+    this.fileStatus = fileStatus;
+  }
+
+  /**
+   * @return the cache of the build, or one local to this project when build services are not available
+   */
+  private FileStatusCache fileStatusCache() {
+    if (fileStatus != null) {
+      return fileStatus.get().getCache();
+    }
+    if (localFileStatus == null) {
+      localFileStatus = new FileStatusCache();
+    }
+    return localFileStatus;
+  }
+
+  /**
+   * @return the relocatable paths of the existing entries of the given classpath
+   */
+  List<String> getClasspathPaths(FileCollection classpath) {
+    return pathRoots.toRelocatable(getAbsolutePaths(classpath, fileStatusCache()));
+  }
+
+  List<String> getMainLibraryPaths(FileCollection mainLibraries) {
+    return pathRoots.toRelocatable(getAbsolutePaths(mainLibraries, legacyMainLibraries, fileStatusCache()));
+  }
+
+  List<String> getTestLibraryPaths(FileCollection testLibraries) {
+    return pathRoots.toRelocatable(getAbsolutePaths(testLibraries, legacyTestLibraries, fileStatusCache()));
+  }
+
+  /**
+   * @return the resolved properties of the project, or {@code null} if the project is skipped
+   */
+  @CheckForNull
+  ProjectProperties resolve(ResolverInputs inputs) {
+    if (Boolean.TRUE.equals(inputs.getSkipProject().getOrElse(false))) {
+      return null;
+    }
+
+    String displayName = inputs.getProjectName().get();
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info("Resolving properties for " + displayName + ".");
+    }
+
+    FileStatusCache cache = fileStatusCache();
+    List<String> compileClasspathFilenames = getAbsolutePaths(compileClasspath, cache);
+    List<String> testCompileClasspathFilenames = getAbsolutePaths(testCompileClasspath, cache);
+    List<String> mainLibrariesFilenames = getAbsolutePaths(inputs.getMainLibraries(), legacyMainLibraries, cache);
+    List<String> testLibrariesFilenames = getAbsolutePaths(inputs.getTestLibraries(), legacyTestLibraries, cache);
+    List<String> androidSourcesFilenames = getAbsolutePaths(inputs.getAndroidSources(), cache);
+    List<String> androidTestsFilenames = getAbsolutePaths(inputs.getAndroidTests(), cache);
+
+    return new ProjectProperties.Builder(displayName, inputs.getTopLevelProject().getOrElse(false))
+      .compileClasspath(compileClasspathFilenames)
+      .testCompileClasspath(testCompileClasspathFilenames)
+      .mainLibraries(mainLibrariesFilenames)
+      .testLibraries(testLibrariesFilenames)
+      .androidSources(androidSourcesFilenames)
+      .androidTests(androidTestsFilenames)
+      .build();
+  }
+
+  /**
+   * Returns the absolute paths of the files in the given FileCollection.
+   */
+  static List<String> getAbsolutePaths(FileCollection fileCollection, FileStatusCache fileStatus) {
+    try {
+      return SonarUtils.exists(fileCollection, fileStatus)
+        .stream()
+        .map(File::getAbsolutePath)
+        .collect(Collectors.toList());
+    } catch (RuntimeException e) {
+      LOGGER.log(Level.WARNING, FILE_COLLECTION_RESOLUTION_FAILURE_MESSAGE, e);
+      return Collections.emptyList();
+    }
+  }
+
+  static List<String> getAbsolutePaths(Provider<FileCollection> filesProvider, FileStatusCache fileStatus) {
+    try {
+      FileCollection files = filesProvider.getOrNull();
+      if (files == null) {
+        return Collections.emptyList();
+      }
+      return SonarUtils.exists(files, fileStatus).stream()
+        .map(File::getAbsolutePath)
+        .collect(Collectors.toList());
+    } catch (RuntimeException e) {
+      LOGGER.log(Level.WARNING, FILE_COLLECTION_RESOLUTION_FAILURE_MESSAGE, e);
+      return Collections.emptyList();
+    }
+  }
+
+  static List<String> getAbsolutePaths(FileCollection fileCollection, @Nullable Provider<FileCollection> additionalFilesProvider, FileStatusCache fileStatus) {
+    List<String> filenames = new ArrayList<>(getAbsolutePaths(fileCollection, fileStatus));
+    if (additionalFilesProvider != null) {
+      filenames.addAll(getAbsolutePaths(additionalFilesProvider, fileStatus));
+    }
+    return filenames;
+  }
+
+  static List<File> getExistingClasspathEntries(FileCollection fileCollection, FileStatusCache fileStatus) {
+    try {
+      return SonarUtils.exists(fileCollection, fileStatus);
+    } catch (RuntimeException e) {
+      LOGGER.log(Level.WARNING, FILE_COLLECTION_RESOLUTION_FAILURE_MESSAGE, e);
+      return Collections.emptyList();
+    }
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.util.List;
+import javax.annotation.CheckForNull;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+
+/**
+ * The inputs of one project in a {@link SonarAggregatedResolverTask}, mirroring those of a {@link SonarResolverTask}.
+ */
+public abstract class ProjectResolutionInputs implements ResolverInputs {
+
+  private final ProjectResolution resolution = new ProjectResolution();
+
+  @Input
+  @Override
+  public abstract Property<String> getProjectName();
+
+  @Input
+  @Override
+  public abstract Property<Boolean> getTopLevelProject();
+
+  @Input
+  @Override
+  public abstract Property<Boolean> getSkipProject();
+
+  @Override
+  public void setCompileClasspath(Provider<FileCollection> compileClasspath) {
+    resolution.setCompileClasspath(compileClasspath, getCompileClasspath());
+  }
+
+  @Override
+  public void setTestCompileClasspath(Provider<FileCollection> testCompileClasspath) {
+    resolution.setTestCompileClasspath(testCompileClasspath, getTestCompileClasspath());
+  }
+
+  @Override
+  public void setLegacyMainLibraries(Provider<FileCollection> legacyMainLibraries) {
+    resolution.setLegacyMainLibraries(legacyMainLibraries);
+  }
+
+  @Override
+  public void setLegacyTestLibraries(Provider<FileCollection> legacyTestLibraries) {
+    resolution.setLegacyTestLibraries(legacyTestLibraries);
+  }
+
+  @Override
+  public void setPathRoots(PathRoots pathRoots) {
+    resolution.setPathRoots(pathRoots);
+  }
+
+  @Override
+  public void setFileStatus(Provider<FileStatusService> fileStatus) {
+    resolution.setFileStatus(fileStatus);
+  }
+
+  @Internal
+  public abstract ConfigurableFileCollection getCompileClasspath();
+
+  @Internal
+  public abstract ConfigurableFileCollection getTestCompileClasspath();
+
+  @Internal
+  @Override
+  public abstract ConfigurableFileCollection getMainLibraries();
+
+  @Internal
+  @Override
+  public abstract ConfigurableFileCollection getTestLibraries();
+
+  /**
+   * As for {@link SonarResolverTask}, the paths of the existing classpath entries are tracked instead of their content.
+   */
+  @Input
+  public List<String> getCompileClasspathPaths() {
+    return resolution.getClasspathPaths(getCompileClasspath());
+  }
+
+  @Input
+  public List<String> getTestCompileClasspathPaths() {
+    return resolution.getClasspathPaths(getTestCompileClasspath());
+  }
+
+  @Input
+  public List<String> getMainLibraryPaths() {
+    return resolution.getMainLibraryPaths(getMainLibraries());
+  }
+
+  @Input
+  public List<String> getTestLibraryPaths() {
+    return resolution.getTestLibraryPaths(getTestLibraries());
+  }
+
+  @PathSensitive(PathSensitivity.RELATIVE)
+  @InputFiles
+  @Override
+  public abstract ConfigurableFileCollection getAndroidSources();
+
+  @PathSensitive(PathSensitivity.RELATIVE)
+  @InputFiles
+  @Override
+  public abstract ConfigurableFileCollection getAndroidTests();
+
+  /**
+   * @return the resolved properties of the project, or {@code null} if the project is skipped
+   */
+  @CheckForNull
+  ProjectProperties resolve() {
+    return resolution.resolve(this);
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
+import org.sonarqube.gradle.properties.SonarProperty;
+
+/**
+ * Kinds of the keys of the scanner properties, computed in a single pass: each key is parsed once with
+ * {@link SonarProperty#parse(String)}, and the steps processing the properties then only visit the keys of the kinds
+ * they need instead of parsing every key again.
+ */
+final class PropertyKeys {
+
+  private static final Pattern REPORT_PATH_PROPERTY_PATTERN = Pattern.compile(
+    "^sonar\\.(coverageReportPaths|([^.]++\\.)++(xml)?reports?paths?)$",
+    Pattern.CASE_INSENSITIVE
+  );
+
+  enum Kind {
+    SOURCE_DIRS(SonarProperty.PROJECT_SOURCE_DIRS, SonarProperty.PROJECT_TEST_DIRS),
+    BINARIES(SonarProperty.JAVA_BINARIES, SonarProperty.JAVA_TEST_BINARIES, SonarProperty.GROOVY_BINARIES, SonarProperty.BINARIES),
+    LIBRARIES(SonarProperty.JAVA_LIBRARIES, SonarProperty.JAVA_TEST_LIBRARIES, SonarProperty.LIBRARIES),
+    JUNIT_REPORTS(SonarProperty.JUNIT_REPORT_PATHS, SonarProperty.SUREFIRE_REPORTS_PATH, SonarProperty.JUNIT_REPORTS_PATH),
+    JACOCO_REPORTS(SonarProperty.JACOCO_XML_REPORT_PATHS);
+
+    private final List<String> properties;
+
+    Kind(String... properties) {
+      this.properties = List.of(properties);
+    }
+
+    @CheckForNull
+    private static Kind of(String property) {
+      for (Kind kind : values()) {
+        if (kind.properties.contains(property)) {
+          return kind;
+        }
+      }
+      return null;
+    }
+  }
+
+  private final Map<Kind, List<Key>> keysByKind = new EnumMap<>(Kind.class);
+  private final List<String> reportPathKeys = new ArrayList<>();
+
+  private PropertyKeys() {
+    for (Kind kind : Kind.values()) {
+      keysByKind.put(kind, new ArrayList<>());
+    }
+  }
+
+  static PropertyKeys classify(Collection<String> keys) {
+    PropertyKeys classified = new PropertyKeys();
+    for (String key : keys) {
+      Optional<SonarProperty> parsed = SonarProperty.parse(key);
+      Kind kind = parsed.map(property -> Kind.of(property.getProperty())).orElse(null);
+      if (kind != null) {
+        classified.keysByKind.get(kind).add(new Key(key, parsed.get()));
+      }
+      if (isReportPathProperty(key)) {
+        classified.reportPathKeys.add(key);
+      }
+    }
+    return classified;
+  }
+
+  /**
+   * @return the keys of the given kind, in the order they were classified
+   */
+  List<Key> get(Kind kind) {
+    return keysByKind.get(kind);
+  }
+
+  /**
+   * @return the keys of the report paths of the root module, such as {@code sonar.coverageReportPaths} or
+   * {@code sonar.androidLint.reportPaths}, including the ones unknown to {@link SonarProperty}
+   */
+  List<String> getReportPathKeys() {
+    return reportPathKeys;
+  }
+
+  private static boolean isReportPathProperty(String key) {
+    String trimmed = key.trim();
+    // Cheap check first, the pattern only matches keys of the root module
+    return trimmed.regionMatches(true, 0, "sonar.", 0, 6) && REPORT_PATH_PROPERTY_PATTERN.matcher(trimmed).matches();
+  }
+
+  /**
+   * A classified key, with its module prefix and property.
+   */
+  static final class Key {
+    final String key;
+    final SonarProperty property;
+
+    private Key(String key, SonarProperty property) {
+      this.key = key;
+      this.property = property;
+    }
+
+    /**
+     * @return the prefix of the keys of the module of this key, empty for the root module and ending with a dot otherwise
+     */
+    String modulePrefix() {
+      return key.substring(0, key.length() - property.getProperty().length());
+    }
+  }
+}
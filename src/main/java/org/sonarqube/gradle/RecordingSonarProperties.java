@@ -0,0 +1,196 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * {@link SonarProperties} recording the keys set by the {@code sonar} blocks of a project, so that the blocks are
+ * evaluated once for both the user-defined keys and the scan-all detection of overridden sources.
+ * <p>
+ * The writes go to the given properties, and the value of a key before its first write is kept to tell whether the key
+ * was changed. Removed keys are not recorded.
+ */
+final class RecordingSonarProperties extends SonarProperties {
+
+  private final Map<String, Object> properties;
+  private final Map<String, Object> originalValues;
+
+  RecordingSonarProperties(Map<String, Object> properties) {
+    this(properties, new LinkedHashMap<>());
+  }
+
+  private RecordingSonarProperties(Map<String, Object> properties, Map<String, Object> originalValues) {
+    super(new RecordingMap(properties, originalValues));
+    this.properties = properties;
+    this.originalValues = originalValues;
+  }
+
+  /**
+   * @return the keys that were set, even to their previous value
+   */
+  Set<String> getWrittenKeys() {
+    return originalValues.keySet();
+  }
+
+  /**
+   * @return the keys that were set and are still present, with a value different from the one they had before, or
+   * that had no value before
+   */
+  Set<String> getChangedKeys() {
+    Set<String> changedKeys = new LinkedHashSet<>();
+    originalValues.forEach((key, originalValue) -> {
+      if (properties.containsKey(key) && (originalValue == null || !originalValue.equals(properties.get(key)))) {
+        changedKeys.add(key);
+      }
+    });
+    return changedKeys;
+  }
+
+  /**
+   * View of the properties recording the writes. {@link AbstractMap#putAll} and the default methods of {@link Map}, such
+   * as {@code putIfAbsent} or {@code replaceAll}, go through {@link #put} or the entries, so they are recorded too.
+   */
+  private static final class RecordingMap extends AbstractMap<String, Object> {
+    private final Map<String, Object> delegate;
+    private final Map<String, Object> originalValues;
+    private final Set<Entry<String, Object>> entrySet = new EntrySet();
+
+    private RecordingMap(Map<String, Object> delegate, Map<String, Object> originalValues) {
+      this.delegate = delegate;
+      this.originalValues = originalValues;
+    }
+
+    private void record(String key) {
+      if (!originalValues.containsKey(key)) {
+        originalValues.put(key, delegate.get(key));
+      }
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+      record(key);
+      return delegate.put(key, value);
+    }
+
+    @Override
+    public Object get(Object key) {
+      return delegate.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return delegate.containsKey(key);
+    }
+
+    @Override
+    public Object remove(Object key) {
+      return delegate.remove(key);
+    }
+
+    @Override
+    public int size() {
+      return delegate.size();
+    }
+
+    @Override
+    public void clear() {
+      delegate.clear();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      return entrySet;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+      @Override
+      public Iterator<Entry<String, Object>> iterator() {
+        Iterator<Entry<String, Object>> entries = delegate.entrySet().iterator();
+        return new Iterator<>() {
+          @Override
+          public boolean hasNext() {
+            return entries.hasNext();
+          }
+
+          @Override
+          public Entry<String, Object> next() {
+            return new RecordingEntry(entries.next());
+          }
+
+          @Override
+          public void remove() {
+            entries.remove();
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return delegate.size();
+      }
+    }
+
+    private final class RecordingEntry implements Entry<String, Object> {
+      private final Entry<String, Object> entry;
+
+      private RecordingEntry(Entry<String, Object> entry) {
+        this.entry = entry;
+      }
+
+      @Override
+      public String getKey() {
+        return entry.getKey();
+      }
+
+      @Override
+      public Object getValue() {
+        return entry.getValue();
+      }
+
+      @Override
+      public Object setValue(Object value) {
+        record(entry.getKey());
+        return entry.setValue(value);
+      }
+
+      @Override
+      public boolean equals(Object o) {
+        if (!(o instanceof Entry)) {
+          return false;
+        }
+        Entry<?, ?> other = (Entry<?, ?>) o;
+        return Objects.equals(getKey(), other.getKey()) && Objects.equals(getValue(), other.getValue());
+      }
+
+      @Override
+      public int hashCode() {
+        return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+      }
+    }
+  }
+}
@@ -20,58 +20,115 @@
 package org.sonarqube.gradle;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 
+/**
+ * Writes the output of {@link SonarResolverTask} and {@link SonarAggregatedResolverTask} in the {@link CompactResolutionFormat}.
+ * Files in the JSON format written by previous versions of the plugin can still be read.
+ */
 public class ResolutionSerializer {
 
-  private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+  private static final Gson GSON = new Gson();
   private static final Logger LOGGER = Logging.getLogger(ResolutionSerializer.class);
 
   private ResolutionSerializer() {
     /* No instantiation expected */
   }
 
+  /**
+   * @return the properties of the first project stored in the file, or empty if the file does not exist
+   */
   public static Optional<ProjectProperties> read(File input) throws IOException {
+    return readAll(input).stream().findFirst();
+  }
+
+  /**
+   * @return the properties of all the projects stored in the file, or an empty list if the file does not exist
+   */
+  public static List<ProjectProperties> readAll(File input) throws IOException {
+    return readAll(input, PathRoots.NONE);
+  }
+
+  /**
+   * Same as {@link #readAll(File)}, rebasing the paths stored relative to a root on the given roots.
+   */
+  static List<ProjectProperties> readAll(File input, PathRoots roots) throws IOException {
     if (!input.exists()) {
-      return Optional.empty();
+      return List.of();
     }
 
-    try (FileReader reader = new FileReader(input, StandardCharsets.UTF_8)) {
-      ProjectProperties projectProperties = GSON.fromJson(reader, ProjectProperties.class);
+    try (DataInputStream stream = new DataInputStream(new BufferedInputStream(Files.newInputStream(input.toPath())))) {
+      List<ProjectProperties> modules;
+      stream.mark(CompactResolutionFormat.MAGIC.length);
+      byte[] magic = stream.readNBytes(CompactResolutionFormat.MAGIC.length);
+      if (Arrays.equals(magic, CompactResolutionFormat.MAGIC)) {
+        modules = CompactResolutionFormat.read(stream, roots);
+      } else {
+        stream.reset();
+        Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8);
+        modules = List.of(GSON.fromJson(reader, ProjectProperties.class));
+      }
       if (LOGGER.isDebugEnabled()) {
         LOGGER.debug("Read project properties from file: {}", input.getAbsolutePath());
       }
-      return Optional.of(projectProperties);
+      return modules;
     }
   }
 
   public static void write(File output, ProjectProperties properties) throws IOException {
-    if (properties.compileClasspath.isEmpty()
-      && properties.testCompileClasspath.isEmpty()
-      && properties.mainLibraries.isEmpty()
-      && properties.testLibraries.isEmpty()
-      && properties.androidSources.isEmpty()
-      && properties.androidTests.isEmpty()) {
+    writeAll(output, List.of(properties));
+  }
+
+  /**
+   * Writes the properties of several projects to a single file, skipping the projects without any resolved path.
+   */
+  public static void writeAll(File output, List<ProjectProperties> modules) throws IOException {
+    writeAll(output, modules, PathRoots.NONE);
+  }
+
+  /**
+   * Same as {@link #writeAll(File, List)}, storing the paths below the given roots relative to them.
+   */
+  static void writeAll(File output, List<ProjectProperties> modules, PathRoots roots) throws IOException {
+    List<ProjectProperties> nonEmptyModules = modules.stream()
+      .filter(properties -> !isEmpty(properties))
+      .collect(Collectors.toList());
+    if (nonEmptyModules.isEmpty()) {
       // make sure we do not reuse output from previous execution
       Files.deleteIfExists(output.toPath());
       return;
     }
 
-    try (FileWriter writer = new FileWriter(output, StandardCharsets.UTF_8)) {
-      GSON.toJson(properties, writer);
+    try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output.toPath())))) {
+      CompactResolutionFormat.write(stream, nonEmptyModules, roots);
       if (LOGGER.isDebugEnabled()) {
         LOGGER.debug("Wrote project properties to file: {}", output.getAbsolutePath());
       }
     }
   }
 
+  private static boolean isEmpty(ProjectProperties properties) {
+    return properties.compileClasspath.isEmpty()
+      && properties.testCompileClasspath.isEmpty()
+      && properties.mainLibraries.isEmpty()
+      && properties.testLibraries.isEmpty()
+      && properties.androidSources.isEmpty()
+      && properties.androidTests.isEmpty();
+  }
+
 }
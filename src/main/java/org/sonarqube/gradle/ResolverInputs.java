@@ -0,0 +1,59 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+
+/**
+ * Inputs of the resolution of a project, configured by {@link SonarQubePlugin}. They are held by the {@link SonarResolverTask}
+ * of the project or, when all the projects are resolved by a single {@link SonarAggregatedResolverTask}, by one of its
+ * {@link ProjectResolutionInputs}.
+ */
+interface ResolverInputs {
+
+  Property<String> getProjectName();
+
+  Property<Boolean> getTopLevelProject();
+
+  Property<Boolean> getSkipProject();
+
+  void setCompileClasspath(Provider<FileCollection> compileClasspath);
+
+  void setTestCompileClasspath(Provider<FileCollection> testCompileClasspath);
+
+  void setLegacyMainLibraries(Provider<FileCollection> legacyMainLibraries);
+
+  void setLegacyTestLibraries(Provider<FileCollection> legacyTestLibraries);
+
+  void setPathRoots(PathRoots pathRoots);
+
+  void setFileStatus(Provider<FileStatusService> fileStatus);
+
+  ConfigurableFileCollection getMainLibraries();
+
+  ConfigurableFileCollection getTestLibraries();
+
+  ConfigurableFileCollection getAndroidSources();
+
+  ConfigurableFileCollection getAndroidTests();
+}
@@ -0,0 +1,156 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.sonarqube.gradle.SonarUtils.InputFileType;
+
+/**
+ * Result of a previous {@code sonar.gradle.scanAll} walk, persisted between builds so that directories that did not
+ * change since do not have to be listed again.
+ * <p>
+ * For every visited directory, the index stores its modification stamp, its subdirectories and the files that were
+ * collected in it together with their {@link InputFileType}. Directories are keyed by their path relative to the walk
+ * root, using {@code /} as separator. When a {@link ContentSniffer} is used, the size and modification time of the
+ * files it checked are stored too, as editing a file does not change the stamp of its directory.
+ */
+public class ScanAllIndex {
+
+  static final String FILE_NAME = "index.json";
+  private static final int VERSION = 2;
+
+  private static final Gson GSON = new Gson();
+  private static final Logger LOGGER = Logging.getLogger(ScanAllIndex.class);
+
+  private int version = VERSION;
+  private String fingerprint;
+  private long timestamp;
+  private Map<String, DirectoryEntry> directories = new ConcurrentHashMap<>();
+
+  ScanAllIndex(String fingerprint, long timestamp) {
+    this.fingerprint = fingerprint;
+    this.timestamp = timestamp;
+  }
+
+  /**
+   * @return the index stored in the given file, or empty if there is none or if it was written by a collector with a
+   * different configuration
+   */
+  static Optional<ScanAllIndex> read(Path input, String expectedFingerprint) {
+    if (!Files.isRegularFile(input)) {
+      return Optional.empty();
+    }
+    try (Reader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+      ScanAllIndex index = GSON.fromJson(reader, ScanAllIndex.class);
+      if (index == null || index.version != VERSION || !expectedFingerprint.equals(index.fingerprint) || index.directories == null) {
+        LOGGER.debug("Ignoring outdated scanAll index {}", input);
+        return Optional.empty();
+      }
+      return Optional.of(index);
+    } catch (IOException | JsonParseException e) {
+      LOGGER.debug("Could not read scanAll index {}", input, e);
+      return Optional.empty();
+    }
+  }
+
+  void write(Path output) throws IOException {
+    Files.createDirectories(output.getParent());
+    try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+      GSON.toJson(this, writer);
+    }
+  }
+
+  /**
+   * @return when the walk that produced this index started, in milliseconds since the epoch
+   */
+  long getTimestamp() {
+    return timestamp;
+  }
+
+  @CheckForNull
+  DirectoryEntry get(String relativePath) {
+    return directories.get(relativePath);
+  }
+
+  void put(String relativePath, DirectoryEntry entry) {
+    directories.put(relativePath, entry);
+  }
+
+  int size() {
+    return directories.size();
+  }
+
+  static class DirectoryEntry {
+    final long lastModified;
+    /**
+     * Stamp of the git ignore rules the files were collected with, see {@link SourceCollector#ignoreRulesStamp(Path)}
+     */
+    @Nullable
+    final String ignoreRules;
+    /**
+     * Whether every file of the directory was collected, see {@link SourceCompactor}
+     */
+    boolean allFilesCollected;
+    /**
+     * Whether every file of the directory was collected or only dropped by the {@link ContentSniffer}
+     */
+    boolean allFilesMatched;
+    final List<String> subdirectories = new ArrayList<>();
+    final Map<String, InputFileType> files = new LinkedHashMap<>();
+    /**
+     * Files checked by the {@link ContentSniffer}, collected or not, by name
+     */
+    final Map<String, SniffedFile> sniffedFiles = new LinkedHashMap<>();
+
+    DirectoryEntry(long lastModified, @Nullable String ignoreRules) {
+      this.lastModified = lastModified;
+      this.ignoreRules = ignoreRules;
+    }
+  }
+
+  static class SniffedFile {
+    final long size;
+    final long lastModified;
+    final ContentSniffer.Verdict verdict;
+
+    SniffedFile(long size, long lastModified, ContentSniffer.Verdict verdict) {
+      this.size = size;
+      this.lastModified = lastModified;
+      this.verdict = verdict;
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Resolves the classpaths and Android sources of all the projects of the analysis at once, instead of one
+ * {@link SonarResolverTask} per project, and writes them to a single file. Enabled with the
+ * {@value #AGGREGATE_PROPERTY} property, as it saves the scheduling, snapshotting and output of one task per project
+ * in builds with many projects.
+ */
+@CacheableTask
+public abstract class SonarAggregatedResolverTask extends DefaultTask {
+  public static final String TASK_NAME = "sonarAggregatedResolver";
+  public static final String TASK_DESCRIPTION = "Resolves and serializes the information and classpath of all projects for SonarQube analysis.";
+  public static final String AGGREGATE_PROPERTY = "sonar.gradle.resolver.aggregate";
+  private static final Logger LOGGER = Logger.getLogger(SonarAggregatedResolverTask.class.getName());
+
+  private final List<ProjectResolutionInputs> projects = new ArrayList<>();
+  private File outputDirectory;
+  private PathRoots pathRoots = PathRoots.NONE;
+
+  @Nested
+  public List<ProjectResolutionInputs> getProjects() {
+    return projects;
+  }
+
+  public void setOutputDirectory(File outputDirectory) {
+    this.outputDirectory = outputDirectory;
+  }
+
+  public void setPathRoots(PathRoots pathRoots) {
+    this.pathRoots = pathRoots;
+  }
+
+  /**
+   * @return the path where resolved properties will be written. Does not create the file itself or check that it exists.
+   */
+  @OutputFile
+  public File getOutputFile() {
+    return new File(outputDirectory, "aggregated-properties");
+  }
+
+  @TaskAction
+  void run() throws IOException {
+    List<ProjectProperties> resolved = new ArrayList<>();
+    for (ProjectResolutionInputs project : projects) {
+      ProjectProperties properties = project.resolve();
+      if (properties != null) {
+        resolved.add(properties);
+      }
+    }
+
+    outputDirectory.mkdirs();
+    ResolutionSerializer.writeAll(getOutputFile(), resolved, pathRoots);
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info("Resolved properties for " + resolved.size() + " projects and wrote them to " + getOutputFile() + ".");
+    }
+  }
+}
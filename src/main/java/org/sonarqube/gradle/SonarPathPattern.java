@@ -0,0 +1,136 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+
+/**
+ * A pattern of {@code sonar.exclusions}, {@code sonar.inclusions} and their test counterparts, matched the way the
+ * scanner engine does: {@code *} matches any part of a path segment, {@code **} any number of segments and {@code ?}
+ * a single character. Patterns are relative to the project base directory, unless prefixed with {@code file:}, in
+ * which case they are matched against absolute paths.
+ * <p>
+ * Paths given to this matcher are relative to the base directory for relative patterns, and absolute for absolute
+ * patterns. String paths use {@code /} as separator, see {@link #toString(Path)}.
+ */
+final class SonarPathPattern implements PathMatcher {
+
+  private static final String ABSOLUTE_PREFIX = "file:";
+
+  private final String pattern;
+  private final boolean absolute;
+  private final Pattern regex;
+  /**
+   * Matches the directories whose whole content matches the pattern, when the pattern ends with {@code /**}.
+   */
+  @Nullable
+  private final Pattern subtreeRegex;
+
+  SonarPathPattern(String pattern) {
+    String trimmed = pattern.trim();
+    this.absolute = trimmed.startsWith(ABSOLUTE_PREFIX);
+    String wildcard = absolute ? trimmed.substring(ABSOLUTE_PREFIX.length()) : trimmed;
+    wildcard = wildcard.replace('\\', '/');
+    if (wildcard.endsWith("/")) {
+      wildcard = wildcard + "**";
+    }
+    this.pattern = trimmed;
+    this.regex = Pattern.compile(toRegex(wildcard));
+    if ("**".equals(wildcard)) {
+      this.subtreeRegex = Pattern.compile(".*");
+    } else if (wildcard.endsWith("/**")) {
+      this.subtreeRegex = Pattern.compile(toRegex(wildcard.substring(0, wildcard.length() - 3)));
+    } else {
+      this.subtreeRegex = null;
+    }
+  }
+
+  static String toString(Path path) {
+    String separator = path.getFileSystem().getSeparator();
+    return "/".equals(separator) ? path.toString() : path.toString().replace(separator, "/");
+  }
+
+  boolean isAbsolute() {
+    return absolute;
+  }
+
+  @Override
+  public boolean matches(Path path) {
+    return matches(toString(path));
+  }
+
+  boolean matches(String path) {
+    return regex.matcher(path).matches();
+  }
+
+  /**
+   * @param directory a directory
+   * @return whether every path below the directory matches this pattern
+   */
+  boolean matchesEverythingBelow(String directory) {
+    return subtreeRegex != null && subtreeRegex.matcher(directory).matches();
+  }
+
+  /**
+   * @param directory a directory
+   * @return false when no path below the directory can match this pattern
+   */
+  boolean mayMatchBelow(String directory) {
+    Matcher matcher = regex.matcher(directory + "/");
+    // A failed match that did not reach the end of the input cannot succeed with a longer input
+    return matcher.matches() || matcher.hitEnd();
+  }
+
+  @Override
+  public String toString() {
+    return pattern;
+  }
+
+  private static String toRegex(String wildcard) {
+    StringBuilder regex = new StringBuilder();
+    int length = wildcard.length();
+    for (int i = 0; i < length; i++) {
+      char c = wildcard.charAt(i);
+      if (c == '*') {
+        if (i + 1 < length && wildcard.charAt(i + 1) == '*') {
+          if (i + 2 < length && wildcard.charAt(i + 2) == '/') {
+            // Zero or more directories
+            regex.append("(?:.*/|)");
+            i += 2;
+          } else {
+            regex.append(".*");
+            i++;
+          }
+        } else {
+          regex.append("[^/]*");
+        }
+      } else if (c == '?') {
+        regex.append("[^/]");
+      } else {
+        regex.append(Pattern.quote(String.valueOf(c)));
+      }
+    }
+    return regex.toString();
+  }
+}
@@ -23,20 +23,20 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -84,10 +84,13 @@ public class SonarPropertyComputer {
   private static final String SONAR = "sonar";
   private static final String MAIN_SOURCE_SET_SUFFIX = "main";
   private static final String TEST_SOURCE_SET_SUFFIX = "test";
+  private static final String SCAN_ALL_INDEX_DIR = "sonar-scanall";
 
   private final Map<String, ActionBroadcast<SonarProperties>> actionBroadcastMap;
   private final Map<String, AndroidConfig> androidConfigMap;
   private final Project targetProject;
+  // Keys set by the sonar blocks of the target project, recorded while computing its default properties
+  private Set<String> targetProjectWrittenKeys = Set.of();
 
   public SonarPropertyComputer(Map<String, ActionBroadcast<SonarProperties>> actionBroadcastMap, Map<String, AndroidConfig> androidConfigMap, Project targetProject) {
     this.actionBroadcastMap = actionBroadcastMap;
@@ -149,7 +152,7 @@ public class SonarPropertyComputer {
     if (project.equals(targetProject)) {
       rawProperties.putIfAbsent(SonarProperty.PROJECT_KEY, computeProjectKey());
     } else {
-      String projectKey = (String) computedProperties.properties.get(SonarProperty.PROJECT_KEY);
+      String projectKey = computedProperties.properties.get(SonarProperty.PROJECT_KEY);
       rawProperties.putIfAbsent(SonarProperty.MODULE_KEY, projectKey + project.getPath());
     }
 
@@ -187,21 +190,17 @@ public class SonarPropertyComputer {
     computedProperties.properties.put(convertKey(SonarProperty.MODULES, prefix), String.join(",", moduleIds));
   }
 
-  private boolean shouldApplyScanAll(Project project, Map<String, Object> properties) {
+  private boolean shouldApplyScanAll(Project project, Map<String, String> properties) {
     // when the parent module is skipped, the properties are empty thus the scan all logic is not applied
-    var scanAllValue = (String) properties.getOrDefault(SonarProperty.GRADLE_SCAN_ALL, "false");
+    var scanAllValue = properties.getOrDefault(SonarProperty.GRADLE_SCAN_ALL, "false");
     var scanAllEnabled = "true".equalsIgnoreCase(scanAllValue.trim());
 
     if (scanAllEnabled) {
       LOGGER.info("Parameter sonar.gradle.scanAll is enabled. The scanner will attempt to collect additional sources.");
 
-      // Collecting the properties configured in the Gradle build configuration
-      var sonarProps = new SonarProperties(new HashMap<>());
-      actionBroadcastMap.get(project.getPath()).execute(sonarProps);
-
+      // The properties configured in the Gradle build configuration were recorded when computing the default properties
       boolean sourcesOrTestsAlreadySet = Stream
-        .of(getSonarSystemProperties(project), getSonarEnvironmentVariables(project), sonarProps.getProperties())
-        .map(Map::keySet)
+        .of(getSonarSystemProperties(project).keySet(), getSonarEnvironmentVariables(project).keySet(), targetProjectWrittenKeys)
         .flatMap(Collection::stream)
         .anyMatch(k -> SonarProperty.PROJECT_SOURCE_DIRS.endsWith(k) || SonarProperty.PROJECT_TEST_DIRS.endsWith(k));
 
@@ -243,13 +242,12 @@ public class SonarPropertyComputer {
       .collect(Collectors.toMap(entry -> entry.getKey().toString(), entry -> entry.getValue().toString()));
   }
 
-  private static void computeScanAllProperties(Project project, Map<String, Object> properties) {
+  private static void computeScanAllProperties(Project project, Map<String, String> properties) {
     // Collecting the existing sources from all modules, i.e. 'sonar.sources' and all 'submodule.sonar.sources'
     Set<Path> allModulesExistingSourcesAndTests = properties.entrySet()
       .stream()
       .filter(e -> e.getKey().endsWith(SonarProperty.PROJECT_SOURCE_DIRS) || e.getKey().endsWith(SonarProperty.PROJECT_TEST_DIRS))
       .map(Map.Entry::getValue)
-      .map(String.class::cast)
       .map(SonarUtils::splitAsCsv)
       .flatMap(Collection::stream)
       .filter(Predicate.not(String::isBlank))
@@ -263,24 +261,26 @@ public class SonarPropertyComputer {
 
     Set<Path> excludedFiles = computeReportPaths(properties);
 
+    ContentSniffer contentSniffer = scanAllContentSniffer(properties);
     SourceCollector visitor = SourceCollector.builder()
       .setRoot(project.getProjectDir().toPath())
       .setExistingSources(allModulesExistingSourcesAndTests)
       .setExcludedFiles(excludedFiles)
       .setDirectoriesToIgnore(skippedDirs)
+      .setAnalysisScope(scanAllAnalysisScope(project, properties))
+      .setGitFilter(scanAllGitFilter(project, properties))
+      .setContentSniffer(contentSniffer)
       .build();
 
-
-    Path projectDir = project.getProjectDir().toPath();
-    try {
-      Files.walkFileTree(projectDir, visitor);
-    } catch (IOException e) {
-      LOGGER.error(String.valueOf(e));
+    Map<Path, InputFileType> collectedSources = collectScanAllSources(project, visitor, isEnabled(properties, SonarProperty.GRADLE_SCAN_ALL_INCREMENTAL),
+      scanAllParallelism(properties), isEnabled(properties, SonarProperty.GRADLE_SCAN_ALL_COMPACT));
+    if (contentSniffer != null) {
+      LOGGER.info("Parameter sonar.gradle.scanAll skipped {} binary files and {} files larger than {} KB.", contentSniffer.getBinaryFiles(),
+        contentSniffer.getOversizedFiles(), contentSniffer.getMaxFileSize() / 1024);
     }
 
-    Map<InputFileType, List<Path>> collectedSourceByType = visitor.getCollectedSources().stream()
-      .map(Path::toAbsolutePath)
-      .collect(groupingBy(path -> SonarUtils.findProjectFileType(projectDir, path)));
+    Map<InputFileType, List<Path>> collectedSourceByType = collectedSources.entrySet().stream()
+      .collect(groupingBy(Map.Entry::getValue, Collectors.mapping(e -> e.getKey().toAbsolutePath(), Collectors.toList())));
 
     List<Path> collectedMainSources = collectedSourceByType.getOrDefault(InputFileType.MAIN, List.of());
     appendAdditionalSourceFiles(properties, SonarProperty.PROJECT_SOURCE_DIRS, collectedMainSources);
@@ -289,8 +289,126 @@ public class SonarPropertyComputer {
     appendAdditionalSourceFiles(properties, SonarProperty.PROJECT_TEST_DIRS, collectedTestSources);
   }
 
-  private static void appendAdditionalSourceFiles(Map<String, Object> properties, String sourcePropertyToUpdate, List<Path> collectedSources) {
-    String existingValue = (String) properties.getOrDefault(sourcePropertyToUpdate, "");
+  /**
+   * Walks the project directory with the given collector. When {@code incremental} is set, the result of the previous
+   * walk is read from and written back to {@code build/sonar-scanall}, so that unchanged directories are not listed again.
+   * When {@code compact} is set, directories whose files were all collected are returned instead of their files.
+   */
+  private static Map<Path, InputFileType> collectScanAllSources(Project project, SourceCollector visitor, boolean incremental, int parallelism, boolean compact) {
+    Path indexFile = project.getLayout().getBuildDirectory().dir(SCAN_ALL_INDEX_DIR).get().getAsFile().toPath().resolve(ScanAllIndex.FILE_NAME);
+    ScanAllIndex previousIndex = incremental ? ScanAllIndex.read(indexFile, visitor.fingerprint()).orElse(null) : null;
+    SourceTreeWalker walker = new SourceTreeWalker(visitor, previousIndex, parallelism);
+    try {
+      Map<Path, InputFileType> collected = walker.walk();
+      if (incremental) {
+        walker.getIndex().write(indexFile);
+      }
+      if (compact) {
+        Set<Path> moduleDirectories = project.getAllprojects().stream()
+          .filter(p -> !p.equals(project))
+          .map(p -> p.getProjectDir().toPath())
+          .collect(Collectors.toSet());
+        return SourceCompactor.compact(visitor.getRoot(), walker.getIndex(), moduleDirectories);
+      }
+      return collected;
+    } catch (IOException e) {
+      LOGGER.error(String.valueOf(e));
+      return Map.of();
+    }
+  }
+
+  /**
+   * Number of threads walking the project directory, defaults to the number of available processors.
+   */
+  private static int scanAllParallelism(Map<String, String> properties) {
+    String value = properties.get(SonarProperty.GRADLE_SCAN_ALL_PARALLELISM);
+    if (value != null) {
+      try {
+        int parallelism = Integer.parseInt(value.trim());
+        if (parallelism >= 1) {
+          return parallelism;
+        }
+      } catch (NumberFormatException e) {
+        // Reported below
+      }
+      LOGGER.warn("Ignoring invalid value '{}' for {}, it must be a positive integer.", value, SonarProperty.GRADLE_SCAN_ALL_PARALLELISM);
+    }
+    return Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * Checks the size and the content of collected files, disabled by default.
+   */
+  @Nullable
+  private static ContentSniffer scanAllContentSniffer(Map<String, String> properties) {
+    boolean skipBinaryFiles = isEnabled(properties, SonarProperty.GRADLE_SCAN_ALL_SKIP_BINARY_FILES);
+    long maxFileSize = scanAllMaxFileSize(properties);
+    if (!skipBinaryFiles && maxFileSize == Long.MAX_VALUE) {
+      return null;
+    }
+    return new ContentSniffer(skipBinaryFiles, maxFileSize);
+  }
+
+  /**
+   * Size ceiling of collected files in bytes, configured in kilobytes. There is none by default.
+   */
+  private static long scanAllMaxFileSize(Map<String, String> properties) {
+    String value = properties.get(SonarProperty.GRADLE_SCAN_ALL_MAX_FILE_SIZE);
+    if (value != null) {
+      try {
+        long kilobytes = Long.parseLong(value.trim());
+        if (kilobytes >= 1) {
+          return kilobytes > Long.MAX_VALUE / 1024 ? Long.MAX_VALUE : (kilobytes * 1024);
+        }
+      } catch (NumberFormatException e) {
+        // Reported below
+      }
+      LOGGER.warn("Ignoring invalid value '{}' for {}, it must be a positive number of kilobytes.", value, SonarProperty.GRADLE_SCAN_ALL_MAX_FILE_SIZE);
+    }
+    return Long.MAX_VALUE;
+  }
+
+  /**
+   * The inclusions and exclusions of the root project, as the scanner engine will apply them to the collected files.
+   * Values passed as system properties or environment variables take precedence over the build configuration.
+   */
+  private static AnalysisScope scanAllAnalysisScope(Project project, Map<String, String> properties) {
+    List<Map<String, ?>> sources = List.of(getSonarSystemProperties(project), getSonarEnvironmentVariables(project), properties);
+    Function<String, List<String>> patterns = key -> sources.stream()
+      .map(source -> source.get(key))
+      .filter(Objects::nonNull)
+      .findFirst()
+      .map(value -> SonarUtils.splitAsCsv(value.toString()))
+      .orElse(List.of());
+    return new AnalysisScope(project.getProjectDir().toPath(),
+      patterns.apply(SonarProperty.INCLUSIONS),
+      patterns.apply(SonarProperty.EXCLUSIONS),
+      patterns.apply(SonarProperty.TEST_INCLUSIONS),
+      patterns.apply(SonarProperty.TEST_EXCLUSIONS));
+  }
+
+  /**
+   * Git filtering of the walk, disabled by default.
+   */
+  @Nullable
+  private static GitFilter scanAllGitFilter(Project project, Map<String, String> properties) {
+    String value = properties.get(SonarProperty.GRADLE_SCAN_ALL_GIT);
+    Optional<GitFilter.Mode> mode;
+    try {
+      mode = GitFilter.Mode.parse(value);
+    } catch (IllegalArgumentException e) {
+      LOGGER.warn("Ignoring invalid value '{}' for {}, it must be one of 'none', 'gitignore' or 'tracked'.", value, SonarProperty.GRADLE_SCAN_ALL_GIT);
+      return null;
+    }
+    return mode.flatMap(m -> GitFilter.create(project.getProjectDir().toPath(), m)).orElse(null);
+  }
+
+  private static boolean isEnabled(Map<String, String> properties, String key) {
+    return "true".equalsIgnoreCase(properties.getOrDefault(key, "false").trim());
+  }
+
+  private static void appendAdditionalSourceFiles(Map<String, String> properties, String sourcePropertyToUpdate, List<Path> collectedSources) {
+    String existingValue = properties.getOrDefault(sourcePropertyToUpdate, "");
     Set<Path> existingSources = existingValue.isBlank()
       ? Collections.emptySet()
       : SonarUtils.splitAsCsv(existingValue).stream()
@@ -310,15 +428,11 @@ public class SonarPropertyComputer {
   private void overrideWithUserDefinedProperties(Project project, Map<String, Object> rawProperties, Set<String> userDefinedKeys) {
     ActionBroadcast<SonarProperties> actionBroadcast = actionBroadcastMap.get(project.getPath());
     if (actionBroadcast != null) {
-      Map<String, Object> defaultProperties = new LinkedHashMap<>(rawProperties);
-      evaluateSonarPropertiesBlocks(actionBroadcast, rawProperties);
-      for (Map.Entry<String, Object> entry : rawProperties.entrySet()) {
-        String key = entry.getKey();
-        Object value = entry.getValue();
-        Object defaultValue = defaultProperties.get(key);
-        if (defaultValue == null || !defaultValue.equals(value)) {
-          userDefinedKeys.add(key);
-        }
+      RecordingSonarProperties sonarProperties = new RecordingSonarProperties(rawProperties);
+      actionBroadcast.execute(sonarProperties);
+      userDefinedKeys.addAll(sonarProperties.getChangedKeys());
+      if (isRootProject(project)) {
+        targetProjectWrittenKeys = sonarProperties.getWrittenKeys();
       }
     }
     if (isRootProject(project)) {
@@ -336,12 +450,7 @@ public class SonarPropertyComputer {
     return project.equals(targetProject);
   }
 
-  private static void evaluateSonarPropertiesBlocks(ActionBroadcast<? super SonarProperties> propertiesActions, Map<String, Object> properties) {
-    SonarProperties sqProperties = new SonarProperties(properties);
-    propertiesActions.execute(sqProperties);
-  }
-
-  private static void convertProperties(Map<String, Object> rawProperties, final String projectPrefix, final Map<String, Object> properties) {
+  private static void convertProperties(Map<String, Object> rawProperties, final String projectPrefix, final Map<String, String> properties) {
     for (Map.Entry<String, Object> entry : rawProperties.entrySet()) {
       String value = convertValue(entry.getValue(), false);
       if (value != null) {
@@ -28,11 +28,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.annotation.Nullable;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
+import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
@@ -69,14 +72,41 @@ public class SonarQubePlugin implements Plugin<Project> {
     Map<String, AndroidConfig> androidConfigMap
   ) {
     Set<File> resolverFiles = new HashSet<>();
+    if (AbiJarTransform.isEnabled(topLevelProject)) {
+      topLevelProject.getAllprojects().forEach(AbiJarTransform::register);
+    } else if (AbiJarTransform.isRequested(topLevelProject)) {
+      LOGGER.warn("Ignoring {}, stripped library jars require Gradle 6.0 or later", AbiJarTransform.ENABLED_PROPERTY);
+    }
+    if (isAggregatedResolution(topLevelProject)) {
+      List<ProjectResolutionInputs> resolutionInputs = new ArrayList<>();
+      TaskProvider<SonarAggregatedResolverTask> resolverTaskProvider = registerAggregatedResolverTask(topLevelProject, resolutionInputs, resolverFiles);
+      topLevelProject.getAllprojects().forEach(project -> {
+        registerSonarExtensions(project, actionBroadcastMap);
+        ProjectResolutionInputs inputs = project.getObjects().newInstance(ProjectResolutionInputs.class);
+        configureResolverInputs(topLevelProject, project, inputs);
+        resolutionInputs.add(inputs);
+        resolverTaskProvider.configure(resolverTask -> resolverTask.mustRunAfter(getJavaCompileTasksForProject(project)));
+        configureAndroid(project, androidConfigMap, resolverTaskProvider, resolverTask -> inputs);
+      });
+      return resolverFiles;
+    }
+
     topLevelProject.getAllprojects().forEach(project -> {
       registerSonarExtensions(project, actionBroadcastMap);
       TaskProvider<SonarResolverTask> resolverTaskProvider = registerResolverTask(topLevelProject, project, resolverFiles);
-      configureAndroid(project, androidConfigMap, resolverTaskProvider);
+      configureAndroid(project, androidConfigMap, resolverTaskProvider, resolverTask -> resolverTask);
     });
     return resolverFiles;
   }
 
+  /**
+   * The aggregated resolution is enabled with a Gradle or system property, as the tasks are registered before the sonar
+   * extensions are configured.
+   */
+  private static boolean isAggregatedResolution(Project project) {
+    return SonarUtils.isEnabledWithGradleOrSystemProperty(project, SonarAggregatedResolverTask.AGGREGATE_PROPERTY);
+  }
+
   /**
    * Register Sonar extensions on a project.
    */
@@ -97,29 +127,68 @@ public class SonarQubePlugin implements Plugin<Project> {
     return project.getTasks().register(SonarResolverTask.TASK_NAME, SonarResolverTask.class, resolverTask -> {
       resolverTask.setDescription(SonarResolverTask.TASK_DESCRIPTION);
       resolverTask.setGroup(JavaBasePlugin.VERIFICATION_GROUP);
-      resolverTask.getSkipProject().convention(project.provider(() -> SonarUtils.isSkipped(project)));
-      resolverTask.getProjectName().convention(SonarUtils.constructPrefixedProjectName(project.getPath()));
-      resolverTask.getTopLevelProject().convention(false);
-      if (project == topLevelProject) {
-        resolverTask.getTopLevelProject().set(true);
+      configureResolverInputs(topLevelProject, project, resolverTask);
+      Provider<FileStatusService> fileStatus = fileStatusService(project);
+      if (fileStatus != null) {
+        resolverTask.usesService(fileStatus);
       }
-      resolverTask.setCompileClasspath(project.provider(() -> querySourceSet(project, SourceSet.MAIN_SOURCE_SET_NAME)));
-      resolverTask.setTestCompileClasspath(project.provider(() -> querySourceSet(project, SourceSet.TEST_SOURCE_SET_NAME)));
       resolverTask.mustRunAfter(getJavaCompileTasksForProject(project));
-      if (!isAndroidProject(project)) {
-        resolverTask.getMainLibraries().from(project.provider(() -> project.files(SonarUtils.getRuntimeJars())));
-        resolverTask.getTestLibraries().from(project.provider(() -> project.files(SonarUtils.getRuntimeJars())));
-      }
       File buildDirectory = new File(project.getLayout().getBuildDirectory().getAsFile().get(), "sonar-resolver");
       resolverTask.setOutputDirectory(buildDirectory);
       resolverFiles.add(resolverTask.getOutputFile());
     });
   }
 
+  /**
+   * Register the aggregated Sonar resolver task, which resolves the inputs of all projects at once.
+   */
+  private static TaskProvider<SonarAggregatedResolverTask> registerAggregatedResolverTask(Project topLevelProject, List<ProjectResolutionInputs> resolutionInputs,
+    Set<File> resolverFiles) {
+    return topLevelProject.getTasks().register(SonarAggregatedResolverTask.TASK_NAME, SonarAggregatedResolverTask.class, resolverTask -> {
+      resolverTask.setDescription(SonarAggregatedResolverTask.TASK_DESCRIPTION);
+      resolverTask.setGroup(JavaBasePlugin.VERIFICATION_GROUP);
+      resolverTask.getProjects().addAll(resolutionInputs);
+      resolverTask.setPathRoots(PathRoots.of(topLevelProject));
+      Provider<FileStatusService> fileStatus = fileStatusService(topLevelProject);
+      if (fileStatus != null) {
+        resolverTask.usesService(fileStatus);
+      }
+      File buildDirectory = new File(topLevelProject.getLayout().getBuildDirectory().getAsFile().get(), "sonar-resolver");
+      resolverTask.setOutputDirectory(buildDirectory);
+      resolverFiles.add(resolverTask.getOutputFile());
+    });
+  }
+
+  /**
+   * Configure the resolution inputs of a project that do not depend on the Android Gradle plugin.
+   */
+  private static void configureResolverInputs(Project topLevelProject, Project project, ResolverInputs inputs) {
+    inputs.getSkipProject().convention(project.provider(() -> SonarUtils.isSkipped(project)));
+    inputs.getProjectName().convention(SonarUtils.constructPrefixedProjectName(project.getPath()));
+    inputs.getTopLevelProject().convention(false);
+    if (project == topLevelProject) {
+      inputs.getTopLevelProject().set(true);
+    }
+    inputs.setPathRoots(PathRoots.of(topLevelProject));
+    Provider<FileStatusService> fileStatus = fileStatusService(project);
+    if (fileStatus != null) {
+      inputs.setFileStatus(fileStatus);
+    }
+    boolean abiJars = AbiJarTransform.isEnabled(topLevelProject);
+    inputs.setCompileClasspath(project.provider(() -> querySourceSet(project, SourceSet.MAIN_SOURCE_SET_NAME, abiJars)));
+    inputs.setTestCompileClasspath(project.provider(() -> querySourceSet(project, SourceSet.TEST_SOURCE_SET_NAME, abiJars)));
+    if (!isAndroidProject(project)) {
+      inputs.getMainLibraries().from(project.provider(() -> project.files(SonarUtils.getRuntimeJars())));
+      inputs.getTestLibraries().from(project.provider(() -> project.files(SonarUtils.getRuntimeJars())));
+    }
+  }
+
   /**
    * Configure Android specific properties and classpath information for a project if it uses the Android Gradle plugin.
+   * The inputs of the project are those of the resolver task, or part of them with the aggregated resolver task.
    */
-  private static void configureAndroid(Project project, Map<String, AndroidConfig> androidConfigMap, TaskProvider<SonarResolverTask> resolverTaskProvider) {
+  private static <T extends Task> void configureAndroid(Project project, Map<String, AndroidConfig> androidConfigMap, TaskProvider<T> resolverTaskProvider,
+    Function<T, ResolverInputs> projectInputs) {
     try {
       if (AndroidConfig.usesAndroidGradlePlugin9OrGreater()) {
         SonarUtils.ANDROID_PLUGIN_IDS.forEach(pluginId ->
@@ -127,18 +196,20 @@ public class SonarQubePlugin implements Plugin<Project> {
             AndroidConfig androidConfig = AndroidConfig.of(project);
             androidConfigMap.put(project.getPath(), androidConfig);
             resolverTaskProvider.configure(resolverTask -> {
-              resolverTask.getMainLibraries().setFrom(project.provider(androidConfig::getMainLibraries));
-              resolverTask.getTestLibraries().setFrom(project.provider(androidConfig::getTestLibraries));
-              resolverTask.getAndroidSources().from(project.provider(androidConfig::getAndroidSources));
-              resolverTask.getAndroidTests().from(project.provider(androidConfig::getAndroidTests));
+              ResolverInputs inputs = projectInputs.apply(resolverTask);
+              inputs.getMainLibraries().setFrom(project.provider(androidConfig::getMainLibraries));
+              inputs.getTestLibraries().setFrom(project.provider(androidConfig::getTestLibraries));
+              inputs.getAndroidSources().from(project.provider(androidConfig::getAndroidSources));
+              inputs.getAndroidTests().from(project.provider(androidConfig::getAndroidTests));
               resolverTask.mustRunAfter(androidConfig.getTasks());
             });
           })
         );
       } else {
         resolverTaskProvider.configure(resolverTask -> {
-          resolverTask.setLegacyMainLibraries(project.provider(() -> LegacyAndroidConfig.findMainLibraries(project)));
-          resolverTask.setLegacyTestLibraries(project.provider(() -> LegacyAndroidConfig.findTestLibraries(project)));
+          ResolverInputs inputs = projectInputs.apply(resolverTask);
+          inputs.setLegacyMainLibraries(project.provider(() -> LegacyAndroidConfig.findMainLibraries(project)));
+          inputs.setLegacyTestLibraries(project.provider(() -> LegacyAndroidConfig.findTestLibraries(project)));
           resolverTask.mustRunAfter(getAndroidTasks(project));
         });
       }
@@ -147,24 +218,42 @@ public class SonarQubePlugin implements Plugin<Project> {
     }
   }
 
-  private static FileCollection querySourceSet(Project project, String sourceSetName) {
+  /**
+   * @return the service sharing the status of the files looked up by the Sonar tasks of the build, or {@code null} before
+   * Gradle 6.1, where each task looks up the files on its own
+   */
+  @Nullable
+  private static Provider<FileStatusService> fileStatusService(Project project) {
+    if (!isGradleVersionGreaterOrEqualTo("6.1")) {
+      return null;
+    }
+    return project.getGradle().getSharedServices()
+      .registerIfAbsent(FileStatusService.SERVICE_NAME, FileStatusService.class, spec -> { });
+  }
+
+  private static FileCollection querySourceSet(Project project, String sourceSetName, boolean abiJars) {
     var sourceSets = SonarUtils.getSourceSets(project);
     if (sourceSets == null) {
       return project.files();
     }
     var set = sourceSets.findByName(sourceSetName);
-    return set == null ? project.files() : set.getCompileClasspath();
+    if (set == null) {
+      return project.files();
+    }
+    FileCollection classpath = set.getCompileClasspath();
+    Configuration configuration = project.getConfigurations().findByName(set.getCompileClasspathConfigurationName());
+    if (abiJars && configuration != null) {
+      // Files added to the classpath outside of its configuration are kept as they are
+      return classpath.minus(configuration).plus(AbiJarTransform.strippedFiles(configuration));
+    }
+    return classpath;
   }
 
   private static void configureTask(SonarTask sonarTask, Project project, Map<String, ActionBroadcast<SonarProperties>> actionBroadcastMap,
     Map<String, AndroidConfig> androidConfigMap) {
     Provider<ComputedProperties> computedPropertiesProvider =
       project.provider(() -> new SonarPropertyComputer(actionBroadcastMap, androidConfigMap, project).computeSonarProperties());
-    Provider<Map<String, String>> conventionProvider = computedPropertiesProvider.map(computed ->
-      computed.properties.entrySet()
-        .stream()
-        .collect(Collectors.toMap(Map.Entry::getKey, e -> (String) e.getValue()))
-    );
+    Provider<Map<String, String>> conventionProvider = computedPropertiesProvider.map(computed -> computed.properties);
     Provider<Set<String>> userDefinedKeysProvider = computedPropertiesProvider.map(computed -> computed.userDefinedKeys);
 
     if (isGradleVersionGreaterOrEqualTo("6.1")) {
@@ -172,6 +261,9 @@ public class SonarQubePlugin implements Plugin<Project> {
       mapProperty.convention(conventionProvider);
       mapProperty.finalizeValueOnRead();
       sonarTask.setProperties(mapProperty, userDefinedKeysProvider);
+      Provider<FileStatusService> fileStatus = fileStatusService(project);
+      sonarTask.usesService(fileStatus);
+      sonarTask.setFileStatus(fileStatus);
     } else {
       sonarTask.setProperties(conventionProvider, userDefinedKeysProvider);
     }
@@ -221,9 +313,15 @@ public class SonarQubePlugin implements Plugin<Project> {
   }
 
   private static Callable<Iterable<? extends Task>> getClassPathResolverTasks(Project project) {
-    return () -> project.getAllprojects().stream()
-      .map(p -> p.getTasks().getByName(SonarResolverTask.TASK_NAME))
-      .collect(Collectors.toList());
+    return () -> {
+      Task aggregatedResolverTask = project.getTasks().findByName(SonarAggregatedResolverTask.TASK_NAME);
+      if (aggregatedResolverTask != null) {
+        return List.of(aggregatedResolverTask);
+      }
+      return project.getAllprojects().stream()
+        .map(p -> p.getTasks().getByName(SonarResolverTask.TASK_NAME))
+        .collect(Collectors.toList());
+    };
   }
 
   private static Callable<Iterable<? extends Task>> getAndroidTasks(Project project) {
@@ -269,7 +367,10 @@ public class SonarQubePlugin implements Plugin<Project> {
         task.setDescription("Analyzes " + project + " and its subprojects with Sonar. This task is deprecated. Use 'sonar' instead.");
         task.setGroup(JavaBasePlugin.VERIFICATION_GROUP);
         task.setResolverFiles(resolverFiles);
+        task.setPathRoots(PathRoots.of(project));
         task.setBuildSonar(project.getLayout().getBuildDirectory().dir("sonar"));
+        task.setLibraryHashesDirectory(project.getLayout().getBuildDirectory().dir("sonar-library-hashes"));
+        task.setLibraryPackagesDirectory(project.getLayout().getBuildDirectory().dir("sonar-library-packages"));
         configureTask(task, project, actionBroadcastMap, androidConfigMap);
       });
 
@@ -278,7 +379,10 @@ public class SonarQubePlugin implements Plugin<Project> {
         task.setDescription("Analyzes " + project + " and its subprojects with Sonar.");
         task.setGroup(JavaBasePlugin.VERIFICATION_GROUP);
         task.setResolverFiles(resolverFiles);
+        task.setPathRoots(PathRoots.of(project));
         task.setBuildSonar(project.getLayout().getBuildDirectory().dir("sonar"));
+        task.setLibraryHashesDirectory(project.getLayout().getBuildDirectory().dir("sonar-library-hashes"));
+        task.setLibraryPackagesDirectory(project.getLayout().getBuildDirectory().dir("sonar-library-packages"));
         configureTask(task, project, actionBroadcastMap, androidConfigMap);
       });
     }
@@ -21,43 +21,35 @@ package org.sonarqube.gradle;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
-import javax.annotation.Nullable;
 import javax.inject.Inject;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
-import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.PathSensitive;
 import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
 
 
-public abstract class SonarResolverTask extends DefaultTask {
+@CacheableTask
+public abstract class SonarResolverTask extends DefaultTask implements ResolverInputs {
   public static final String TASK_NAME = "sonarResolver";
   public static final String TASK_DESCRIPTION = "Resolves and serializes project information and classpath for SonarQube analysis.";
   private static final Logger LOGGER = Logger.getLogger(SonarResolverTask.class.getName());
-  private static final String FILE_COLLECTION_RESOLUTION_FAILURE_MESSAGE = "Failed to resolve file collection input; skipping it.";
 
   private final ConfigurableFileCollection trackedCompileClasspath;
   private final ConfigurableFileCollection trackedTestCompileClasspath;
-  private Provider<FileCollection> compileClasspath;
-  private Provider<FileCollection> testCompileClasspath;
-  @Nullable
-  private Provider<FileCollection> legacyMainLibraries;
-  @Nullable
-  private Provider<FileCollection> legacyTestLibraries;
+  private final ProjectResolution resolution = new ProjectResolution();
   private File outputDirectory;
 
   @Inject
@@ -75,41 +67,68 @@ public abstract class SonarResolverTask extends DefaultTask {
   public abstract Property<Boolean> getTopLevelProject();
 
   public void setCompileClasspath(Provider<FileCollection> compileClasspath) {
-    this.compileClasspath = compileClasspath;
-    this.getCompileClasspath().setFrom(compileClasspath.map(SonarResolverTask::getExistingClasspathEntries));
+    resolution.setCompileClasspath(compileClasspath, getCompileClasspath());
   }
 
   public void setTestCompileClasspath(Provider<FileCollection> testCompileClasspath) {
-    this.testCompileClasspath = testCompileClasspath;
-    this.getTestCompileClasspath().setFrom(testCompileClasspath.map(SonarResolverTask::getExistingClasspathEntries));
+    resolution.setTestCompileClasspath(testCompileClasspath, getTestCompileClasspath());
   }
 
   public void setLegacyMainLibraries(Provider<FileCollection> legacyMainLibraries) {
-    this.legacyMainLibraries = legacyMainLibraries;
-    this.getOutputs().upToDateWhen(task -> false);
+    resolution.setLegacyMainLibraries(legacyMainLibraries);
   }
 
   public void setLegacyTestLibraries(Provider<FileCollection> legacyTestLibraries) {
-    this.legacyTestLibraries = legacyTestLibraries;
-    this.getOutputs().upToDateWhen(task -> false);
+    resolution.setLegacyTestLibraries(legacyTestLibraries);
   }
 
-  @Classpath
+  public void setPathRoots(PathRoots pathRoots) {
+    resolution.setPathRoots(pathRoots);
+  }
+
+  public void setFileStatus(Provider<FileStatusService> fileStatus) {
+    resolution.setFileStatus(fileStatus);
+  }
+
+  @Internal
   public ConfigurableFileCollection getCompileClasspath() {
     return trackedCompileClasspath;
   }
 
-  @Classpath
+  @Internal
   public ConfigurableFileCollection getTestCompileClasspath() {
     return trackedTestCompileClasspath;
   }
 
-  @Classpath
+  @Internal
   public abstract ConfigurableFileCollection getMainLibraries();
 
-  @Classpath
+  @Internal
   public abstract ConfigurableFileCollection getTestLibraries();
 
+  /**
+   * The paths of the existing classpath entries are tracked instead of their content, see {@link ProjectResolution}.
+   */
+  @Input
+  public List<String> getCompileClasspathPaths() {
+    return resolution.getClasspathPaths(getCompileClasspath());
+  }
+
+  @Input
+  public List<String> getTestCompileClasspathPaths() {
+    return resolution.getClasspathPaths(getTestCompileClasspath());
+  }
+
+  @Input
+  public List<String> getMainLibraryPaths() {
+    return resolution.getMainLibraryPaths(getMainLibraries());
+  }
+
+  @Input
+  public List<String> getTestLibraryPaths() {
+    return resolution.getTestLibraryPaths(getTestLibraries());
+  }
+
   @PathSensitive(PathSensitivity.RELATIVE)
   @InputFiles
   public abstract ConfigurableFileCollection getAndroidSources();
@@ -133,87 +152,21 @@ public abstract class SonarResolverTask extends DefaultTask {
   @Input
   public abstract Property<Boolean> getSkipProject();
 
-  /**
-   * Returns the absolute paths of the files in the given FileCollection.
-   */
-  private static List<String> getAbsolutePaths(FileCollection fileCollection) {
-    try {
-      return SonarUtils.exists(fileCollection)
-        .stream()
-        .map(File::getAbsolutePath)
-        .collect(Collectors.toList());
-    } catch (RuntimeException e) {
-      LOGGER.log(Level.WARNING, FILE_COLLECTION_RESOLUTION_FAILURE_MESSAGE, e);
-      return Collections.emptyList();
-    }
-  }
-
-  private static List<String> getAbsolutePaths(Provider<FileCollection> filesProvider) {
-    try {
-      FileCollection files = filesProvider.getOrNull();
-      if (files == null) {
-        return Collections.emptyList();
-      }
-      return SonarUtils.exists(files).stream()
-        .map(File::getAbsolutePath)
-        .collect(Collectors.toList());
-    } catch (RuntimeException e) {
-      LOGGER.log(Level.WARNING, FILE_COLLECTION_RESOLUTION_FAILURE_MESSAGE, e);
-      return Collections.emptyList();
-    }
-  }
-
-  private static List<String> getAbsolutePaths(FileCollection fileCollection, @Nullable Provider<FileCollection> additionalFilesProvider) {
-    List<String> filenames = new ArrayList<>(getAbsolutePaths(fileCollection));
-    if (additionalFilesProvider != null) {
-      filenames.addAll(getAbsolutePaths(additionalFilesProvider));
-    }
-    return filenames;
-  }
-
-  private static List<File> getExistingClasspathEntries(FileCollection fileCollection) {
-    try {
-      return SonarUtils.exists(fileCollection);
-    } catch (RuntimeException e) {
-      LOGGER.log(Level.WARNING, FILE_COLLECTION_RESOLUTION_FAILURE_MESSAGE, e);
-      return Collections.emptyList();
-    }
-  }
-
   @TaskAction
   void run() throws IOException {
-    if (Boolean.TRUE.equals(getSkipProject().getOrElse(false))) {
+    ProjectProperties projectProperties = resolution.resolve(this);
+    if (projectProperties == null) {
       return;
     }
 
-    String displayName = getProjectName().get();
-    if (LOGGER.isLoggable(Level.INFO)) {
-      LOGGER.info("Resolving properties for " + displayName + ".");
-    }
-
-    List<String> compileClasspathFilenames = getAbsolutePaths(compileClasspath);
-    List<String> testCompileClasspathFilenames = getAbsolutePaths(testCompileClasspath);
-    List<String> mainLibrariesFilenames = getAbsolutePaths(getMainLibraries(), legacyMainLibraries);
-    List<String> testLibrariesFilenames = getAbsolutePaths(getTestLibraries(), legacyTestLibraries);
-    List<String> androidSourcesFilenames = getAbsolutePaths(getAndroidSources());
-    List<String> androidTestsFilenames = getAbsolutePaths(getAndroidTests());
-
-    ProjectProperties projectProperties = new ProjectProperties.Builder(displayName, getTopLevelProject().getOrElse(false))
-      .compileClasspath(compileClasspathFilenames)
-      .testCompileClasspath(testCompileClasspathFilenames)
-      .mainLibraries(mainLibrariesFilenames)
-      .testLibraries(testLibrariesFilenames)
-      .androidSources(androidSourcesFilenames)
-      .androidTests(androidTestsFilenames)
-      .build();
-
     outputDirectory.mkdirs();
-    ResolutionSerializer.write(
+    ResolutionSerializer.writeAll(
       getOutputFile(),
-      projectProperties
+      List.of(projectProperties),
+      resolution.getPathRoots()
     );
     if (LOGGER.isLoggable(Level.INFO)) {
-      LOGGER.info("Resolved properties for " + displayName + " and wrote them to " + getOutputFile() + ".");
+      LOGGER.info("Resolved properties for " + projectProperties.projectName + " and wrote them to " + getOutputFile() + ".");
     }
   }
 }
@@ -32,12 +32,16 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Predicate;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
@@ -50,6 +54,7 @@ import org.gradle.api.logging.Logging;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.LocalState;
 import org.gradle.api.tasks.OutputDirectory;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.util.GradleVersion;
@@ -125,16 +130,67 @@ public class SonarTask extends ConventionTask {
     }
   }
 
+  /**
+   * How the paths of a property are checked by {@link #filterPathProperties(Map, Set)}.
+   */
+  private enum PathCheck {
+    // Existing paths outside of the generated sources
+    SOURCES,
+    // Directories containing JUnit reports
+    JUNIT_REPORTS,
+    // Existing files
+    FILES
+  }
+
+  private static final Map<PropertyKeys.Kind, PathCheck> PATH_CHECKS = pathChecks();
+
   /**
    * A simple data holder class that associates a {@link SonarProperty} with its full property name.
    */
   private static class PropertyInfo {
     final SonarProperty property;
     final String fullName;
+    final PathCheck check;
+    final boolean userDefined;
 
-    public PropertyInfo(SonarProperty property, String fullName) {
+    public PropertyInfo(SonarProperty property, String fullName, PathCheck check, boolean userDefined) {
       this.property = property;
       this.fullName = fullName;
+      this.check = check;
+      this.userDefined = userDefined;
+    }
+  }
+
+  /**
+   * The content of a resolver file, with the paths that do not exist filtered out. Android source and test paths are
+   * {@code null} when the module has none.
+   */
+  static class ResolvedModule {
+    final ProjectProperties properties;
+    @Nullable
+    final String androidSources;
+    @Nullable
+    final String androidTests;
+    final String libraries;
+    final String testLibraries;
+
+    ResolvedModule(ProjectProperties properties, @Nullable String androidSources, @Nullable String androidTests, String libraries, String testLibraries) {
+      this.properties = properties;
+      this.androidSources = androidSources;
+      this.androidTests = androidTests;
+      this.libraries = libraries;
+      this.testLibraries = testLibraries;
+    }
+
+    void mergeInto(Map<String, String> result) {
+      if (androidSources != null) {
+        mergeAndroidSources(properties, androidSources, result, false);
+      }
+      if (androidTests != null) {
+        mergeAndroidSources(properties, androidTests, result, true);
+      }
+      mergeSonarJavaLibraries(properties, libraries, result);
+      mergeSonarJavaTestLibraries(properties, testLibraries, result);
     }
   }
 
@@ -146,6 +202,13 @@ public class SonarTask extends ConventionTask {
   private Provider<Set<String>> userDefinedKeys;
   private Provider<Directory> buildSonar;
   private Set<File> resolverFiles;
+  private PathRoots pathRoots = PathRoots.NONE;
+  @Nullable
+  private Provider<FileStatusService> fileStatus;
+  @Nullable
+  private Provider<Directory> libraryHashesDirectory;
+  @Nullable
+  private Provider<Directory> libraryPackagesDirectory;
 
   private static void logEnvironmentInformation() {
     if (LOGGER.isInfoEnabled()) {
@@ -181,53 +244,99 @@ public class SonarTask extends ConventionTask {
    */
   @VisibleForTesting
   static void processResolverFile(File resolverFile, Map<String, String> result) {
-    LOGGER.info("Looking at file: {}", resolverFile);
-    try {
-      var prop = ResolutionSerializer.read(resolverFile);
-      if (prop.isEmpty()) {
-        return;
-      }
-      ProjectProperties resolvedProperties = prop.get();
+    processResolverFile(resolverFile, PathRoots.NONE, result);
+  }
 
-      if (resolvedProperties.androidSources != null) {
-        List<File> sources = resolvedProperties.androidSources.stream().map(File::new).collect(Collectors.toList());
-        resolveAndroidSources(resolvedProperties, sources, result, false);
-      }
+  /**
+   * Same as {@link #processResolverFile(File, Map)}, rebasing the paths stored relative to a root on the given roots.
+   */
+  @VisibleForTesting
+  static void processResolverFile(File resolverFile, PathRoots pathRoots, Map<String, String> result) {
+    PathInterner interner = new PathInterner();
+    FileStatusCache fileStatus = new FileStatusCache();
+    readResolverFile(resolverFile, pathRoots, interner).stream()
+      .map(properties -> resolveModule(properties, interner, fileStatus))
+      .forEach(module -> module.mergeInto(result));
+  }
 
-      if (resolvedProperties.androidTests != null) {
-        List<File> tests = resolvedProperties.androidTests.stream().map(File::new).collect(Collectors.toList());
-        resolveAndroidSources(resolvedProperties, tests, result, true);
-      }
+  /**
+   * Reads the modules of a resolver file, which holds a single module unless it was written by {@link SonarAggregatedResolverTask}.
+   */
+  private static List<ProjectProperties> readResolverFile(File resolverFile, PathRoots pathRoots, PathInterner interner) {
+    LOGGER.info("Looking at file: {}", resolverFile);
+    try {
+      return ResolutionSerializer.readAll(resolverFile, pathRoots).stream()
+        .map(interner::intern)
+        .collect(Collectors.toList());
+    } catch (IOException e) {
+      LOGGER.warn("Could not read from resolver file {}", resolverFile, e);
+      return List.of();
+    }
+  }
 
-      List<File> libraries = resolvedProperties.compileClasspath.stream().map(File::new).collect(Collectors.toList());
+  /**
+   * Checks which paths of a module exist. This does not depend on other modules, so it can run concurrently for all of them.
+   */
+  private static ResolvedModule resolveModule(ProjectProperties resolvedProperties, PathInterner interner, FileStatusCache fileStatus) {
+    List<String> libraries = new ArrayList<>(resolvedProperties.compileClasspath);
+    // Add mainLibraries if present (for Android projects)
+    if (resolvedProperties.mainLibraries != null) {
+      libraries.addAll(resolvedProperties.mainLibraries);
+    }
+
+    List<String> testLibraries = new ArrayList<>(resolvedProperties.testCompileClasspath);
+    // Add testLibraries if present (for Android projects)
+    if (resolvedProperties.testLibraries != null) {
+      testLibraries.addAll(resolvedProperties.testLibraries);
+    }
+
+    // Modules with the same classpath share the same values
+    return new ResolvedModule(
+      resolvedProperties,
+      internNullable(interner, existingAndroidPaths(resolvedProperties.androidSources, fileStatus)),
+      internNullable(interner, existingAndroidPaths(resolvedProperties.androidTests, fileStatus)),
+      interner.intern(existingAbsolutePaths(toFiles(libraries), fileStatus)),
+      interner.intern(existingAbsolutePaths(toFiles(testLibraries), fileStatus)));
+  }
 
-      // Add mainLibraries if present (for Android projects)
-      if (resolvedProperties.mainLibraries != null && !resolvedProperties.mainLibraries.isEmpty()) {
-        List<File> mainLibraries = resolvedProperties.mainLibraries.stream().map(File::new).collect(Collectors.toList());
-        libraries.addAll(mainLibraries);
-      }
+  @Nullable
+  private static String internNullable(PathInterner interner, @Nullable String value) {
+    return value == null ? null : interner.intern(value);
+  }
 
-      resolveSonarJavaLibraries(resolvedProperties, libraries, result);
+  /**
+   * @return the existing Android source or test directories, or {@code null} if the module has none
+   */
+  @Nullable
+  private static String existingAndroidPaths(@Nullable List<String> paths, FileStatusCache fileStatus) {
+    if (paths == null || paths.isEmpty()) {
+      return null;
+    }
+    return existingAbsolutePaths(toFiles(paths), fileStatus);
+  }
 
-      List<File> testLibraries = resolvedProperties.testCompileClasspath.stream().map(File::new).collect(Collectors.toList());
+  private static List<File> toFiles(List<String> paths) {
+    return paths.stream().map(File::new).collect(Collectors.toList());
+  }
 
-      // Add testLibraries if present (for Android projects)
-      if (resolvedProperties.testLibraries != null && !resolvedProperties.testLibraries.isEmpty()) {
-        List<File> testLibs = resolvedProperties.testLibraries.stream().map(File::new).collect(Collectors.toList());
-        testLibraries.addAll(testLibs);
-      }
+  private static String existingAbsolutePaths(Iterable<File> files) {
+    return existingAbsolutePaths(files, new FileStatusCache());
+  }
 
-      resolveSonarJavaTestLibraries(resolvedProperties, testLibraries, result);
-    } catch (IOException e) {
-      LOGGER.warn("Could not read from resolver file {}", resolverFile, e);
-    }
+  private static String existingAbsolutePaths(Iterable<File> files, FileStatusCache fileStatus) {
+    return SonarUtils.exists(files, fileStatus).stream()
+      .map(File::getAbsolutePath)
+      .collect(Collectors.joining(","));
   }
 
   static void resolveAndroidSources(ProjectProperties projectProperties, @Nullable Collection<File> sources, Map<String, String> properties, boolean isTest) {
     if (sources == null || sources.isEmpty()) {
       return;
     }
+    mergeAndroidSources(projectProperties, existingAbsolutePaths(sources), properties, isTest);
+  }
 
+  private static void mergeAndroidSources(ProjectProperties projectProperties, String resolvedAsAString, Map<String, String> properties, boolean isTest) {
     boolean isTopLevelProject = projectProperties.isRootProject;
     if (isTopLevelProject) {
       LOGGER.debug("Resolving Android sources for the top-level project.");
@@ -235,12 +344,6 @@ public class SonarTask extends ConventionTask {
       LOGGER.debug("Resolving Android sources for {}.", projectProperties.projectName);
     }
 
-    List<File> resolvedSources = SonarUtils.exists(sources);
-    String resolvedAsAString = resolvedSources.stream()
-      .filter(File::exists)
-      .map(File::getAbsolutePath)
-      .collect(Collectors.joining(","));
-
     String property = isTest ? PROJECT_TEST_DIRS : PROJECT_SOURCE_DIRS;
     String propertyKey = isTopLevelProject ? property : (projectProperties.projectName + "." + property);
 
@@ -291,6 +394,10 @@ public class SonarTask extends ConventionTask {
    * The end result is stored in the map passed as input.
    */
   static void resolveSonarJavaLibraries(ProjectProperties projectProperties, @Nullable Iterable<File> mainClassPath, Map<String, String> properties) {
+    mergeSonarJavaLibraries(projectProperties, mainClassPath == null ? null : existingAbsolutePaths(mainClassPath), properties);
+  }
+
+  private static void mergeSonarJavaLibraries(ProjectProperties projectProperties, @Nullable String resolvedAsAString, Map<String, String> properties) {
     boolean isTopLevelProject = projectProperties.isRootProject;
     if (LOGGER.isDebugEnabled()) {
       if (isTopLevelProject) {
@@ -299,17 +406,11 @@ public class SonarTask extends ConventionTask {
         LOGGER.debug("Resolving main class path for {}.", projectProperties.projectName);
       }
     }
-    if (mainClassPath == null) {
+    if (resolvedAsAString == null) {
       LOGGER.debug("No main class path configured. Skipping resolution.");
       return;
     }
 
-    List<File> resolvedLibraries = SonarUtils.exists(mainClassPath);
-    String resolvedAsAString = resolvedLibraries.stream()
-      .filter(File::exists)
-      .map(File::getAbsolutePath)
-      .collect(Collectors.joining(","));
-
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("Resolved configured main class path as: {}", resolvedAsAString);
     }
@@ -346,6 +447,10 @@ public class SonarTask extends ConventionTask {
    * The end result is stored in the map passed as input.
    */
   static void resolveSonarJavaTestLibraries(ProjectProperties projectProperties, @Nullable Iterable<File> testClassPath, Map<String, String> properties) {
+    mergeSonarJavaTestLibraries(projectProperties, testClassPath == null ? null : existingAbsolutePaths(testClassPath), properties);
+  }
+
+  private static void mergeSonarJavaTestLibraries(ProjectProperties projectProperties, @Nullable String resolvedAsAString, Map<String, String> properties) {
     boolean isTopLevelProject = projectProperties.isRootProject;
     if (LOGGER.isDebugEnabled()) {
       if (isTopLevelProject) {
@@ -355,17 +460,11 @@ public class SonarTask extends ConventionTask {
       }
     }
 
-    if (testClassPath == null) {
+    if (resolvedAsAString == null) {
       LOGGER.debug("No test class path configured. Skipping resolution.");
       return;
     }
 
-    List<File> resolvedLibraries = SonarUtils.exists(testClassPath);
-    String resolvedAsAString = resolvedLibraries.stream()
-      .filter(File::exists)
-      .map(File::getAbsolutePath)
-      .collect(Collectors.joining(","));
-
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("Resolved configured test class path as: {}", resolvedAsAString);
     }
@@ -404,6 +503,82 @@ public class SonarTask extends ConventionTask {
     properties.put(propertyKey, libraries);
   }
 
+  private void deduplicateLibraries(Map<String, String> properties, PropertyKeys keys) {
+    Path hashesFile = libraryHashesDirectory == null ? null : libraryHashesDirectory.get().file(LibraryHashes.FILE_NAME).getAsFile().toPath();
+    LibraryHashes hashes = hashesFile == null ? new LibraryHashes() : LibraryHashes.read(hashesFile);
+    int removed = deduplicateLibraries(properties, keys, hashes);
+    LOGGER.info("Removed {} libraries with the same content as another library of the same module", removed);
+    if (hashesFile != null) {
+      try {
+        hashes.write(hashesFile);
+      } catch (IOException e) {
+        LOGGER.warn("Could not write library hashes to {}", hashesFile, e);
+      }
+    }
+  }
+
+  /**
+   * Removes from the libraries properties the files with the same content as a previous file of the same property, such as
+   * the transformed copies of a jar. Directories and files that cannot be read are kept.
+   *
+   * @return the number of removed libraries
+   */
+  static int deduplicateLibraries(Map<String, String> properties, LibraryHashes hashes) {
+    return deduplicateLibraries(properties, PropertyKeys.classify(properties.keySet()), hashes);
+  }
+
+  static int deduplicateLibraries(Map<String, String> properties, PropertyKeys keys, LibraryHashes hashes) {
+    int removed = 0;
+    for (PropertyKeys.Key key : keys.get(PropertyKeys.Kind.LIBRARIES)) {
+      String value = properties.get(key.key);
+      if (value == null || value.isEmpty()) {
+        continue;
+      }
+      List<String> libraries = SonarUtils.splitAsCsv(value);
+      List<String> kept = new ArrayList<>(libraries.size());
+      Set<String> seenHashes = new HashSet<>();
+      for (String library : libraries) {
+        if (isDuplicateLibrary(library.trim(), hashes, seenHashes)) {
+          LOGGER.debug("Removing {} from {}, another library has the same content", library, key.key);
+        } else {
+          kept.add(library);
+        }
+      }
+      if (kept.size() < libraries.size()) {
+        removed += libraries.size() - kept.size();
+        properties.put(key.key, SonarUtils.joinAsCsv(kept));
+      }
+    }
+    return removed;
+  }
+
+  private void shrinkLibraries(Map<String, String> properties, PropertyKeys keys) {
+    Path packagesFile = libraryPackagesDirectory == null ? null : libraryPackagesDirectory.get().file(LibraryPackages.FILE_NAME).getAsFile().toPath();
+    LibraryPackages packages = packagesFile == null ? new LibraryPackages() : LibraryPackages.read(packagesFile);
+    int removed = new ClasspathShrinker(packages).shrink(properties, keys);
+    LOGGER.info("Removed {} libraries that provide no class used by their module", removed);
+    if (packagesFile != null) {
+      try {
+        packages.write(packagesFile);
+      } catch (IOException e) {
+        LOGGER.warn("Could not write library packages to {}", packagesFile, e);
+      }
+    }
+  }
+
+  private static boolean isDuplicateLibrary(String library, LibraryHashes hashes, Set<String> seenHashes) {
+    if (library.isEmpty() || containsWildcard(library)) {
+      return false;
+    }
+    try {
+      Path path = Path.of(library);
+      return Files.isRegularFile(path) && !seenHashes.add(hashes.hash(path));
+    } catch (IOException | InvalidPathException e) {
+      LOGGER.debug("Could not hash library {}", library, e);
+      return false;
+    }
+  }
+
   /**
    * Post-process the sonar properties to prepare them for analysis.
    * You should not filter properties inside Provider, as you do not have any guarantees about when they will be executed.
@@ -417,57 +592,84 @@ public class SonarTask extends ConventionTask {
    * </p>
    */
   static void filterPathProperties(Map<String, String> properties, Set<String> userDefinedKeys) {
-    Set<String> sourcePropNames = Set.of(
-      SonarProperty.PROJECT_SOURCE_DIRS,
-      PROJECT_TEST_DIRS,
-      SonarProperty.JAVA_BINARIES,
-      SonarProperty.JAVA_LIBRARIES,
-      SonarProperty.JAVA_TEST_BINARIES,
-      SonarProperty.JAVA_TEST_LIBRARIES,
-      SonarProperty.LIBRARIES,
-      SonarProperty.GROOVY_BINARIES,
-      SonarProperty.BINARIES);
-
-    List<PropertyInfo> sourcesProperties = parsePropertiesWithNames(properties, sourcePropNames);
-
-    // Filter non-existing paths and generated sources, and remove empty source properties.
-    for (PropertyInfo prop : sourcesProperties) {
-      properties.computeIfPresent(prop.fullName, (k, commaList) -> {
-        var filtered = filterPaths(commaList, SonarTask::containsValidSources, userDefinedKeys.contains(k));
-        // empty assignments for `sonar.sources` and `sonar.tests` are required,
-        // because modules with no `sonar.sources` or `sonar.tests` value inherit the value from their parent module.
-        // This can eventually lead to a double indexing issue in the scanner-engine.
-        if (filtered.isEmpty() && !PROJECT_SOURCE_DIRS.equals(prop.property.getProperty())
-          && !PROJECT_TEST_DIRS.equals(prop.property.getProperty())) {
-          return null;
+    filterPathProperties(properties, userDefinedKeys, new FileStatusCache(), 1);
+  }
+
+  /**
+   * Same as {@link #filterPathProperties(Map, Set)}, looking up the files in the given cache on up to {@code parallelism} threads.
+   */
+  static void filterPathProperties(Map<String, String> properties, Set<String> userDefinedKeys, FileStatusCache fileStatus, int parallelism) {
+    filterPathProperties(properties, PropertyKeys.classify(properties.keySet()), userDefinedKeys, fileStatus, parallelism);
+  }
+
+  /**
+   * Same as {@link #filterPathProperties(Map, Set, FileStatusCache, int)}, with the keys already classified. Only the keys
+   * of the path properties are visited, then all their paths are checked at once by a {@link BatchedPathChecker}.
+   */
+  static void filterPathProperties(Map<String, String> properties, PropertyKeys keys, Set<String> userDefinedKeys, FileStatusCache fileStatus,
+    int parallelism) {
+    List<PropertyInfo> pathProperties = new ArrayList<>();
+    BatchedPathChecker checker = new BatchedPathChecker(fileStatus, name -> TEST_RESULT_FILE_PATTERN.matcher(name).matches());
+    for (Map.Entry<PropertyKeys.Kind, PathCheck> kindCheck : PATH_CHECKS.entrySet()) {
+      PathCheck check = kindCheck.getValue();
+      for (PropertyKeys.Key key : keys.get(kindCheck.getKey())) {
+        String value = properties.get(key.key);
+        if (value == null) {
+          continue;
+        }
+        PropertyInfo prop = new PropertyInfo(key.property, key.key, check, userDefinedKeys.contains(key.key));
+        pathProperties.add(prop);
+        for (String path : value.split(",")) {
+          if (isCheckedPath(path, prop.userDefined)) {
+            addCheck(checker, check, path);
+          }
         }
+      }
+    }
+
+    checker.check(parallelism);
 
-        return filtered;
-      });
+    for (PropertyInfo prop : pathProperties) {
+      String filtered = Arrays.stream(properties.get(prop.fullName).split(","))
+        .filter(path -> !isCheckedPath(path, prop.userDefined) || isValidPath(checker, prop.check, path))
+        .collect(Collectors.joining(","));
+      // empty assignments for `sonar.sources` and `sonar.tests` are required,
+      // because modules with no `sonar.sources` or `sonar.tests` value inherit the value from their parent module.
+      // This can eventually lead to a double indexing issue in the scanner-engine.
+      if (filtered.isEmpty() && !PROJECT_SOURCE_DIRS.equals(prop.property.getProperty()) && !PROJECT_TEST_DIRS.equals(prop.property.getProperty())) {
+        properties.remove(prop.fullName);
+      } else {
+        properties.put(prop.fullName, filtered);
+      }
     }
+  }
 
-    Set<String> junitReportNames = Set.of(
-      SonarProperty.JUNIT_REPORT_PATHS,
-      SonarProperty.SUREFIRE_REPORTS_PATH,
-      SonarProperty.JUNIT_REPORTS_PATH
-    );
-    List<PropertyInfo> junitReportProperties = parsePropertiesWithNames(properties, junitReportNames);
+  private static Map<PropertyKeys.Kind, PathCheck> pathChecks() {
+    Map<PropertyKeys.Kind, PathCheck> checks = new EnumMap<>(PropertyKeys.Kind.class);
+    checks.put(PropertyKeys.Kind.SOURCE_DIRS, PathCheck.SOURCES);
+    checks.put(PropertyKeys.Kind.BINARIES, PathCheck.SOURCES);
+    checks.put(PropertyKeys.Kind.LIBRARIES, PathCheck.SOURCES);
+    checks.put(PropertyKeys.Kind.JUNIT_REPORTS, PathCheck.JUNIT_REPORTS);
+    checks.put(PropertyKeys.Kind.JACOCO_REPORTS, PathCheck.FILES);
+    return Collections.unmodifiableMap(checks);
+  }
 
-    // Filter report paths if directory do not exist or do not contain reports, otherwise Sonar will emit a warning.
-    for (PropertyInfo prop : junitReportProperties) {
-      properties.computeIfPresent(prop.fullName, (k, commaList) -> {
-        var filtered = filterPaths(commaList, SonarTask::containJunitReport, userDefinedKeys.contains(k));
-        return filtered.isEmpty() ? null : filtered;
-      });
+  private static void addCheck(BatchedPathChecker checker, PathCheck check, String path) {
+    if (check == PathCheck.JUNIT_REPORTS) {
+      checker.addReportDirectory(path);
+    } else if (check == PathCheck.FILES || !isGeneratedSource(path)) {
+      checker.addFile(path);
     }
+  }
 
-    // Remove xml reports if the directory does not exist.
-    List<PropertyInfo> xmlReportProperties = parsePropertiesWithNames(properties, Set.of(SonarProperty.JACOCO_XML_REPORT_PATHS));
-    for (PropertyInfo prop : xmlReportProperties) {
-      properties.computeIfPresent(prop.fullName, (k, commaList) -> {
-        var filtered = filterPaths(commaList, Files::exists, userDefinedKeys.contains(k));
-        return filtered.isEmpty() ? null : filtered;
-      });
+  private static boolean isValidPath(BatchedPathChecker checker, PathCheck check, String path) {
+    switch (check) {
+      case SOURCES:
+        return !isGeneratedSource(path) && checker.exists(path);
+      case JUNIT_REPORTS:
+        return checker.containsReports(path);
+      default:
+        return checker.exists(path);
     }
   }
 
@@ -479,61 +681,27 @@ public class SonarTask extends ConventionTask {
     return false;
   }
 
-  private static List<PropertyInfo> parsePropertiesWithNames(Map<String, String> properties, Set<String> sonarNames) {
-    List<PropertyInfo> parsedProperties = new ArrayList<>();
-    for (String propName : properties.keySet()) {
-      var parsed = SonarProperty.parse(propName);
-      parsed
-        .filter(p -> sonarNames.contains(p.getProperty()))
-        .ifPresent(property -> parsedProperties.add(new PropertyInfo(property, propName)));
-    }
-    return parsedProperties;
-  }
-
   /**
-   * Filter paths that weren't user-defined and don't contain wildcards.
+   * Paths containing wildcards are not filtered, nor are user-defined paths, except those ending with '.github' or
+   * 'settings.gradle.kts' as these are added by default by the sonar property computer.
    *
-   * @param value       A comma-delimited list of paths.
-   * @param filter      A predicate to filter the paths.
+   * @param value       A path of a comma-delimited list.
    * @param userDefined Whether the property was user-defined.
-   * @return A filtered comma-delimited list of paths.
+   * @return Whether the path is removed if it does not pass the check of its property.
    */
-  private static String filterPaths(String value, Predicate<Path> filter, boolean userDefined) {
-    return Arrays.stream(value.split(","))
-      .filter(p -> isCompliantPath(p, filter, userDefined))
-      .collect(Collectors.joining(","));
-  }
-
-  private static boolean isCompliantPath(String value, Predicate<Path> filter, boolean userDefined) {
-    // We shouldn't filter paths containing wildcards, no matter if they were user-defined or not.
+  private static boolean isCheckedPath(String value, boolean userDefined) {
     if (containsWildcard(value)) {
-      return true;
-    }
-
-    // User-defined paths shouldn't be filtered either, except if they end with '.github' or 'settings.gradle.kts', as these are added by default by the sonar property computer.
-    if (userDefined && !(value.endsWith(".github") || value.endsWith("settings.gradle.kts"))) {
-      return true;
+      return false;
     }
-
-    return filter.test(Path.of(value));
+    return !userDefined || value.endsWith(".github") || value.endsWith("settings.gradle.kts");
   }
 
-  private static boolean containsWildcard(String value) {
+  static boolean containsWildcard(String value) {
     return Set.of("*", "?", "${").stream().anyMatch(value::contains);
   }
 
-  private static boolean containsValidSources(Path path) {
-    String normalizedPath = path.toString().replace('\\', '/');
-    return !normalizedPath.contains("build/generated") && Files.exists(path);
-  }
-
-  private static boolean containJunitReport(Path p) {
-    var children = p.toFile().list();
-    if (children != null) {
-      return Arrays.stream(children).anyMatch(file -> TEST_RESULT_FILE_PATTERN.matcher(file).matches());
-    } else {
-      return false;
-    }
+  private static boolean isGeneratedSource(String path) {
+    return Path.of(path).toString().replace('\\', '/').contains("build/generated");
   }
 
   @Inject
@@ -561,6 +729,20 @@ public class SonarTask extends ConventionTask {
     this.resolverFiles = resolverFiles;
   }
 
+  /**
+   * Roots of this build, on which the paths of the resolver files are rebased as they may come from the build cache.
+   */
+  public void setPathRoots(PathRoots pathRoots) {
+    this.pathRoots = pathRoots;
+  }
+
+  /**
+   * Service sharing the status of the files looked up by the resolver tasks and the Sonar tasks of the build.
+   */
+  public void setFileStatus(Provider<FileStatusService> fileStatus) {
+    this.fileStatus = fileStatus;
+  }
+
   /**
    * @return folder containing all files generated by the analysis
    * {@code null} values are not permitted.
@@ -574,6 +756,32 @@ public class SonarTask extends ConventionTask {
     this.buildSonar = buildSonar;
   }
 
+  /**
+   * @return folder where the hashes of the libraries are kept between builds, see {@link LibraryHashes}
+   */
+  @Nullable
+  @LocalState
+  public Provider<Directory> getLibraryHashesDirectory() {
+    return libraryHashesDirectory;
+  }
+
+  public void setLibraryHashesDirectory(Provider<Directory> libraryHashesDirectory) {
+    this.libraryHashesDirectory = libraryHashesDirectory;
+  }
+
+  /**
+   * @return folder where the packages of the libraries are kept between builds, see {@link LibraryPackages}
+   */
+  @Nullable
+  @LocalState
+  public Provider<Directory> getLibraryPackagesDirectory() {
+    return libraryPackagesDirectory;
+  }
+
+  public void setLibraryPackagesDirectory(Provider<Directory> libraryPackagesDirectory) {
+    this.libraryPackagesDirectory = libraryPackagesDirectory;
+  }
+
   /**
    * @return The {@link LogOutput} object to use during Scanner execution. All logged messages from the Scanner will
    * pass through this object. If needed, a custom implementation can be used to handle logged output, such as printing
@@ -617,24 +825,42 @@ public class SonarTask extends ConventionTask {
       LOGGER.warn("Task 'sonarqube' is deprecated. Use 'sonar' instead.");
     }
 
-    Map<String, String> mapProperties = getProperties().get();
-    if (mapProperties.isEmpty()) {
+    Map<String, String> configuredProperties = getProperties().get();
+    if (configuredProperties.isEmpty()) {
       LOGGER.warn("Skipping Sonar analysis: no properties configured, was it skipped in all projects?");
       return;
     }
 
+    // The only copy of the properties, updated in place until it is passed to the scanner
+    Map<String, String> mapProperties = new HashMap<>(configuredProperties);
     if (LOGGER.isDebugEnabled()) {
-      mapProperties = new HashMap<>(mapProperties);
       mapProperties.put(VERBOSE, "true");
-      mapProperties = Collections.unmodifiableMap(mapProperties);
     }
 
     if (isSkippedWithProperty(mapProperties)) {
       return;
     }
 
-    mapProperties = resolveFiles(mapProperties);
-    filterPathProperties(mapProperties, this.userDefinedKeys.get());
+    FileStatusCache fileStatusCache = fileStatus == null ? new FileStatusCache() : fileStatus.get().getCache();
+    resolveFiles(mapProperties, fileStatusCache);
+    // The steps below do not add keys, so they share a single classification of the keys
+    PropertyKeys keys = PropertyKeys.classify(mapProperties.keySet());
+    if ("true".equalsIgnoreCase(mapProperties.getOrDefault(SonarProperty.GRADLE_LIBRARIES_DEDUPLICATE, "false").trim())) {
+      deduplicateLibraries(mapProperties, keys);
+    }
+    if ("true".equalsIgnoreCase(mapProperties.getOrDefault(SonarProperty.GRADLE_LIBRARIES_SHRINK, "false").trim())) {
+      shrinkLibraries(mapProperties, keys);
+    }
+    filterPathProperties(mapProperties, keys, this.userDefinedKeys.get(), fileStatusCache, resolverParallelism(mapProperties));
+    if ("true".equalsIgnoreCase(mapProperties.getOrDefault(SonarProperty.GRADLE_RESOLVE_SOURCE_OVERLAPS, "false").trim())) {
+      int overlaps = SourceOverlaps.resolve(mapProperties, this.userDefinedKeys.get(), fileStatusCache);
+      if (overlaps > 0) {
+        LOGGER.info("Resolved {} source paths shared by several modules", overlaps);
+      }
+    }
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("File status cache: {} hits, {} misses", fileStatusCache.getHits(), fileStatusCache.getMisses());
+    }
 
     ScannerEngineBootstrapper scanner = ScannerEngineBootstrapper
       .create("ScannerGradle", getPluginVersion() + "/" + GradleVersion.current())
@@ -657,27 +883,83 @@ public class SonarTask extends ConventionTask {
     }
   }
 
+  /**
+   * Reads the resolver files, then checks the paths of their modules, on up to {@code parallelism} threads. The modules
+   * are returned in the order of the files, so that merging them into the properties does not depend on thread scheduling.
+   * Checking the modules separately keeps the threads busy when all the modules come from a single aggregated file.
+   */
+  static List<ResolvedModule> readResolverFiles(List<File> resolverFiles, PathRoots pathRoots, PathInterner interner, FileStatusCache fileStatus,
+    int parallelism) {
+    if (parallelism == 1) {
+      return resolverFiles.stream()
+        .flatMap(resolverFile -> readResolverFile(resolverFile, pathRoots, interner).stream())
+        .map(properties -> resolveModule(properties, interner, fileStatus))
+        .collect(Collectors.toList());
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      List<ProjectProperties> modules = mapInOrder(pool, resolverFiles, resolverFile -> readResolverFile(resolverFile, pathRoots, interner)).stream()
+        .flatMap(List::stream)
+        .collect(Collectors.toList());
+      return mapInOrder(pool, modules, properties -> resolveModule(properties, interner, fileStatus));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static <T, R> List<R> mapInOrder(ForkJoinPool pool, List<T> values, Function<T, R> function) {
+    List<ForkJoinTask<R>> tasks = values.stream()
+      .map(value -> pool.submit(() -> function.apply(value)))
+      .collect(Collectors.toList());
+    return tasks.stream()
+      .map(ForkJoinTask::join)
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * Number of threads reading the resolver files and checking the paths of the properties, defaults to the number of
+   * available processors.
+   */
+  private static int resolverParallelism(Map<String, String> properties) {
+    String value = properties.get(SonarProperty.GRADLE_RESOLVER_PARALLELISM);
+    if (value != null) {
+      try {
+        int parallelism = Integer.parseInt(value.trim());
+        if (parallelism >= 1) {
+          return parallelism;
+        }
+      } catch (NumberFormatException e) {
+        // Reported below
+      }
+      LOGGER.warn("Ignoring invalid value '{}' for {}, it must be a positive integer.", value, SonarProperty.GRADLE_RESOLVER_PARALLELISM);
+    }
+    return Runtime.getRuntime().availableProcessors();
+  }
+
   /**
    * Finish the configuration of `sonar.sources`, `sonar.tests`, `sonar.java.libraries` and `sonar.java.test.libraries` by resolving the Android sources and class paths that
    * were attached to the task at configuration time.
-   * The analysis parameters are added to a copy of the properties given as input.
+   * The analysis parameters are added to the given properties.
    */
-  private Map<String, String> resolveFiles(Map<String, String> properties) {
+  private void resolveFiles(Map<String, String> properties, FileStatusCache fileStatus) {
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("Resolving sources and classpath entries");
     }
 
-    final Map<String, String> result = new HashMap<>(properties);
-
     LOGGER.info("About to look at resolver files: {}", getResolverFiles());
-    for (File resolverFile : getResolverFiles()) {
-      processResolverFile(resolverFile, result);
+    // Only kept while reading the resolver files, the merged properties hold the shared paths
+    PathInterner interner = new PathInterner();
+    for (ResolvedModule module : readResolverFiles(new ArrayList<>(getResolverFiles()), pathRoots, interner, fileStatus, resolverParallelism(properties))) {
+      module.mergeInto(properties);
+    }
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Shared {} duplicate paths and values and {} duplicate path lists while reading the resolver files",
+        interner.getSharedStrings(), interner.getSharedLists());
     }
 
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("Finished resolving classpath entries");
     }
-
-    return result;
   }
 }
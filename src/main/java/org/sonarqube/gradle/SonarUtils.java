@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -58,11 +59,6 @@ public class SonarUtils {
     "com.android.test"
   );
 
-  private static final Pattern REPORT_PATH_PROPERTY_PATTERN = Pattern.compile(
-    "^sonar\\.(coverageReportPaths|([^.]++\\.)++(xml)?reports?paths?)$",
-    Pattern.CASE_INSENSITIVE
-  );
-
   static final String SONAR_JAVA_SOURCE_PROP = SonarProperty.JAVA_SOURCE;
   static final String SONAR_JAVA_TARGET_PROP = SonarProperty.JAVA_TARGET;
   static final String SONAR_JAVA_ENABLE_PREVIEW_PROP = SonarProperty.JAVA_ENABLE_PREVIEW;
@@ -101,6 +97,18 @@ public class SonarUtils {
       .collect(Collectors.toList());
   }
 
+  /**
+   * Check if a feature configured before the sonar extensions, such as the tasks registered when the plugin is applied,
+   * is enabled with a Gradle or system property.
+   */
+  static boolean isEnabledWithGradleOrSystemProperty(Project project, String property) {
+    Object value = project.findProperty(property);
+    if (value == null) {
+      value = System.getProperty(property);
+    }
+    return value != null && Boolean.parseBoolean(value.toString().trim());
+  }
+
   /**
    * Check if a Gradle project is an Android project by looking up known plugins.
    */
@@ -171,7 +179,7 @@ public class SonarUtils {
     return Character.toUpperCase(word.charAt(0)) + word.substring(1);
   }
 
-  static String findProjectBaseDir(Map<String, Object> properties) {
+  static String findProjectBaseDir(Map<String, ?> properties) {
     Path rootBaseDir = Paths.get(properties.get(SonarProperty.PROJECT_BASE_DIR).toString()).toAbsolutePath().normalize();
 
     List<Path> allProjectsBaseDir = properties.entrySet().stream()
@@ -225,9 +233,17 @@ public class SonarUtils {
    * Filters a collection files returning only the existing ones.
    */
   static List<File> exists(Iterable<File> files) {
+    return exists(files, new FileStatusCache());
+  }
+
+  /**
+   * Same as {@link #exists(Iterable)}, looking up the files in the given cache.
+   */
+  static List<File> exists(Iterable<File> files, FileStatusCache fileStatus) {
     List<File> list = new ArrayList<>();
+    Set<File> seen = new HashSet<>();
     for (File file : files) {
-      if (!list.contains(file) && file.exists()) {
+      if (seen.add(file) && fileStatus.exists(file)) {
         list.add(file);
       }
     }
@@ -253,18 +269,14 @@ public class SonarUtils {
     appendProps(properties, testSources ? SonarProperty.PROJECT_TEST_DIRS : SonarProperty.PROJECT_SOURCE_DIRS, filteredList);
   }
 
+  /**
+   * @return the files that are not inside another of the given files
+   */
   static List<File> filterOutSubFiles(Iterable<File> files) {
+    PathSet paths = new PathSet();
+    files.forEach(file -> paths.add(file.toPath()));
     return StreamSupport.stream(files.spliterator(), false)
-      .filter(file -> {
-        var current = file.toPath().toAbsolutePath();
-        for (File other : files) {
-          var otherPath = other.toPath().toAbsolutePath();
-          if (!current.equals(otherPath) && current.startsWith(otherPath)) {
-            return false;
-          }
-        }
-        return true;
-      })
+      .filter(file -> !paths.containsStrictAncestorOf(file.toPath()))
       .collect(Collectors.toList());
   }
 
@@ -355,11 +367,10 @@ public class SonarUtils {
    * @param properties Properties to explore
    * @return The set of paths that point to external reports
    */
-  public static Set<Path> extractReportPaths(Map<String, Object> properties) {
-    return properties.entrySet()
+  public static Set<Path> extractReportPaths(Map<String, ?> properties) {
+    return PropertyKeys.classify(properties.keySet()).getReportPathKeys()
       .stream()
-      .filter(entry -> isReportPathProperty(entry.getKey()))
-      .map(Map.Entry::getValue)
+      .map(properties::get)
       .filter(String.class::isInstance)
       .map(String.class::cast)
       .map(SonarUtils::splitAsCsv)
@@ -374,7 +385,7 @@ public class SonarUtils {
    * @return The set of absolute paths to external and coverage reports
    * @throws IllegalStateException if the property "sonar.projectBaseDir" is not defined in the properties argument
    */
-  public static Set<Path> computeReportPaths(Map<String, Object> properties) {
+  public static Set<Path> computeReportPaths(Map<String, ?> properties) {
     if (!properties.containsKey(SonarProperty.PROJECT_BASE_DIR)) {
       throw new IllegalStateException("Cannot compute absolute paths for reports because \"" + SonarProperty.PROJECT_BASE_DIR + "\" is not defined.");
     }
@@ -385,10 +396,6 @@ public class SonarUtils {
       .collect(Collectors.toSet());
   }
 
-  private static boolean isReportPathProperty(String propertyName) {
-    return REPORT_PATH_PROPERTY_PATTERN.matcher(propertyName.trim()).matches();
-  }
-
   public static InputFileType findProjectFileType(Path projectDir, Path filePath) {
     String relativePath = projectDir.relativize(filePath).toString();
     return TEST_FILE_PATH_PATTERN.matcher(relativePath).find() ? InputFileType.TEST : InputFileType.MAIN;
@@ -20,17 +20,24 @@
 package org.sonarqube.gradle;
 
 import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileVisitResult;
 import java.nio.file.FileVisitor;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 
 public class SourceCollector implements FileVisitor<Path> {
   private static final Set<String> EXCLUDED_DIRECTORIES = new HashSet<>(
@@ -133,43 +140,99 @@ public class SourceCollector implements FileVisitor<Path> {
     "token"
   );
 
+  private static final SuffixMatcher EXCLUDED_EXTENSIONS_WITH_JAVA_AND_KOTLIN_MATCHER = new SuffixMatcher(EXCLUDED_EXTENSIONS_WITH_JAVA_AND_KOTLIN);
+  private static final SuffixMatcher EXCLUDED_EXTENSIONS_WITHOUT_JAVA_AND_KOTLIN_MATCHER = new SuffixMatcher(EXCLUDED_EXTENSIONS_WITHOUT_JAVA_AND_KOTLIN);
+  private static final SuffixMatcher INCLUDE_EXTENSIONS_FOR_HIDDEN_FILES_MATCHER = new SuffixMatcher(INCLUDE_EXTENSIONS_FOR_HIDDEN_FILES);
+  private static final KeywordMatcher INCLUDE_HIDDEN_FILES_KEYWORDS_MATCHER = new KeywordMatcher(INCLUDE_HIDDEN_FILES_KEYWORDS);
+
   private final Path root;
   private final Set<Path> existingSources;
+  /**
+   * The existing sources, to skip the directories inside them. The files are only compared with {@link #existingSources},
+   * as their directories are skipped when they are inside an existing source.
+   */
+  private final PathSet existingSourceTree = new PathSet();
   private final Set<Path> directoriesToIgnore;
   private final Set<Path> excludedFiles;
-  private final Set<String> excludedExtensions;
+  private final boolean shouldCollectJavaAndKotlinSources;
+  private final SuffixMatcher excludedExtensions;
+  @Nullable
+  private final AnalysisScope analysisScope;
+  @Nullable
+  private final GitFilter gitFilter;
+  @Nullable
+  private final ContentSniffer contentSniffer;
+
+  /**
+   * Whether each directory entered during the walk is hidden, so that the hidden state of its children is known
+   * from their own name only.
+   */
+  private final Map<Path, Boolean> hiddenDirectories = new ConcurrentHashMap<>();
 
   public Set<Path> getCollectedSources() {
     return collectedSources;
   }
 
-  private final Set<Path> collectedSources = new HashSet<>();
+  private final Set<Path> collectedSources = ConcurrentHashMap.newKeySet();
 
   public static Builder builder() {
     return new Builder();
   }
 
-  private SourceCollector(Path root, Set<Path> existingSources, Set<Path> directoriesToIgnore, Set<Path> excludedFiles, boolean shouldCollectJavaAndKotlinSources) {
+  private SourceCollector(Path root, Set<Path> existingSources, Set<Path> directoriesToIgnore, Set<Path> excludedFiles, boolean shouldCollectJavaAndKotlinSources,
+    @Nullable AnalysisScope analysisScope, @Nullable GitFilter gitFilter, @Nullable ContentSniffer contentSniffer) {
     this.root = root;
-    this.existingSources = existingSources;
-    this.directoriesToIgnore = directoriesToIgnore;
-    this.excludedFiles = excludedFiles;
-    this.excludedExtensions = shouldCollectJavaAndKotlinSources ? EXCLUDED_EXTENSIONS_WITH_JAVA_AND_KOTLIN : EXCLUDED_EXTENSIONS_WITHOUT_JAVA_AND_KOTLIN;
+    this.existingSources = new HashSet<>(existingSources);
+    existingSources.forEach(existingSourceTree::add);
+    this.directoriesToIgnore = new HashSet<>(directoriesToIgnore);
+    this.excludedFiles = new HashSet<>(excludedFiles);
+    this.shouldCollectJavaAndKotlinSources = shouldCollectJavaAndKotlinSources;
+    this.excludedExtensions = shouldCollectJavaAndKotlinSources ? EXCLUDED_EXTENSIONS_WITH_JAVA_AND_KOTLIN_MATCHER : EXCLUDED_EXTENSIONS_WITHOUT_JAVA_AND_KOTLIN_MATCHER;
+    this.analysisScope = analysisScope == null || analysisScope.isEmpty() ? null : analysisScope;
+    this.gitFilter = gitFilter;
+    this.contentSniffer = contentSniffer;
   }
 
   @Override
   public FileVisitResult preVisitDirectory(Path path, BasicFileAttributes basicFileAttributes) {
-    boolean isHiddenAndTooFarDownTheTree = isHidden(path) && !isChildOrGrandChildOfRoot(path);
+    boolean isHidden = isHidden(path);
+    boolean isHiddenAndTooFarDownTheTree = isHidden && !isChildOrGrandChildOfRoot(path);
 
-    if (isHiddenAndTooFarDownTheTree || isExcludedDirectory(path) || isCoveredByExistingSources(path)) {
+    if (isHiddenAndTooFarDownTheTree || isExcludedDirectory(path) || isCoveredByExistingSources(path) || isOutOfScope(path) || isIgnoredByGit(path)) {
       return FileVisitResult.SKIP_SUBTREE;
     }
+    hiddenDirectories.put(path, isHidden);
     return FileVisitResult.CONTINUE;
   }
 
-  private static boolean isHidden(Path path) {
-    return StreamSupport.stream(path.spliterator(), true)
-      .anyMatch(token -> token.toString().startsWith("."));
+  /**
+   * A path is hidden when any of its segments starts with a dot. The parent of a path met during the walk has been
+   * entered before, so only the last segment has to be looked at.
+   */
+  private boolean isHidden(Path path) {
+    if (hasHiddenName(path)) {
+      return true;
+    }
+    Path parent = path.getParent();
+    if (parent == null) {
+      return false;
+    }
+    Boolean isParentHidden = hiddenDirectories.get(parent);
+    return isParentHidden != null ? isParentHidden : hasHiddenSegment(parent);
+  }
+
+  private static boolean hasHiddenName(Path path) {
+    Path fileName = path.getFileName();
+    return fileName != null && fileName.toString().startsWith(".");
+  }
+
+  private static boolean hasHiddenSegment(Path path) {
+    for (Path segment : path) {
+      if (segment.toString().startsWith(".")) {
+        return true;
+      }
+    }
+    return false;
   }
 
   private boolean isChildOrGrandChildOfRoot(Path path) {
@@ -182,28 +245,100 @@ public class SourceCollector implements FileVisitor<Path> {
   }
 
   private boolean isCoveredByExistingSources(Path path) {
-    return existingSources.contains(path);
+    return existingSourceTree.containsAncestorOf(path);
+  }
+
+  private boolean isOutOfScope(Path directory) {
+    return analysisScope != null && analysisScope.isExcludedDirectory(directory);
+  }
+
+  private boolean isIgnoredByGit(Path directory) {
+    return gitFilter != null && !gitFilter.enterDirectory(directory);
   }
 
   @Override
   public FileVisitResult visitFile(Path path, BasicFileAttributes basicFileAttributes) {
-    if (!basicFileAttributes.isSymbolicLink() && !excludedFiles.contains(path) && existingSources.stream().noneMatch(path::equals)) {
-      String lowerCaseFileName = path.getFileName().toString().toLowerCase(Locale.ROOT);
-
-      if (isHidden(path)) {
-        boolean isHiddenFileToCollect = INCLUDE_HIDDEN_FILES_KEYWORDS.stream().anyMatch(lowerCaseFileName::contains)
-          || INCLUDE_EXTENSIONS_FOR_HIDDEN_FILES.stream().anyMatch(lowerCaseFileName::endsWith);
-        if (isHiddenFileToCollect) {
-          collectedSources.add(path);
-        }
-      } else if (excludedExtensions.stream().noneMatch(lowerCaseFileName::endsWith)) {
-        collectedSources.add(path);
-      }
+    if (isCollectable(path, basicFileAttributes)) {
+      collectedSources.add(path);
     }
-
     return FileVisitResult.CONTINUE;
   }
 
+  /**
+   * Decides whether a file met during the walk is an additional source, without recording it.
+   */
+  boolean isCollectable(Path path, BasicFileAttributes basicFileAttributes) {
+    // Reads the file, so comes last
+    return matchesRules(path, basicFileAttributes) && (contentSniffer == null || contentSniffer.accept(path, basicFileAttributes));
+  }
+
+  /**
+   * Same as {@link #isCollectable(Path, BasicFileAttributes)}, without the checks of the {@link ContentSniffer}.
+   */
+  boolean matchesRules(Path path, BasicFileAttributes basicFileAttributes) {
+    if (basicFileAttributes.isSymbolicLink() || excludedFiles.contains(path) || existingSources.contains(path)) {
+      return false;
+    }
+    String lowerCaseFileName = path.getFileName().toString().toLowerCase(Locale.ROOT);
+    boolean collectable;
+    if (isHidden(path)) {
+      collectable = INCLUDE_HIDDEN_FILES_KEYWORDS_MATCHER.containsAny(lowerCaseFileName)
+        || INCLUDE_EXTENSIONS_FOR_HIDDEN_FILES_MATCHER.matches(lowerCaseFileName);
+    } else {
+      collectable = !excludedExtensions.matches(lowerCaseFileName);
+    }
+    return collectable
+      && (analysisScope == null || !analysisScope.isExcluded(path, SonarUtils.findProjectFileType(root, path)))
+      && (gitFilter == null || !gitFilter.isIgnoredFile(path));
+  }
+
+  @CheckForNull
+  ContentSniffer getContentSniffer() {
+    return contentSniffer;
+  }
+
+  /**
+   * Identifies the configuration of this collector. Two collectors with the same fingerprint take the same decisions
+   * for the same tree, which is what makes the results of a previous walk reusable.
+   */
+  String fingerprint() {
+    StringBuilder sb = new StringBuilder()
+      .append(root).append('\n')
+      .append(shouldCollectJavaAndKotlinSources).append('\n');
+    Stream.of(existingSources, directoriesToIgnore, excludedFiles).forEach(paths -> {
+      paths.stream().map(Path::toString).sorted().forEach(p -> sb.append(p).append(','));
+      sb.append('\n');
+    });
+    if (analysisScope != null) {
+      sb.append(analysisScope.fingerprint()).append('\n');
+    }
+    if (gitFilter != null) {
+      sb.append(gitFilter.fingerprint()).append('\n');
+    }
+    if (contentSniffer != null) {
+      sb.append(contentSniffer.fingerprint()).append('\n');
+    }
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+      return new BigInteger(1, digest).toString(16);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  Path getRoot() {
+    return root;
+  }
+
+  /**
+   * @return a stamp of the git ignore rules applying to a directory entered by this collector, or null when git is not
+   * used to filter the walk
+   */
+  @CheckForNull
+  String ignoreRulesStamp(Path directory) {
+    return gitFilter == null ? null : gitFilter.rulesStamp(directory);
+  }
+
   @Override
   public FileVisitResult visitFileFailed(Path path, IOException e) throws IOException {
     return null;
@@ -220,6 +355,9 @@ public class SourceCollector implements FileVisitor<Path> {
     private Set<Path> directoriesToIgnore = new HashSet<>();
     private Set<Path> excludedFiles = new HashSet<>();
     private boolean shouldCollectJavaAndKotlinSources = false;
+    private AnalysisScope analysisScope = null;
+    private GitFilter gitFilter = null;
+    private ContentSniffer contentSniffer = null;
 
     private Builder() { }
 
@@ -248,11 +386,35 @@ public class SourceCollector implements FileVisitor<Path> {
       return this;
     }
 
+    /**
+     * Skips the files and directories the scanner engine would exclude from the analysis, see {@link AnalysisScope}.
+     */
+    public Builder setAnalysisScope(@Nullable AnalysisScope analysisScope) {
+      this.analysisScope = analysisScope;
+      return this;
+    }
+
+    /**
+     * Prunes the walk with the ignore rules or the index of the git repository, see {@link GitFilter}.
+     */
+    public Builder setGitFilter(@Nullable GitFilter gitFilter) {
+      this.gitFilter = gitFilter;
+      return this;
+    }
+
+    /**
+     * Drops oversized and binary files, see {@link ContentSniffer}.
+     */
+    public Builder setContentSniffer(@Nullable ContentSniffer contentSniffer) {
+      this.contentSniffer = contentSniffer;
+      return this;
+    }
+
     public SourceCollector build() {
       if (root == null) {
         throw new IllegalStateException("Root path must be set");
       }
-      return new SourceCollector(root, existingSources, directoriesToIgnore, excludedFiles, shouldCollectJavaAndKotlinSources);
+      return new SourceCollector(root, existingSources, directoriesToIgnore, excludedFiles, shouldCollectJavaAndKotlinSources, analysisScope, gitFilter, contentSniffer);
     }
   }
 }
@@ -0,0 +1,174 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.sonarqube.gradle.ScanAllIndex.DirectoryEntry;
+import org.sonarqube.gradle.SonarUtils.InputFileType;
+
+/**
+ * Replaces the files collected by a {@link SourceTreeWalker} with their directory when the whole directory was
+ * collected, so that {@code sonar.sources} and {@code sonar.tests} list a few directories rather than every file.
+ * <p>
+ * The scanner engine indexes every file below a directory listed as a source, so a directory is only compacted when
+ * the engine would see exactly the collected files:
+ * <ul>
+ *   <li>every file below it was collected, with the same {@link InputFileType},</li>
+ *   <li>every directory below it was walked,</li>
+ *   <li>nothing below it is hidden, as the engine skips hidden files of listed directories,</li>
+ *   <li>it neither is, contains nor is contained in the base directory of another module, which the engine indexes
+ *   separately.</li>
+ * </ul>
+ */
+final class SourceCompactor {
+
+  private static final Logger LOGGER = Logging.getLogger(SourceCompactor.class);
+
+  private final Path root;
+  private final ScanAllIndex index;
+  private final Set<String> moduleDirectories = new HashSet<>();
+  private final Set<String> moduleAncestors = new HashSet<>();
+  private final Map<String, Summary> summaries = new HashMap<>();
+  private final Map<Path, InputFileType> compacted = new HashMap<>();
+
+  private SourceCompactor(Path root, ScanAllIndex index, Collection<Path> moduleDirectories) {
+    this.root = root.toAbsolutePath();
+    this.index = index;
+    for (Path moduleDirectory : moduleDirectories) {
+      Path absolute = moduleDirectory.toAbsolutePath();
+      if (!absolute.startsWith(this.root) || absolute.equals(this.root)) {
+        continue;
+      }
+      String relativePath = SonarPathPattern.toString(this.root.relativize(absolute));
+      this.moduleDirectories.add(relativePath);
+      for (int slash = relativePath.indexOf('/'); slash > 0; slash = relativePath.indexOf('/', slash + 1)) {
+        moduleAncestors.add(relativePath.substring(0, slash));
+      }
+    }
+  }
+
+  /**
+   * @param root              the root of the walk that produced the index
+   * @param moduleDirectories the base directories of the other modules
+   * @return the collected files and directories, with their type
+   */
+  static Map<Path, InputFileType> compact(Path root, ScanAllIndex index, Collection<Path> moduleDirectories) {
+    Map<Path, InputFileType> result = new SourceCompactor(root, index, moduleDirectories).compact();
+    LOGGER.debug("Compacted scanAll sources into {} paths", result.size());
+    return result;
+  }
+
+  private Map<Path, InputFileType> compact() {
+    DirectoryEntry rootEntry = index.get("");
+    if (rootEntry != null) {
+      // The root is the base directory of the module the sources are added to, it is never listed itself
+      emitContent(root, "", rootEntry, false);
+    }
+    return compacted;
+  }
+
+  private void emitContent(Path dir, String relativePath, DirectoryEntry entry, boolean inModule) {
+    entry.files.forEach((name, type) -> compacted.put(dir.resolve(name), type));
+    for (String name : entry.subdirectories) {
+      String subdirectoryRelativePath = relativePath.isEmpty() ? name : (relativePath + "/" + name);
+      DirectoryEntry subdirectory = index.get(subdirectoryRelativePath);
+      if (subdirectory != null) {
+        emit(dir.resolve(name), subdirectoryRelativePath, subdirectory, inModule || moduleDirectories.contains(subdirectoryRelativePath));
+      }
+    }
+  }
+
+  private void emit(Path dir, String relativePath, DirectoryEntry entry, boolean inModule) {
+    Summary summary = inModule || moduleAncestors.contains(relativePath) ? Summary.NOT_COMPACTABLE : summarize(relativePath, entry);
+    if (summary != Summary.NOT_COMPACTABLE && summary.type != null) {
+      compacted.put(dir, summary.type);
+    } else {
+      emitContent(dir, relativePath, entry, inModule);
+    }
+  }
+
+  /**
+   * Summaries are computed once per directory, as both a directory and its subdirectories may be considered.
+   *
+   * @return {@link Summary#NOT_COMPACTABLE} if the directory cannot be compacted, otherwise the type of all its files
+   */
+  private Summary summarize(String relativePath, DirectoryEntry entry) {
+    Summary summary = summaries.get(relativePath);
+    if (summary == null) {
+      summary = computeSummary(relativePath, entry);
+      summaries.put(relativePath, summary);
+    }
+    return summary;
+  }
+
+  private Summary computeSummary(String relativePath, DirectoryEntry entry) {
+    if (!entry.allFilesCollected || isHidden(relativePath)) {
+      return Summary.NOT_COMPACTABLE;
+    }
+    Summary summary = new Summary();
+    for (Map.Entry<String, InputFileType> file : entry.files.entrySet()) {
+      if (file.getKey().startsWith(".") || !summary.add(file.getValue())) {
+        return Summary.NOT_COMPACTABLE;
+      }
+    }
+    for (String name : entry.subdirectories) {
+      String subdirectoryRelativePath = relativePath + "/" + name;
+      DirectoryEntry subdirectory = index.get(subdirectoryRelativePath);
+      // A directory that was not walked was skipped, its files would be indexed by the engine
+      if (subdirectory == null || moduleDirectories.contains(subdirectoryRelativePath) || moduleAncestors.contains(subdirectoryRelativePath)) {
+        return Summary.NOT_COMPACTABLE;
+      }
+      Summary subdirectorySummary = summarize(subdirectoryRelativePath, subdirectory);
+      if (subdirectorySummary == Summary.NOT_COMPACTABLE || (subdirectorySummary.type != null && !summary.add(subdirectorySummary.type))) {
+        return Summary.NOT_COMPACTABLE;
+      }
+    }
+    return summary;
+  }
+
+  private static boolean isHidden(String relativePath) {
+    return relativePath.startsWith(".") || relativePath.contains("/.");
+  }
+
+  private static final class Summary {
+    private static final Summary NOT_COMPACTABLE = new Summary();
+
+    @CheckForNull
+    private InputFileType type;
+
+    /**
+     * @return false if the directory already has files of another type
+     */
+    private boolean add(InputFileType fileType) {
+      if (type == null) {
+        type = fileType;
+      }
+      return type == fileType;
+    }
+  }
+}
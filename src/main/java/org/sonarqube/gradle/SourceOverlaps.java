@@ -0,0 +1,407 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.sonarqube.gradle.properties.SonarProperty;
+
+/**
+ * Resolves the source and test paths shared by several modules, which the scanner engine would index twice.
+ * <ul>
+ *   <li>A path listed by several modules is kept in the module with the deepest base directory containing it, or the
+ *   first module listing it, and removed from the others.</li>
+ *   <li>A path inside a directory of another module is excluded from that module, with {@code sonar.exclusions} or
+ *   {@code sonar.test.exclusions} relative to its base directory. The exclusions the module inherits from its parents
+ *   are kept.</li>
+ *   <li>The exclusions of the root module apply to the whole project, so a directory of the root module is replaced
+ *   instead with the files and directories it contains, down to the paths of the other modules, which are left out.</li>
+ * </ul>
+ * The properties set by the user are not changed: the overlaps they are part of are only reported. Each path is compared
+ * with its ancestors only, found in a {@link PathSet}, so the pass is linear in the number of paths.
+ */
+final class SourceOverlaps {
+
+  private static final Logger LOGGER = Logging.getLogger(SourceOverlaps.class);
+
+  private static final List<String> SOURCE_PROPERTIES = List.of(SonarProperty.PROJECT_SOURCE_DIRS, SonarProperty.PROJECT_TEST_DIRS);
+
+  private SourceOverlaps() {
+    // Utility class
+  }
+
+  /**
+   * @return the number of overlapping paths that were removed or excluded
+   */
+  static int resolve(Map<String, String> properties) {
+    return resolve(properties, Set.of(), new FileStatusCache());
+  }
+
+  /**
+   * Same as {@link #resolve(Map)}, without changing the given user-defined properties and looking up the files in the
+   * given cache.
+   */
+  static int resolve(Map<String, String> properties, Set<String> userDefinedKeys, FileStatusCache fileStatus) {
+    List<Entry> entries = new ArrayList<>();
+    Map<Path, List<Entry>> entriesByPath = new LinkedHashMap<>();
+    for (Module module : modules(properties)) {
+      for (String property : SOURCE_PROPERTIES) {
+        String value = properties.get(module.key(property));
+        if (value == null || value.isBlank()) {
+          continue;
+        }
+        List<String> values = SonarUtils.splitAsCsv(value);
+        for (int i = 0; i < values.size(); i++) {
+          Path path = resolvePath(module, values.get(i));
+          if (path != null) {
+            Entry entry = new Entry(module, property, values, i, path);
+            entries.add(entry);
+            entriesByPath.computeIfAbsent(path, p -> new ArrayList<>()).add(entry);
+          }
+        }
+      }
+    }
+
+    int resolved = removeSharedPaths(entriesByPath, userDefinedKeys);
+    Map<String, Exclusions> exclusions = new LinkedHashMap<>();
+    Map<Entry, Set<Path>> nestedInRoot = new LinkedHashMap<>();
+    PathSet paths = new PathSet();
+    entries.stream().filter(entry -> !entry.removed).forEach(entry -> paths.add(entry.path));
+    for (Entry entry : entries) {
+      if (!entry.removed && paths.containsStrictAncestorOf(entry.path)) {
+        resolved += excludeFromAncestors(entry, entriesByPath, exclusions, nestedInRoot, userDefinedKeys, fileStatus);
+      }
+    }
+    nestedInRoot.forEach((container, nested) -> {
+      container.replacement = narrow(container.path, nested, fileStatus);
+      if (container.replacement == null) {
+        LOGGER.warn("{} of the root module contains the paths of other modules, but cannot be listed to leave them out", container.path);
+      }
+    });
+
+    rewriteValues(entries, properties);
+    exclusions.values().forEach(moduleExclusions -> {
+      Set<String> merged = new LinkedHashSet<>();
+      String inherited = moduleExclusions.module.inheritedValue(properties, moduleExclusions.property);
+      if (inherited != null && !inherited.isBlank()) {
+        merged.addAll(SonarUtils.splitAsCsv(inherited));
+      }
+      merged.addAll(moduleExclusions.patterns);
+      properties.put(moduleExclusions.module.key(moduleExclusions.property), SonarUtils.joinAsCsv(new ArrayList<>(merged)));
+    });
+    return resolved;
+  }
+
+  /**
+   * @return the modules of the properties, parents before their children
+   */
+  private static List<Module> modules(Map<String, String> properties) {
+    List<Module> modules = new ArrayList<>();
+    Deque<Module> pending = new ArrayDeque<>();
+    pending.add(new Module("", null, properties.get(SonarProperty.PROJECT_BASE_DIR)));
+    while (!pending.isEmpty()) {
+      Module module = pending.poll();
+      modules.add(module);
+      String children = properties.get(module.key(SonarProperty.MODULES));
+      if (children == null) {
+        continue;
+      }
+      for (String id : children.split(",")) {
+        if (!id.isBlank()) {
+          String prefix = module.prefix.isEmpty() ? id.trim() : (module.prefix + "." + id.trim());
+          pending.add(new Module(prefix, module, properties.get(prefix + "." + SonarProperty.PROJECT_BASE_DIR)));
+        }
+      }
+    }
+    return modules;
+  }
+
+  @CheckForNull
+  private static Path resolvePath(Module module, String value) {
+    String trimmed = value.trim();
+    if (trimmed.isEmpty() || SonarTask.containsWildcard(trimmed)) {
+      return null;
+    }
+    try {
+      Path path = Path.of(trimmed);
+      Path baseDir = module.baseDir();
+      if (!path.isAbsolute() && baseDir != null) {
+        path = baseDir.resolve(path);
+      }
+      return path.toAbsolutePath().normalize();
+    } catch (InvalidPathException e) {
+      return null;
+    }
+  }
+
+  private static int removeSharedPaths(Map<Path, List<Entry>> entriesByPath, Set<String> userDefinedKeys) {
+    int removed = 0;
+    for (Map.Entry<Path, List<Entry>> shared : entriesByPath.entrySet()) {
+      List<Entry> sameEntries = shared.getValue();
+      if (sameEntries.stream().map(entry -> entry.module).distinct().count() < 2) {
+        continue;
+      }
+      Module owner = owner(shared.getKey(), sameEntries);
+      for (Entry entry : sameEntries) {
+        if (entry.module == owner) {
+          continue;
+        }
+        String key = entry.module.key(entry.property);
+        if (userDefinedKeys.contains(key)) {
+          LOGGER.warn("{} is analyzed by both {} and {}, but is not removed from {} as {} is set explicitly", shared.getKey(), owner.name(),
+            entry.module.name(), entry.module.name(), key);
+        } else {
+          LOGGER.warn("{} is analyzed by both {} and {}, removing it from {}", shared.getKey(), owner.name(), entry.module.name(), entry.module.name());
+          entry.removed = true;
+          removed++;
+        }
+      }
+    }
+    return removed;
+  }
+
+  private static Module owner(Path path, List<Entry> sameEntries) {
+    Module owner = sameEntries.get(0).module;
+    int ownerDepth = -1;
+    for (Entry entry : sameEntries) {
+      Path baseDir = entry.module.baseDir();
+      if (baseDir != null && path.startsWith(baseDir) && baseDir.getNameCount() > ownerDepth) {
+        owner = entry.module;
+        ownerDepth = baseDir.getNameCount();
+      }
+    }
+    return owner;
+  }
+
+  private static int excludeFromAncestors(Entry entry, Map<Path, List<Entry>> entriesByPath, Map<String, Exclusions> exclusions,
+    Map<Entry, Set<Path>> nestedInRoot, Set<String> userDefinedKeys, FileStatusCache fileStatus) {
+    int excluded = 0;
+    for (Path ancestor = entry.path.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+      for (Entry container : entriesByPath.getOrDefault(ancestor, List.of())) {
+        if (container.removed || container.module == entry.module) {
+          continue;
+        }
+        String property = SonarProperty.PROJECT_SOURCE_DIRS.equals(container.property) ? SonarProperty.EXCLUSIONS : SonarProperty.TEST_EXCLUSIONS;
+        // The root module is narrowed instead of excluded from, so its exclusions are not changed
+        Stream<String> changedProperties = container.module.isRoot() ? Stream.of(container.property) : Stream.of(container.property, property);
+        String explicitKey = changedProperties
+          .map(container.module::key)
+          .filter(userDefinedKeys::contains)
+          .findFirst()
+          .orElse(null);
+        if (explicitKey != null) {
+          LOGGER.warn("{} of {} is inside {} of {}, but is not excluded from {} as {} is set explicitly",
+            entry.path, entry.module.name(), ancestor, container.module.name(), container.module.name(), explicitKey);
+          continue;
+        }
+        if (container.module.isRoot()) {
+          if (nestedInRoot.computeIfAbsent(container, c -> new LinkedHashSet<>()).add(entry.path)) {
+            LOGGER.warn("{} of {} is inside {} of {}, replacing {} with the other paths it contains", entry.path, entry.module.name(), ancestor,
+              container.module.name(), ancestor);
+            excluded++;
+          }
+          continue;
+        }
+        String pattern = exclusionPattern(container.module, entry.path, fileStatus);
+        if (pattern == null) {
+          LOGGER.warn("{} of {} is inside {} of {}, but cannot be excluded as it is outside of the base directory of {}",
+            entry.path, entry.module.name(), ancestor, container.module.name(), container.module.name());
+          continue;
+        }
+        Exclusions moduleExclusions = exclusions.computeIfAbsent(container.module.key(property), key -> new Exclusions(container.module, property));
+        if (moduleExclusions.patterns.add(pattern)) {
+          LOGGER.warn("{} of {} is inside {} of {}, excluding it from {}", entry.path, entry.module.name(), ancestor, container.module.name(), container.module.name());
+          excluded++;
+        }
+      }
+    }
+    return excluded;
+  }
+
+  /**
+   * @return the pattern matching the given path relative to the base directory of the module, or {@code null} if the
+   * path is not inside the base directory
+   */
+  @CheckForNull
+  private static String exclusionPattern(Module module, Path path, FileStatusCache fileStatus) {
+    Path baseDir = module.baseDir();
+    if (baseDir == null || !path.startsWith(baseDir) || path.equals(baseDir)) {
+      return null;
+    }
+    String relative = baseDir.relativize(path).toString().replace('\\', '/');
+    return fileStatus.isDirectory(path.toFile()) ? (relative + "/**") : relative;
+  }
+
+  /**
+   * @return the files and directories in the given directory, with the directories containing one of the nested paths
+   * replaced by their own content, or {@code null} if one of the directories cannot be listed
+   */
+  @CheckForNull
+  private static List<String> narrow(Path directory, Set<Path> nested, FileStatusCache fileStatus) {
+    List<String> names = fileStatus.list(directory.toFile());
+    if (names == null) {
+      return null;
+    }
+    List<String> kept = new ArrayList<>();
+    for (String name : names.stream().sorted().collect(Collectors.toList())) {
+      Path child = directory.resolve(name);
+      if (nested.contains(child)) {
+        continue;
+      }
+      if (nested.stream().anyMatch(path -> path.startsWith(child))) {
+        List<String> narrowed = narrow(child, nested, fileStatus);
+        if (narrowed == null) {
+          return null;
+        }
+        kept.addAll(narrowed);
+      } else {
+        kept.add(child.toString());
+      }
+    }
+    return kept;
+  }
+
+  private static void rewriteValues(List<Entry> entries, Map<String, String> properties) {
+    Map<String, Map<Integer, Entry>> changedEntries = new LinkedHashMap<>();
+    for (Entry entry : entries) {
+      if (entry.removed || entry.replacement != null) {
+        changedEntries.computeIfAbsent(entry.module.key(entry.property), key -> new HashMap<>()).put(entry.index, entry);
+      }
+    }
+    changedEntries.forEach((key, changed) -> {
+      List<String> values = changed.values().iterator().next().values;
+      List<String> kept = new ArrayList<>();
+      for (int i = 0; i < values.size(); i++) {
+        Entry entry = changed.get(i);
+        if (entry == null) {
+          kept.add(values.get(i));
+        } else if (!entry.removed) {
+          kept.addAll(entry.replacement);
+        }
+      }
+      properties.put(key, SonarUtils.joinAsCsv(kept));
+    });
+  }
+
+  private static final class Module {
+    private final String prefix;
+    @Nullable
+    private final Module parent;
+    @Nullable
+    private final Path baseDir;
+
+    private Module(String prefix, @Nullable Module parent, @Nullable String baseDir) {
+      this.prefix = prefix;
+      this.parent = parent;
+      this.baseDir = baseDir == null ? parentBaseDir(parent) : normalize(baseDir, parent);
+    }
+
+    @CheckForNull
+    private static Path parentBaseDir(@Nullable Module parent) {
+      return parent == null ? null : parent.baseDir;
+    }
+
+    @CheckForNull
+    private static Path normalize(String baseDir, @Nullable Module parent) {
+      try {
+        return Path.of(baseDir).toAbsolutePath().normalize();
+      } catch (InvalidPathException e) {
+        return parentBaseDir(parent);
+      }
+    }
+
+    private String key(String property) {
+      return prefix.isEmpty() ? property : (prefix + "." + property);
+    }
+
+    private boolean isRoot() {
+      return parent == null;
+    }
+
+    private String name() {
+      return prefix.isEmpty() ? "the root module" : ("module " + prefix);
+    }
+
+    @CheckForNull
+    private Path baseDir() {
+      return baseDir;
+    }
+
+    /**
+     * @return the value of the given property for this module, or for the closest parent defining it
+     */
+    @CheckForNull
+    private String inheritedValue(Map<String, String> properties, String property) {
+      for (Module module = this; module != null; module = module.parent) {
+        String value = properties.get(module.key(property));
+        if (value != null) {
+          return value;
+        }
+      }
+      return null;
+    }
+  }
+
+  private static final class Exclusions {
+    private final Module module;
+    private final String property;
+    private final Set<String> patterns = new LinkedHashSet<>();
+
+    private Exclusions(Module module, String property) {
+      this.module = module;
+      this.property = property;
+    }
+  }
+
+  private static final class Entry {
+    private final Module module;
+    private final String property;
+    private final List<String> values;
+    private final int index;
+    private final Path path;
+    private boolean removed;
+    // The paths listed instead of this directory of the root module
+    @Nullable
+    private List<String> replacement;
+
+    private Entry(Module module, String property, List<String> values, int index, Path path) {
+      this.module = module;
+      this.property = property;
+      this.values = values;
+      this.index = index;
+      this.path = path;
+    }
+  }
+}
@@ -0,0 +1,309 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.sonarqube.gradle.ContentSniffer.Verdict;
+import org.sonarqube.gradle.ScanAllIndex.DirectoryEntry;
+import org.sonarqube.gradle.ScanAllIndex.SniffedFile;
+import org.sonarqube.gradle.SonarUtils.InputFileType;
+
+/**
+ * Walks a project tree and applies the rules of a {@link SourceCollector} to it, classifying every collected file as
+ * {@link InputFileType#MAIN} or {@link InputFileType#TEST}.
+ * <p>
+ * When the index of a previous walk is provided, directories whose modification stamp did not change since are not
+ * listed again: their collected files and subdirectories are taken from the index. A directory stamp changes when
+ * entries are added, removed or renamed in it, which is all the walk depends on. Directories modified shortly before
+ * the previous walk started are always listed again, as their stamp may not reflect changes made in the same tick.
+ * When the collector filters the walk with git, directories are also listed again when the ignore rules applying to
+ * them changed. The files checked by a {@link ContentSniffer} are checked again when their size or modification time
+ * changed, as editing a file does not change the stamp of its directory.
+ * <p>
+ * With a parallelism greater than one, the walk runs on a dedicated {@link ForkJoinPool}: top-level and second-level
+ * directories are forked as separate tasks, so idle workers steal whole subtrees, and deeper directories are walked
+ * by the task owning their ancestor. The result is a set of paths, the order of the walk does not matter.
+ */
+public class SourceTreeWalker {
+
+  private static final Logger LOGGER = Logging.getLogger(SourceTreeWalker.class);
+  private static final long TIMESTAMP_RESOLUTION_MILLIS = 2_000;
+  /**
+   * Subdirectories of directories above this depth are forked, the root being at depth 0.
+   */
+  private static final int FORK_DEPTH = 2;
+
+  private final SourceCollector collector;
+  @Nullable
+  private final ScanAllIndex previousIndex;
+  private final int parallelism;
+  private final Path rootAbsolutePath;
+  private final Map<Path, InputFileType> collected = new ConcurrentHashMap<>();
+  private final AtomicInteger reusedDirectories = new AtomicInteger();
+  private ScanAllIndex index;
+
+  public SourceTreeWalker(SourceCollector collector, @Nullable ScanAllIndex previousIndex) {
+    this(collector, previousIndex, 1);
+  }
+
+  public SourceTreeWalker(SourceCollector collector, @Nullable ScanAllIndex previousIndex, int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be at least 1, got " + parallelism);
+    }
+    this.collector = collector;
+    this.previousIndex = previousIndex;
+    this.parallelism = parallelism;
+    this.rootAbsolutePath = collector.getRoot().toAbsolutePath();
+  }
+
+  /**
+   * Walks the tree below the collector root.
+   *
+   * @return the collected files, with their type
+   */
+  public Map<Path, InputFileType> walk() throws IOException {
+    Path root = collector.getRoot();
+    index = new ScanAllIndex(collector.fingerprint(), System.currentTimeMillis());
+    collected.clear();
+    reusedDirectories.set(0);
+
+    DirectoryTask rootTask = new DirectoryTask(root, "", Files.readAttributes(root, BasicFileAttributes.class), 0);
+    if (parallelism == 1) {
+      rootTask.compute();
+    } else {
+      ForkJoinPool pool = new ForkJoinPool(parallelism);
+      try {
+        pool.invoke(rootTask);
+      } finally {
+        pool.shutdown();
+      }
+    }
+
+    if (previousIndex != null) {
+      LOGGER.info("Reused the scanAll index for {} of {} directories", reusedDirectories.get(), index.size());
+    }
+    return collected;
+  }
+
+  /**
+   * @return the index describing the last walk, to be persisted for the next one
+   */
+  public ScanAllIndex getIndex() {
+    return index;
+  }
+
+  private void walkDirectory(Path dir, String relativePath, BasicFileAttributes attributes, int depth) {
+    if (collector.preVisitDirectory(dir, attributes) != FileVisitResult.CONTINUE) {
+      return;
+    }
+
+    long lastModified = attributes.lastModifiedTime().toMillis();
+    String ignoreRules = collector.ignoreRulesStamp(dir);
+    DirectoryEntry cached = previousIndex == null ? null : previousIndex.get(relativePath);
+    DirectoryEntry entry = null;
+    if (cached != null && cached.lastModified == lastModified && isStable(lastModified) && Objects.equals(cached.ignoreRules, ignoreRules)) {
+      entry = cached.sniffedFiles.isEmpty() ? cached : checkSniffedFilesAgain(dir, cached);
+    }
+    if (entry != null) {
+      reusedDirectories.incrementAndGet();
+      entry.files.forEach((name, type) -> collected.put(dir.resolve(name), type));
+    } else {
+      entry = listDirectory(dir, lastModified, ignoreRules);
+    }
+    index.put(relativePath, entry);
+
+    boolean fork = parallelism > 1 && depth < FORK_DEPTH;
+    List<DirectoryTask> forked = new ArrayList<>();
+    for (String name : entry.subdirectories) {
+      Path subdirectory = dir.resolve(name);
+      String subdirectoryRelativePath = relativePath.isEmpty() ? name : (relativePath + "/" + name);
+      try {
+        BasicFileAttributes subdirectoryAttributes = Files.readAttributes(subdirectory, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        if (!subdirectoryAttributes.isDirectory()) {
+          continue;
+        }
+        DirectoryTask task = new DirectoryTask(subdirectory, subdirectoryRelativePath, subdirectoryAttributes, depth + 1);
+        if (fork) {
+          task.fork();
+          forked.add(task);
+        } else {
+          task.compute();
+        }
+      } catch (IOException e) {
+        LOGGER.debug("Could not read directory {}", subdirectory, e);
+      }
+    }
+    forked.forEach(ForkJoinTask::join);
+  }
+
+  /**
+   * @return whether a stamp is old enough, compared to the previous walk, to tell that nothing changed since
+   */
+  private boolean isStable(long lastModified) {
+    return lastModified < previousIndex.getTimestamp() - TIMESTAMP_RESOLUTION_MILLIS;
+  }
+
+  /**
+   * @return the entry of an unchanged directory with the files checked by the {@link ContentSniffer} checked again when
+   * they changed, or {@code null} if one of them cannot be read and the directory must be listed again
+   */
+  @CheckForNull
+  private DirectoryEntry checkSniffedFilesAgain(Path dir, DirectoryEntry cached) {
+    ContentSniffer contentSniffer = Objects.requireNonNull(collector.getContentSniffer());
+    DirectoryEntry entry = new DirectoryEntry(cached.lastModified, cached.ignoreRules);
+    entry.allFilesMatched = cached.allFilesMatched;
+    entry.subdirectories.addAll(cached.subdirectories);
+    entry.files.putAll(cached.files);
+    boolean allSniffedFilesAccepted = true;
+    for (Map.Entry<String, SniffedFile> sniffed : cached.sniffedFiles.entrySet()) {
+      String name = sniffed.getKey();
+      SniffedFile previous = sniffed.getValue();
+      Path file = dir.resolve(name);
+      SniffedFile current;
+      try {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        if (attributes.size() == previous.size && lastModified == previous.lastModified && isStable(lastModified)) {
+          contentSniffer.count(previous.verdict);
+          current = previous;
+        } else {
+          current = new SniffedFile(attributes.size(), lastModified, contentSniffer.sniff(file, attributes));
+        }
+      } catch (IOException e) {
+        LOGGER.debug("Could not read file {}", file, e);
+        return null;
+      }
+      entry.sniffedFiles.put(name, current);
+      if (current.verdict == Verdict.ACCEPTED) {
+        entry.files.put(name, SonarUtils.findProjectFileType(rootAbsolutePath, file.toAbsolutePath()));
+      } else {
+        entry.files.remove(name);
+        allSniffedFilesAccepted = false;
+      }
+    }
+    entry.allFilesCollected = entry.allFilesMatched && allSniffedFilesAccepted;
+    return entry;
+  }
+
+  private DirectoryEntry listDirectory(Path dir, long lastModified, @Nullable String ignoreRules) {
+    boolean complete = true;
+    boolean allFilesCollected = true;
+    boolean allFilesMatched = true;
+    Map<String, InputFileType> files = new HashMap<>();
+    Map<String, SniffedFile> sniffedFiles = new HashMap<>();
+    List<String> subdirectories = new ArrayList<>();
+    try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+      for (Path child : children) {
+        Child kind = visitChild(child, subdirectories, files, sniffedFiles);
+        complete &= kind != Child.UNREADABLE;
+        allFilesCollected &= kind == Child.DIRECTORY || kind == Child.COLLECTED_FILE;
+        allFilesMatched &= kind == Child.DIRECTORY || kind == Child.COLLECTED_FILE || kind == Child.SNIFFED_OUT_FILE;
+      }
+    } catch (IOException e) {
+      LOGGER.debug("Could not list directory {}", dir, e);
+      complete = false;
+    }
+    // An incomplete listing must not be reused by the next walk
+    DirectoryEntry entry = new DirectoryEntry(complete ? lastModified : -1, ignoreRules);
+    entry.allFilesCollected = complete && allFilesCollected;
+    entry.allFilesMatched = complete && allFilesMatched;
+    entry.subdirectories.addAll(subdirectories);
+    entry.files.putAll(files);
+    entry.sniffedFiles.putAll(sniffedFiles);
+    files.forEach((name, type) -> collected.put(dir.resolve(name), type));
+    return entry;
+  }
+
+  private Child visitChild(Path child, List<String> subdirectories, Map<String, InputFileType> files, Map<String, SniffedFile> sniffedFiles) {
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+      String name = child.getFileName().toString();
+      if (attributes.isDirectory()) {
+        subdirectories.add(name);
+        return Child.DIRECTORY;
+      } else if (!collector.matchesRules(child, attributes)) {
+        return Child.OTHER_FILE;
+      }
+      ContentSniffer contentSniffer = collector.getContentSniffer();
+      if (contentSniffer != null) {
+        Verdict verdict = contentSniffer.sniff(child, attributes);
+        sniffedFiles.put(name, new SniffedFile(attributes.size(), attributes.lastModifiedTime().toMillis(), verdict));
+        if (verdict != Verdict.ACCEPTED) {
+          return Child.SNIFFED_OUT_FILE;
+        }
+      }
+      files.put(name, SonarUtils.findProjectFileType(rootAbsolutePath, child.toAbsolutePath()));
+      return Child.COLLECTED_FILE;
+    } catch (IOException e) {
+      LOGGER.debug("Could not read file {}", child, e);
+      return Child.UNREADABLE;
+    }
+  }
+
+  private enum Child {
+    DIRECTORY,
+    COLLECTED_FILE,
+    // Matching the rules of the collector, but dropped by its content sniffer
+    SNIFFED_OUT_FILE,
+    OTHER_FILE,
+    UNREADABLE
+  }
+
+  private final class DirectoryTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Path dir;
+    private final String relativePath;
+    private final transient BasicFileAttributes attributes;
+    private final int depth;
+
+    private DirectoryTask(Path dir, String relativePath, BasicFileAttributes attributes, int depth) {
+      this.dir = dir;
+      this.relativePath = relativePath;
+      this.attributes = attributes;
+      this.depth = depth;
+    }
+
+    @Override
+    protected void compute() {
+      walkDirectory(dir, relativePath, attributes, depth);
+    }
+  }
+}
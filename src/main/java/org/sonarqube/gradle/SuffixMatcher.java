@@ -0,0 +1,67 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tells whether a string ends with any of a fixed set of suffixes.
+ * <p>
+ * The suffixes are stored reversed in a trie, so a lookup reads the candidate backwards once, stopping at the first
+ * complete suffix or at the first character no suffix continues with, whatever the number of suffixes.
+ */
+final class SuffixMatcher {
+
+  private final Node root = new Node();
+
+  SuffixMatcher(Collection<String> suffixes) {
+    for (String suffix : suffixes) {
+      Node node = root;
+      for (int i = suffix.length() - 1; i >= 0; i--) {
+        node = node.children.computeIfAbsent(suffix.charAt(i), c -> new Node());
+      }
+      node.terminal = true;
+    }
+  }
+
+  boolean matches(String value) {
+    Node node = root;
+    if (node.terminal) {
+      return true;
+    }
+    for (int i = value.length() - 1; i >= 0; i--) {
+      node = node.children.get(value.charAt(i));
+      if (node == null) {
+        return false;
+      }
+      if (node.terminal) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static final class Node {
+    private final Map<Character, Node> children = new HashMap<>();
+    private boolean terminal;
+  }
+}
@@ -19,8 +19,11 @@
  */
 package org.sonarqube.gradle.properties;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 
 /**
@@ -31,6 +34,16 @@ import javax.annotation.Nullable;
 public class SonarProperty {
   public static final String SKIP = "sonar.skip";
   public static final String GRADLE_SCAN_ALL = "sonar.gradle.scanAll";
+  public static final String GRADLE_SCAN_ALL_INCREMENTAL = "sonar.gradle.scanAll.incremental";
+  public static final String GRADLE_SCAN_ALL_PARALLELISM = "sonar.gradle.scanAll.parallelism";
+  public static final String GRADLE_SCAN_ALL_GIT = "sonar.gradle.scanAll.git";
+  public static final String GRADLE_SCAN_ALL_COMPACT = "sonar.gradle.scanAll.compact";
+  public static final String GRADLE_SCAN_ALL_SKIP_BINARY_FILES = "sonar.gradle.scanAll.skipBinaryFiles";
+  public static final String GRADLE_SCAN_ALL_MAX_FILE_SIZE = "sonar.gradle.scanAll.maxFileSize";
+  public static final String GRADLE_RESOLVER_PARALLELISM = "sonar.gradle.resolver.parallelism";
+  public static final String GRADLE_LIBRARIES_DEDUPLICATE = "sonar.gradle.libraries.deduplicate";
+  public static final String GRADLE_LIBRARIES_SHRINK = "sonar.gradle.libraries.shrink";
+  public static final String GRADLE_RESOLVE_SOURCE_OVERLAPS = "sonar.gradle.resolveSourceOverlaps";
   public static final String VERBOSE = "sonar.verbose";
 
   // Project structure
@@ -46,6 +59,10 @@ public class SonarProperty {
   // Sources and tests
   public static final String PROJECT_SOURCE_DIRS = "sonar.sources";
   public static final String PROJECT_TEST_DIRS = "sonar.tests";
+  public static final String INCLUSIONS = "sonar.inclusions";
+  public static final String EXCLUSIONS = "sonar.exclusions";
+  public static final String TEST_INCLUSIONS = "sonar.test.inclusions";
+  public static final String TEST_EXCLUSIONS = "sonar.test.exclusions";
   public static final String SOURCE_ENCODING = "sonar.sourceEncoding";
 
   // Java configuration
@@ -96,6 +113,16 @@ public class SonarProperty {
   private static final Set<String> ALL_SONAR_PROPERTIES = Set.of(
     SKIP,
     GRADLE_SCAN_ALL,
+    GRADLE_SCAN_ALL_INCREMENTAL,
+    GRADLE_SCAN_ALL_PARALLELISM,
+    GRADLE_SCAN_ALL_GIT,
+    GRADLE_SCAN_ALL_COMPACT,
+    GRADLE_SCAN_ALL_SKIP_BINARY_FILES,
+    GRADLE_SCAN_ALL_MAX_FILE_SIZE,
+    GRADLE_RESOLVER_PARALLELISM,
+    GRADLE_LIBRARIES_DEDUPLICATE,
+    GRADLE_LIBRARIES_SHRINK,
+    GRADLE_RESOLVE_SOURCE_OVERLAPS,
     VERBOSE,
     PROJECT_KEY,
     MODULE_KEY,
@@ -107,6 +134,10 @@ public class SonarProperty {
     WORKING_DIRECTORY,
     PROJECT_SOURCE_DIRS,
     PROJECT_TEST_DIRS,
+    INCLUSIONS,
+    EXCLUSIONS,
+    TEST_INCLUSIONS,
+    TEST_EXCLUSIONS,
     SOURCE_ENCODING,
     JAVA_SOURCE,
     JAVA_TARGET,
@@ -127,6 +158,12 @@ public class SonarProperty {
     BINARIES
   );
 
+  /**
+   * The properties above by the part of their name after the last dot, so that parsing a key only compares it with the
+   * few properties ending like it.
+   */
+  private static final Map<String, List<String>> PROPERTIES_BY_LAST_SEGMENT = ALL_SONAR_PROPERTIES.stream()
+    .collect(Collectors.groupingBy(SonarProperty::lastSegment));
 
   /**
    * if subproject is null then the property belong to the root project.
@@ -141,6 +178,7 @@ public class SonarProperty {
    * {@code parse(prop.toString()).equals(prop)} is always true
    * <p>
    * Note, module names can also contain dots. The only way to parse a property is to verify if it has as suffix one of the properties above.
+   * None of them is a suffix of another one, so there is at most one match.
    *
    * @param value a string that respects the property format
    * @return parsed property or empty if parsing failed
@@ -150,19 +188,26 @@ public class SonarProperty {
       return Optional.empty();
     }
 
-    for (String prop : ALL_SONAR_PROPERTIES) {
+    List<String> candidates = PROPERTIES_BY_LAST_SEGMENT.get(lastSegment(value));
+    if (candidates == null) {
+      return Optional.empty();
+    }
+    for (String prop : candidates) {
       if (value.equals(prop)) {
         return Optional.of(new SonarProperty("", prop));
-      } else if (value.endsWith("." + prop)) {
-        String module = value.substring(0, value.length() - prop.length() - 1);
-        if (!module.isEmpty()) {
-          return Optional.of(new SonarProperty(module, prop));
-        }
+      }
+      int moduleLength = value.length() - prop.length() - 1;
+      if (moduleLength > 0 && value.endsWith(prop) && value.charAt(moduleLength) == '.') {
+        return Optional.of(new SonarProperty(value.substring(0, moduleLength), prop));
       }
     }
     return Optional.empty();
   }
 
+  private static String lastSegment(String key) {
+    return key.substring(key.lastIndexOf('.') + 1);
+  }
+
   public static SonarProperty rootProjectProperty(String property) {
     return new SonarProperty(null, property);
   }
@@ -901,6 +901,57 @@ class FunctionalTests extends Specification {
      assert run2.getOutput().contains("':sonar' is not up-to-date")
    }
 
+   def "sonarResolver output is loaded from the build cache in a relocated project"() {
+     given:
+     def cacheDir = projectDir.resolve("build-cache")
+     def originalDir = projectDir.resolve("original")
+     def relocatedDir = projectDir.resolve("relocated")
+     [originalDir, relocatedDir].each { dir ->
+       Files.createDirectories(dir)
+       dir.resolve('settings.gradle') << """
+          rootProject.name = 'relocatable'
+          buildCache {
+              local {
+                  directory = '${cacheDir.toUri()}'
+              }
+          }
+          """
+       dir.resolve('build.gradle') << """
+          plugins {
+              id 'org.sonarqube'
+              id 'java'
+          }
+
+          dependencies {
+              compileOnly files('libs/compile-only.jar')
+          }
+          """
+       writeJar(dir.resolve("libs/compile-only.jar"), "CompileOnly.txt", "compile classpath")
+     }
+
+     when:
+     def original = GradleRunner.create()
+       .withProjectDir(originalDir.toFile())
+       .forwardOutput()
+       .withArguments('sonarResolver', '--build-cache')
+       .withPluginClasspath()
+       .build()
+     def relocated = GradleRunner.create()
+       .withProjectDir(relocatedDir.toFile())
+       .forwardOutput()
+       .withArguments('sonar', '--build-cache', '-Dsonar.scanner.internal.dumpToFile=' + outFile.toAbsolutePath())
+       .withPluginClasspath()
+       .build()
+
+     then:
+     assert original.task(":sonarResolver").getOutcome() == SUCCESS
+     assert relocated.task(":sonarResolver").getOutcome() == TaskOutcome.FROM_CACHE
+     def props = new Properties()
+     props.load(outFile.newDataInputStream())
+     assertThat(props.getProperty("sonar.java.libraries")).contains(relocatedDir.resolve("libs/compile-only.jar").toString())
+     assertThat(props.getProperty("sonar.java.libraries")).doesNotContain(originalDir.toString())
+   }
+
    def "sonarResolver is not up to date when compile classpath changes"() {
      given:
      settingsFile << "rootProject.name = 'java-task-toolchains'"
@@ -19,7 +19,6 @@
  */
 package org.sonarqube.gradle
 
-import groovy.json.JsonSlurper
 import org.gradle.testkit.runner.GradleRunner
 import org.gradle.testkit.runner.TaskOutcome
 import spock.lang.Requires
@@ -130,9 +129,20 @@ class LegacyAndroidConfigIT extends Specification {
         then: "sonarResolver task is successful"
         result.task(":sonarResolver").outcome == TaskOutcome.SUCCESS
 
-        when: "Read properties from where sonarResolver actually writes them (JSON format)"
+        when: "run sonarResolver task again"
+        def secondResult = GradleRunner.create()
+          .withProjectDir(projectDir.toFile())
+          .forwardOutput()
+          .withArguments([useConfigCache ? '--configuration-cache' : null, '--stacktrace', ':sonarResolver'].findAll { it != null })
+          .withPluginClasspath(getPluginClasspathWithAndroid())
+          .build()
+
+        then: "the legacy Android libraries are tracked, so sonarResolver task is up to date"
+        secondResult.task(":sonarResolver").outcome == TaskOutcome.UP_TO_DATE
+
+        when: "Read properties from where sonarResolver actually writes them"
         def propertiesFile = projectDir.resolve('build').resolve('sonar-resolver').resolve('properties').toFile()
-        def json = new JsonSlurper().parse(propertiesFile)
+        def json = ResolutionSerializer.read(propertiesFile).get()
 
         then: "properties file exists and contains expected values"
         propertiesFile.exists()
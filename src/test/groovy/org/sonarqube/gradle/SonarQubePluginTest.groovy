@@ -868,6 +868,30 @@ class SonarQubePluginTest extends Specification {
     mustRunAfterTasks(sonarTask).containsAll(["root:test", "root:compileJava", "root:compileTestJava"])
   }
 
+  def "registers a single aggregated resolver task when the aggregated resolution is enabled"() {
+    def rootProject = ProjectBuilder.builder().withName("root").build()
+    def subproject = ProjectBuilder.builder().withName("sub").withParent(rootProject).build()
+    rootProject.pluginManager.apply(JavaPlugin)
+    subproject.pluginManager.apply(JavaPlugin)
+    rootProject.extensions.extraProperties.set(SonarAggregatedResolverTask.AGGREGATE_PROPERTY, "true")
+
+    when:
+    rootProject.pluginManager.apply(SonarQubePlugin)
+
+    then:
+    rootProject.tasks.findByName(SonarResolverTask.TASK_NAME) == null
+    subproject.tasks.findByName(SonarResolverTask.TASK_NAME) == null
+
+    def sonarTask = rootProject.tasks.sonar
+    dependsOnTasks(sonarTask) == [SonarAggregatedResolverTask.TASK_NAME]
+    sonarTask.resolverFiles == [rootProject.tasks.sonarAggregatedResolver.outputFile] as Set
+
+    def resolverTask = rootProject.tasks.sonarAggregatedResolver as SonarAggregatedResolverTask
+    resolverTask.projects*.projectName*.get() == [":", ":sub"]
+    resolverTask.projects*.topLevelProject*.get() == [true, false]
+    mustRunAfterTasks(resolverTask).containsAll(["root:compileJava", "root:compileTestJava", "sub:compileJava", "sub:compileTestJava"])
+  }
+
   private List<String> mustRunAfterTasks(Task sonarTask) {
     sonarTask.getMustRunAfter().getDependencies(sonarTask)
       .stream()
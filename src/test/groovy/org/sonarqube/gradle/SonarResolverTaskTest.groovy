@@ -54,4 +54,53 @@ class SonarResolverTaskTest extends Specification {
     properties.mainLibraries.isEmpty()
     properties.testLibraries == [testLibrary.absolutePath]
   }
+
+  def "tracks the paths of existing classpath entries instead of their content"() {
+    given:
+    def project = ProjectBuilder.builder().withProjectDir(projectDir.toFile()).build()
+    def task = project.tasks.create(SonarResolverTask.TASK_NAME, SonarResolverTask)
+    def library = Files.createFile(projectDir.resolve("library.jar")).toFile()
+    def missing = projectDir.resolve("missing.jar").toFile()
+    task.setCompileClasspath(project.provider { project.files(library, missing) })
+    task.setTestCompileClasspath(project.provider { project.files() })
+    task.testLibraries.from(missing)
+
+    expect:
+    task.compileClasspathPaths == [library.absolutePath]
+    task.testCompileClasspathPaths.isEmpty()
+    task.testLibraryPaths.isEmpty()
+    task.inputs.properties.keySet().containsAll(["compileClasspathPaths", "testCompileClasspathPaths", "mainLibraryPaths", "testLibraryPaths"])
+    !task.inputs.files.files.contains(library)
+  }
+
+  def "aggregated task writes all resolved projects to a single file"() {
+    given:
+    def project = ProjectBuilder.builder().withProjectDir(projectDir.toFile()).build()
+    def library = Files.createFile(projectDir.resolve("library.jar")).toFile()
+    def task = project.tasks.create(SonarAggregatedResolverTask.TASK_NAME, SonarAggregatedResolverTask)
+    task.projects.add(projectInputs(project, ":", true, false, library))
+    task.projects.add(projectInputs(project, ":skipped", false, true, library))
+    task.projects.add(projectInputs(project, ":sub", false, false, library))
+    task.setOutputDirectory(projectDir.resolve("sonar-resolver").toFile())
+
+    when:
+    task.run()
+
+    then:
+    def modules = ResolutionSerializer.readAll(task.outputFile)
+    modules*.projectName == [":", ":sub"]
+    modules*.isRootProject == [true, false]
+    modules*.compileClasspath == [[library.absolutePath], [library.absolutePath]]
+    modules*.testCompileClasspath == [[], []]
+  }
+
+  private static ProjectResolutionInputs projectInputs(def project, String name, boolean topLevel, boolean skipped, File library) {
+    def inputs = project.objects.newInstance(ProjectResolutionInputs)
+    inputs.projectName.set(name)
+    inputs.topLevelProject.set(topLevel)
+    inputs.skipProject.set(skipped)
+    inputs.setCompileClasspath(project.provider { project.files(library) })
+    inputs.setTestCompileClasspath(project.provider { project.files() })
+    return inputs
+  }
 }
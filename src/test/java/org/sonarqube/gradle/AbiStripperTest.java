@@ -0,0 +1,138 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AbiStripperTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void strips_classes_down_to_their_signatures() throws IOException {
+    byte[] original = TestClasses.classBytes("LibraryHashes");
+
+    byte[] stripped = AbiStripper.stripClass(original);
+
+    assertThat(stripped).hasSizeLessThan(original.length);
+    assertThat(AbiStripper.stripClass(stripped)).isEqualTo(stripped);
+    Set<String> packages = new HashSet<>();
+    ClassReferences.addReferencedPackages(new ByteArrayInputStream(stripped), packages);
+    assertThat(packages).contains("com/google/gson", "org/gradle/api/logging");
+  }
+
+  @Test
+  void fails_on_files_that_are_not_classes() {
+    byte[] content = "not a class".getBytes(StandardCharsets.UTF_8);
+
+    assertThatThrownBy(() -> AbiStripper.stripClass(content)).isInstanceOf(IOException.class);
+  }
+
+  @Test
+  void keeps_the_classes_and_the_manifest_of_jars() throws IOException {
+    Path input = tempDir.resolve("input.jar");
+    try (OutputStream output = Files.newOutputStream(input); ZipOutputStream zip = new ZipOutputStream(output)) {
+      addEntry(zip, "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n".getBytes(StandardCharsets.UTF_8));
+      addEntry(zip, "org/sonarqube/gradle/LibraryHashes.class", TestClasses.classBytes("LibraryHashes"));
+      addEntry(zip, "org/sonarqube/gradle/Invalid.class", "not a class".getBytes(StandardCharsets.UTF_8));
+      addEntry(zip, "org/sonarqube/gradle/messages.properties", "key=value".getBytes(StandardCharsets.UTF_8));
+    }
+    Path output = tempDir.resolve("output.jar");
+
+    AbiStripper.stripJar(input, output);
+
+    try (ZipFile zip = new ZipFile(output.toFile())) {
+      assertThat(Collections.list(zip.entries()).stream().map(ZipEntry::getName).collect(Collectors.toList()))
+        .containsExactly("META-INF/MANIFEST.MF", "org/sonarqube/gradle/LibraryHashes.class", "org/sonarqube/gradle/Invalid.class");
+      try (InputStream invalid = zip.getInputStream(zip.getEntry("org/sonarqube/gradle/Invalid.class"))) {
+        assertThat(invalid.readAllBytes()).isEqualTo("not a class".getBytes(StandardCharsets.UTF_8));
+      }
+    }
+  }
+
+  @Test
+  void keeps_the_kotlin_metadata_of_jars() throws IOException {
+    byte[] module = {0, 0, 0, 5, 0, 0, 0, 1};
+    byte[] builtins = {1, 2, 3};
+    Path input = tempDir.resolve("input.jar");
+    try (OutputStream output = Files.newOutputStream(input); ZipOutputStream zip = new ZipOutputStream(output)) {
+      addEntry(zip, "META-INF/library.kotlin_module", module);
+      addEntry(zip, "kotlin/kotlin.kotlin_builtins", builtins);
+      addEntry(zip, "META-INF/LICENSE.txt", "license".getBytes(StandardCharsets.UTF_8));
+    }
+    Path output = tempDir.resolve("output.jar");
+
+    AbiStripper.stripJar(input, output);
+
+    try (ZipFile zip = new ZipFile(output.toFile())) {
+      assertThat(Collections.list(zip.entries()).stream().map(ZipEntry::getName).collect(Collectors.toList()))
+        .containsExactly("META-INF/library.kotlin_module", "kotlin/kotlin.kotlin_builtins");
+      try (InputStream kotlinModule = zip.getInputStream(zip.getEntry("META-INF/library.kotlin_module"))) {
+        assertThat(kotlinModule.readAllBytes()).isEqualTo(module);
+      }
+      try (InputStream kotlinBuiltins = zip.getInputStream(zip.getEntry("kotlin/kotlin.kotlin_builtins"))) {
+        assertThat(kotlinBuiltins.readAllBytes()).isEqualTo(builtins);
+      }
+    }
+  }
+
+  @Test
+  void stripped_jars_can_be_compiled_against() throws IOException {
+    Path input = tempDir.resolve("input.jar");
+    try (OutputStream output = Files.newOutputStream(input); ZipOutputStream zip = new ZipOutputStream(output)) {
+      addEntry(zip, "org/sonarqube/gradle/LibraryHashes.class", TestClasses.classBytes("LibraryHashes"));
+    }
+    Path stripped = tempDir.resolve("stripped.jar");
+    AbiStripper.stripJar(input, stripped);
+    Path source = Files.writeString(tempDir.resolve("Usage.java"),
+      "package org.sonarqube.gradle;\nclass Usage {\n  int size() {\n    return new LibraryHashes().size();\n  }\n}\n");
+
+    int result = ToolProvider.getSystemJavaCompiler().run(null, null, null,
+      "-proc:none", "-cp", stripped.toString(), "-d", tempDir.resolve("classes").toString(), source.toString());
+
+    assertThat(result).isZero();
+  }
+
+  private static void addEntry(ZipOutputStream zip, String name, byte[] content) throws IOException {
+    zip.putNextEntry(new ZipEntry(name));
+    zip.write(content);
+    zip.closeEntry();
+  }
+}
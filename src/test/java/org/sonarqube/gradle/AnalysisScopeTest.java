@@ -0,0 +1,121 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonarqube.gradle.SonarUtils.InputFileType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalysisScopeTest {
+
+  private static final Path BASE_DIR = Paths.get("project").toAbsolutePath();
+
+  @TempDir
+  Path projectDir;
+
+  @Test
+  void excludes_files_by_type() {
+    AnalysisScope scope = new AnalysisScope(BASE_DIR, List.of(), List.of("**/*.min.js"), List.of(), List.of("**/fixtures/**"));
+
+    assertThat(scope.isExcluded(BASE_DIR.resolve("web/app.min.js"), InputFileType.MAIN)).isTrue();
+    assertThat(scope.isExcluded(BASE_DIR.resolve("web/app.js"), InputFileType.MAIN)).isFalse();
+    assertThat(scope.isExcluded(BASE_DIR.resolve("web/fixtures/data.json"), InputFileType.MAIN)).isFalse();
+    assertThat(scope.isExcluded(BASE_DIR.resolve("web/fixtures/data.json"), InputFileType.TEST)).isTrue();
+    assertThat(scope.isExcluded(BASE_DIR.resolve("web/app.min.js"), InputFileType.TEST)).isFalse();
+  }
+
+  @Test
+  void inclusions_restrict_the_scope() {
+    AnalysisScope scope = new AnalysisScope(BASE_DIR, List.of("web/**", "*.yml"), List.of("web/vendor/**"), List.of(), List.of());
+
+    assertThat(scope.isExcluded(BASE_DIR.resolve("web/app.js"), InputFileType.MAIN)).isFalse();
+    assertThat(scope.isExcluded(BASE_DIR.resolve("ci.yml"), InputFileType.MAIN)).isFalse();
+    assertThat(scope.isExcluded(BASE_DIR.resolve("docs/index.md"), InputFileType.MAIN)).isTrue();
+    assertThat(scope.isExcluded(BASE_DIR.resolve("web/vendor/lib.js"), InputFileType.MAIN)).isTrue();
+    assertThat(scope.isExcluded(BASE_DIR.resolve("docs/index.md"), InputFileType.TEST)).isFalse();
+  }
+
+  @Test
+  void only_prunes_directories_excluded_for_every_file_type() {
+    AnalysisScope mainOnly = new AnalysisScope(BASE_DIR, List.of(), List.of("**/vendor/**"), List.of(), List.of());
+    AnalysisScope both = new AnalysisScope(BASE_DIR, List.of(), List.of("**/vendor/**"), List.of(), List.of("**/vendor/**"));
+
+    // Files below could be test files, which sonar.exclusions does not apply to
+    assertThat(mainOnly.isExcludedDirectory(BASE_DIR.resolve("web/vendor"))).isFalse();
+    assertThat(both.isExcludedDirectory(BASE_DIR.resolve("web/vendor"))).isTrue();
+    assertThat(both.isExcludedDirectory(BASE_DIR.resolve("web"))).isFalse();
+    assertThat(both.isExcludedDirectory(BASE_DIR)).isFalse();
+  }
+
+  @Test
+  void test_directories_only_depend_on_test_patterns() {
+    AnalysisScope scope = new AnalysisScope(BASE_DIR, List.of("src/**"), List.of(), List.of(), List.of("**/e2e/**"));
+
+    assertThat(scope.isExcludedDirectory(BASE_DIR.resolve("integration-test/e2e"))).isTrue();
+    assertThat(scope.isExcludedDirectory(BASE_DIR.resolve("integration-test"))).isFalse();
+    // Main files below are out of sonar.inclusions, but test files below are in scope
+    assertThat(scope.isExcludedDirectory(BASE_DIR.resolve("docs"))).isFalse();
+  }
+
+  @Test
+  void inclusions_prune_directories_that_cannot_contain_included_files() {
+    AnalysisScope scope = new AnalysisScope(BASE_DIR, List.of("web/**"), List.of(), List.of("web/**"), List.of());
+
+    assertThat(scope.isExcludedDirectory(BASE_DIR.resolve("docs"))).isTrue();
+    assertThat(scope.isExcludedDirectory(BASE_DIR.resolve("web"))).isFalse();
+    assertThat(scope.isExcludedDirectory(BASE_DIR.resolve("web/lib"))).isFalse();
+  }
+
+  @Test
+  void fingerprint_depends_on_patterns() {
+    AnalysisScope scope = new AnalysisScope(BASE_DIR, List.of(), List.of("**/vendor/**"), List.of(), List.of());
+    AnalysisScope same = new AnalysisScope(BASE_DIR, List.of(), List.of("**/vendor/**"), List.of(), List.of());
+    AnalysisScope other = new AnalysisScope(BASE_DIR, List.of(), List.of(), List.of(), List.of("**/vendor/**"));
+
+    assertThat(scope.fingerprint()).isEqualTo(same.fingerprint()).isNotEqualTo(other.fingerprint());
+    assertThat(new AnalysisScope(BASE_DIR, List.of(" "), List.of(), List.of(), List.of()).isEmpty()).isTrue();
+  }
+
+  @Test
+  void collector_skips_what_the_scanner_excludes() throws IOException {
+    Path vendor = Files.createDirectories(projectDir.resolve("web/vendor"));
+    Path lib = Files.createFile(vendor.resolve("lib.js"));
+    Path app = Files.createFile(projectDir.resolve("web/app.js"));
+    Path minified = Files.createFile(projectDir.resolve("web/app.min.js"));
+    Path fixture = Files.createFile(Files.createDirectories(projectDir.resolve("web/test")).resolve("fixture.js"));
+    AnalysisScope scope = new AnalysisScope(projectDir, List.of(), List.of("**/vendor/**", "**/*.min.js"), List.of(), List.of("**/vendor/**"));
+
+    SourceCollector collector = SourceCollector.builder().setRoot(projectDir).setAnalysisScope(scope).build();
+    Files.walkFileTree(projectDir, collector);
+
+    assertThat(collector.preVisitDirectory(vendor, null)).isEqualTo(FileVisitResult.SKIP_SUBTREE);
+    assertThat(collector.getCollectedSources())
+      .containsExactlyInAnyOrder(app, fixture)
+      .doesNotContain(lib, minified);
+  }
+}
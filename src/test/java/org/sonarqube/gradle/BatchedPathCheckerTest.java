@@ -0,0 +1,129 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchedPathCheckerTest {
+
+  private final FileStatusCache fileStatus = new FileStatusCache();
+  private final BatchedPathChecker checker = new BatchedPathChecker(fileStatus, name -> name.startsWith("TEST-"));
+
+  @Test
+  void lists_parent_directories_shared_by_several_files(@TempDir File tempDir) throws IOException {
+    File main = new File(tempDir, "src/main");
+    Files.createDirectories(main.toPath().resolve("java"));
+    Files.createDirectories(main.toPath().resolve("resources"));
+    String java = new File(main, "java").getAbsolutePath();
+    String resources = new File(main, "resources").getAbsolutePath();
+    String kotlin = new File(main, "kotlin").getAbsolutePath();
+    String missingInMissingParent = new File(tempDir, "src/test/java").getAbsolutePath();
+    checker.addFile(java);
+    checker.addFile(resources);
+    checker.addFile(kotlin);
+    checker.addFile(missingInMissingParent);
+
+    checker.check(1);
+
+    assertThat(checker.exists(java)).isTrue();
+    assertThat(checker.exists(resources)).isTrue();
+    assertThat(checker.exists(kotlin)).isFalse();
+    assertThat(checker.exists(missingInMissingParent)).isFalse();
+    // One listing of the shared parent, one lookup for each listed file and one for the file alone in its parent
+    assertThat(fileStatus.getMisses()).isEqualTo(4);
+  }
+
+  @Test
+  void looks_up_files_without_listing_their_parent(@TempDir File tempDir) throws IOException {
+    Files.createDirectories(tempDir.toPath().resolve("src/main/java"));
+    String java = new File(tempDir, "src/main/java").getAbsolutePath();
+    String kotlin = new File(tempDir, "src/main/kotlin").getAbsolutePath();
+    checker.addFile(java);
+    checker.addFile(kotlin);
+
+    checker.check(1);
+
+    assertThat(checker.exists(java)).isTrue();
+    assertThat(checker.exists(kotlin)).isFalse();
+    assertThat(fileStatus.list(new File(tempDir, "src/main"))).containsExactly("java");
+    // The listing above is the first one
+    assertThat(fileStatus.getMisses()).isEqualTo(3);
+  }
+
+  @Test
+  @DisabledOnOs(OS.WINDOWS)
+  void dangling_symbolic_links_do_not_exist(@TempDir File tempDir) throws IOException {
+    String first = Files.createFile(tempDir.toPath().resolve("first.jar")).toString();
+    String second = Files.createFile(tempDir.toPath().resolve("second.jar")).toString();
+    String link = Files.createSymbolicLink(tempDir.toPath().resolve("link.jar"), tempDir.toPath().resolve("missing.jar")).toString();
+    checker.addFile(first);
+    checker.addFile(second);
+    checker.addFile(link);
+
+    checker.check(1);
+
+    assertThat(checker.exists(first)).isTrue();
+    assertThat(checker.exists(second)).isTrue();
+    assertThat(checker.exists(link)).isFalse();
+  }
+
+  @Test
+  void looks_up_files_that_are_not_listed(@TempDir File tempDir) throws IOException {
+    Files.createDirectories(tempDir.toPath().resolve("src/main/java"));
+    String notNormalized = new File(tempDir, "src/main/java/../java").getPath();
+    String missing = new File(tempDir, "src/main/kotlin").getAbsolutePath();
+    checker.addFile(notNormalized);
+    checker.addFile(missing);
+
+    checker.check(2);
+
+    assertThat(checker.exists(notNormalized)).isTrue();
+    assertThat(checker.exists(missing)).isFalse();
+  }
+
+  @Test
+  void finds_directories_with_reports(@TempDir File tempDir) throws IOException {
+    File withReports = new File(tempDir, "test-results/test");
+    File withoutReports = new File(tempDir, "test-results/integrationTest");
+    File missing = new File(tempDir, "test-results/other");
+    Files.createDirectories(withReports.toPath());
+    Files.createDirectories(withoutReports.toPath());
+    Files.createFile(withReports.toPath().resolve("TEST-Foo.xml"));
+    Files.createFile(withoutReports.toPath().resolve("output.bin"));
+    checker.addReportDirectory(withReports.getPath());
+    checker.addReportDirectory(withoutReports.getPath());
+    checker.addReportDirectory(missing.getPath());
+
+    checker.check(4);
+
+    assertThat(checker.containsReports(withReports.getPath())).isTrue();
+    assertThat(checker.containsReports(withoutReports.getPath())).isFalse();
+    assertThat(checker.containsReports(missing.getPath())).isFalse();
+    assertThat(checker.exists(withReports.getPath())).isFalse();
+  }
+}
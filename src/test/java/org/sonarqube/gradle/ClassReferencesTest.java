@@ -0,0 +1,76 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClassReferencesTest {
+
+  @Test
+  void reads_the_packages_referenced_by_a_class() throws IOException {
+    Set<String> packages = new HashSet<>();
+    ClassReferences.addReferencedPackages(new ByteArrayInputStream(TestClasses.classBytes("LibraryHashes")), packages);
+
+    // Class entries, method descriptors and field types
+    assertThat(packages).contains("org/sonarqube/gradle", "com/google/gson", "org/gradle/api/logging", "java/security", "java/nio/file/attribute");
+  }
+
+  @Test
+  void reads_the_classes_of_a_directory(@TempDir Path tempDir) throws IOException {
+    Path classes = Files.createDirectories(tempDir.resolve("org/sonarqube/gradle"));
+    Files.write(classes.resolve("LibraryHashes.class"), TestClasses.classBytes("LibraryHashes"));
+    Files.writeString(classes.resolve("Invalid.class"), "not a class", StandardCharsets.UTF_8);
+    Files.writeString(classes.resolve("Readme.txt"), "Lcom/acme/Foo;", StandardCharsets.UTF_8);
+
+    Set<String> packages = new HashSet<>();
+    ClassReferences.addReferencedPackagesOfDirectory(tempDir, packages);
+
+    assertThat(packages).contains("com/google/gson").doesNotContain("com/acme");
+  }
+
+  @Test
+  void fails_on_files_that_are_not_classes() {
+    Set<String> packages = new HashSet<>();
+    ByteArrayInputStream input = new ByteArrayInputStream("not a class".getBytes(StandardCharsets.UTF_8));
+
+    assertThatThrownBy(() -> ClassReferences.addReferencedPackages(input, packages)).isInstanceOf(IOException.class);
+  }
+
+  @Test
+  void computes_the_package_of_jar_entries() {
+    assertThat(ClassReferences.packageOfEntry("com/acme/Foo.class")).isEqualTo("com/acme");
+    assertThat(ClassReferences.packageOfEntry("Foo.class")).isEmpty();
+    assertThat(ClassReferences.packageOfEntry("META-INF/versions/11/com/acme/Foo.class")).isEqualTo("com/acme");
+    assertThat(ClassReferences.packageOfEntry("META-INF/versions/11/module-info.class")).isNull();
+    assertThat(ClassReferences.packageOfEntry("META-INF/MANIFEST.MF")).isNull();
+    assertThat(ClassReferences.packageOfEntry("com/acme/messages.properties")).isNull();
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClasspathShrinkerTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void removes_the_libraries_that_provide_no_used_class() throws IOException {
+    // LibraryHashes uses com.google.gson
+    Path classes = compiledClasses("classes", "LibraryHashes");
+    // SonarTask uses org.sonarsource.scanner.lib, so the scanner jar is needed by the gson jar
+    Path gson = jar("gson.jar", "com/google/gson/Gson.class", TestClasses.classBytes("SonarTask"));
+    Path scanner = jar("scanner.jar", "org/sonarsource/scanner/lib/ScannerEngineFacade.class", new byte[0]);
+    Path unused = jar("unused.jar", "org/unused/Unused.class", new byte[0]);
+    Path directory = Files.createDirectories(tempDir.resolve("other-classes"));
+    String libraries = String.join(",", gson.toString(), scanner.toString(), unused.toString(), directory.toString());
+    Map<String, String> properties = new HashMap<>();
+    properties.put(":app.sonar.java.binaries", classes.toString());
+    properties.put(":app.sonar.java.libraries", libraries);
+    properties.put(":app.sonar.libraries", libraries);
+
+    int removed = new ClasspathShrinker(new LibraryPackages()).shrink(properties);
+
+    String expected = String.join(",", gson.toString(), scanner.toString(), directory.toString());
+    assertThat(removed).isEqualTo(2);
+    assertThat(properties)
+      .containsEntry(":app.sonar.java.libraries", expected)
+      .containsEntry(":app.sonar.libraries", expected);
+  }
+
+  @Test
+  void uses_the_main_and_test_classes_for_the_test_libraries() throws IOException {
+    Path classes = compiledClasses("classes", "LibraryHashes");
+    Path testClasses = compiledClasses("test-classes", "SonarTask");
+    Path gson = jar("gson.jar", "com/google/gson/Gson.class", new byte[0]);
+    Path scanner = jar("scanner.jar", "org/sonarsource/scanner/lib/ScannerEngineFacade.class", new byte[0]);
+    Path unused = jar("unused.jar", "org/unused/Unused.class", new byte[0]);
+    Map<String, String> properties = new HashMap<>();
+    properties.put("sonar.java.binaries", classes.toString());
+    properties.put("sonar.java.test.binaries", testClasses.toString());
+    properties.put("sonar.java.libraries", String.join(",", gson.toString(), scanner.toString(), unused.toString()));
+    properties.put("sonar.java.test.libraries", String.join(",", classes.toString(), gson.toString(), scanner.toString(), unused.toString()));
+
+    new ClasspathShrinker(new LibraryPackages()).shrink(properties);
+
+    assertThat(properties)
+      .containsEntry("sonar.java.libraries", gson.toString())
+      .containsEntry("sonar.java.test.libraries", String.join(",", classes.toString(), gson.toString(), scanner.toString()));
+  }
+
+  @Test
+  void keeps_the_libraries_of_modules_without_classes() throws IOException {
+    Path classes = compiledClasses("classes", "LibraryHashes");
+    Path emptyTestClasses = Files.createDirectories(tempDir.resolve("test-classes"));
+    Path unused = jar("unused.jar", "org/unused/Unused.class", new byte[0]);
+    Map<String, String> properties = new HashMap<>();
+    properties.put(":lib.sonar.java.libraries", unused.toString());
+    properties.put(":app.sonar.java.binaries", classes.toString());
+    properties.put(":app.sonar.java.test.binaries", emptyTestClasses.toString());
+    properties.put(":app.sonar.java.test.libraries", unused.toString());
+    properties.put(":other.sonar.java.binaries", tempDir.resolve("**/classes").toString());
+    properties.put(":other.sonar.java.libraries", unused.toString());
+
+    assertThat(new ClasspathShrinker(new LibraryPackages()).shrink(properties)).isZero();
+    assertThat(properties)
+      .containsEntry(":lib.sonar.java.libraries", unused.toString())
+      .containsEntry(":app.sonar.java.test.libraries", unused.toString())
+      .containsEntry(":other.sonar.java.libraries", unused.toString());
+  }
+
+  @Test
+  void persists_the_packages_of_the_jars() throws IOException {
+    Path gson = jar("gson.jar", "com/google/gson/Gson.class", TestClasses.classBytes("SonarTask"));
+    Path packagesFile = tempDir.resolve("packages").resolve(LibraryPackages.FILE_NAME);
+    LibraryPackages packages = new LibraryPackages();
+    packages.get(gson);
+    packages.write(packagesFile);
+
+    LibraryPackages.Entry entry = LibraryPackages.read(packagesFile).get(gson);
+    assertThat(entry.provided).containsExactly("com/google/gson");
+    assertThat(entry.referenced).contains("org/sonarsource/scanner/lib").doesNotContain("com/google/gson");
+  }
+
+  private Path compiledClasses(String directory, String className) throws IOException {
+    Path classes = Files.createDirectories(tempDir.resolve(directory).resolve("org/sonarqube/gradle"));
+    Files.write(classes.resolve(className + ".class"), TestClasses.classBytes(className));
+    return tempDir.resolve(directory);
+  }
+
+  private Path jar(String name, String entry, byte[] content) throws IOException {
+    Path jar = tempDir.resolve(name);
+    try (OutputStream output = Files.newOutputStream(jar); ZipOutputStream zip = new ZipOutputStream(output)) {
+      zip.putNextEntry(new ZipEntry(entry));
+      zip.write(content);
+      zip.closeEntry();
+    }
+    return jar;
+  }
+}
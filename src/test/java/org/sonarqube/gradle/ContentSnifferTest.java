@@ -0,0 +1,89 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentSnifferTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void drops_binary_files() throws IOException {
+    ContentSniffer sniffer = new ContentSniffer(true, Long.MAX_VALUE);
+
+    assertThat(accept(sniffer, write("script", "#!/bin/sh\necho hello\n".getBytes(StandardCharsets.UTF_8)))).isTrue();
+    assertThat(accept(sniffer, write("empty", new byte[0]))).isTrue();
+    assertThat(accept(sniffer, write("utf16.txt", "hello".getBytes(StandardCharsets.UTF_16)))).isTrue();
+    assertThat(accept(sniffer, write("executable", new byte[] {0x7F, 'E', 'L', 'F', 2, 1, 1, 0}))).isFalse();
+    assertThat(sniffer.getBinaryFiles()).isEqualTo(1);
+    assertThat(sniffer.getOversizedFiles()).isZero();
+  }
+
+  @Test
+  void only_reads_the_head_of_files() throws IOException {
+    byte[] content = new byte[ContentSniffer.SNIFF_SIZE + 10];
+    Arrays.fill(content, (byte) 'a');
+    content[content.length - 1] = 0;
+
+    assertThat(accept(new ContentSniffer(true, Long.MAX_VALUE), write("dump.txt", content))).isTrue();
+  }
+
+  @Test
+  void drops_oversized_files() throws IOException {
+    ContentSniffer sniffer = new ContentSniffer(false, 10);
+
+    assertThat(accept(sniffer, write("small", new byte[10]))).isTrue();
+    assertThat(accept(sniffer, write("large", new byte[11]))).isFalse();
+    assertThat(sniffer.getOversizedFiles()).isEqualTo(1);
+    assertThat(sniffer.getBinaryFiles()).isZero();
+  }
+
+  @Test
+  void collector_skips_binary_files() throws IOException {
+    Path text = write("notes", "text".getBytes(StandardCharsets.UTF_8));
+    write("data", new byte[] {1, 0, 2});
+    ContentSniffer sniffer = new ContentSniffer(true, Long.MAX_VALUE);
+
+    SourceCollector collector = SourceCollector.builder().setRoot(dir).setContentSniffer(sniffer).build();
+    Files.walkFileTree(dir, collector);
+
+    assertThat(collector.getCollectedSources()).containsOnly(text);
+    assertThat(sniffer.getBinaryFiles()).isEqualTo(1);
+  }
+
+  private static boolean accept(ContentSniffer sniffer, Path file) throws IOException {
+    return sniffer.accept(file, Files.readAttributes(file, BasicFileAttributes.class));
+  }
+
+  private Path write(String name, byte[] content) throws IOException {
+    return Files.write(dir.resolve(name), content);
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileStatusCacheTest {
+
+  private final FileStatusCache cache = new FileStatusCache();
+
+  @Test
+  void remembers_existing_files(@TempDir File tempDir) throws IOException {
+    File jar = new File(tempDir, "a.jar");
+    Files.createFile(jar.toPath());
+
+    assertThat(cache.exists(jar)).isTrue();
+    Files.delete(jar.toPath());
+    assertThat(cache.exists(jar)).isTrue();
+    assertThat(cache.exists(jar.toPath())).isTrue();
+    assertThat(cache.getHits()).isEqualTo(2);
+    assertThat(cache.getMisses()).isEqualTo(1);
+  }
+
+  @Test
+  void looks_up_missing_files_again(@TempDir File tempDir) throws IOException {
+    File classes = new File(tempDir, "classes");
+
+    assertThat(cache.exists(classes)).isFalse();
+    Files.createDirectory(classes.toPath());
+    assertThat(cache.exists(classes)).isTrue();
+    assertThat(cache.getHits()).isZero();
+    assertThat(cache.getMisses()).isEqualTo(2);
+  }
+
+  @Test
+  void remembers_directory_contents(@TempDir File tempDir) throws IOException {
+    Files.createFile(tempDir.toPath().resolve("TEST-a.xml"));
+
+    assertThat(cache.list(tempDir)).containsExactly("TEST-a.xml");
+    Files.createFile(tempDir.toPath().resolve("TEST-b.xml"));
+    assertThat(cache.list(tempDir)).containsExactly("TEST-a.xml");
+    assertThat(cache.getHits()).isEqualTo(1);
+  }
+
+  @Test
+  void returns_null_for_missing_directories(@TempDir File tempDir) {
+    File missing = new File(tempDir, "test-results");
+
+    assertThat(cache.list(missing)).isNull();
+    assertThat(cache.list(missing)).isNull();
+    assertThat(cache.getHits()).isEqualTo(1);
+    assertThat(cache.getMisses()).isEqualTo(1);
+  }
+
+  @Test
+  void remembers_directories(@TempDir File tempDir) throws IOException {
+    File file = Files.createFile(tempDir.toPath().resolve("a.xml")).toFile();
+
+    assertThat(cache.isDirectory(tempDir)).isTrue();
+    assertThat(cache.isDirectory(file)).isFalse();
+    assertThat(cache.isDirectory(tempDir)).isTrue();
+    assertThat(cache.getHits()).isEqualTo(1);
+    assertThat(cache.getMisses()).isEqualTo(2);
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GitFilterTest {
+
+  @TempDir
+  Path repository;
+
+  private Path project;
+
+  @BeforeEach
+  void setup() throws IOException {
+    Files.createDirectories(repository.resolve(".git/info"));
+    project = Files.createDirectories(repository.resolve("project"));
+    write(repository.resolve(".gitignore"), "legacy/\n");
+    write(repository.resolve(".git/info/exclude"), "local-notes.md\n");
+    write(project.resolve(".gitignore"), "cache/\n/sdk\n*.json\n!package.json\n");
+    write(project.resolve("package.json"), "");
+    write(project.resolve("data.json"), "");
+    write(project.resolve("local-notes.md"), "");
+    write(project.resolve("README.md"), "");
+    write(project.resolve("cache/entries.txt"), "");
+    write(project.resolve("sdk/tool.sh"), "");
+    write(project.resolve("scripts/sdk/setup.sh"), "");
+    write(project.resolve("legacy/run.sh"), "");
+    write(project.resolve("scripts/.gitignore"), "!*.json\n");
+    write(project.resolve("scripts/settings.json"), "");
+  }
+
+  @Test
+  void prunes_the_walk_with_ignore_rules() throws IOException {
+    assertThat(collect(GitFilter.Mode.GITIGNORE)).containsExactlyInAnyOrder(
+      project.resolve("package.json"),
+      project.resolve("README.md"),
+      project.resolve("scripts/sdk/setup.sh"),
+      project.resolve("scripts/settings.json"));
+  }
+
+  @Test
+  void ignored_directories_are_not_entered() {
+    GitFilter filter = GitFilter.create(project, GitFilter.Mode.GITIGNORE).orElseThrow();
+
+    assertThat(filter.enterDirectory(project.resolve("cache"))).isFalse();
+    assertThat(filter.enterDirectory(project.resolve("sdk"))).isFalse();
+    assertThat(filter.enterDirectory(project.resolve("scripts"))).isTrue();
+    assertThat(filter.enterDirectory(project.resolve("scripts/sdk"))).isTrue();
+  }
+
+  @Test
+  void tracked_files_are_never_ignored() throws IOException {
+    GitIndexTest.writeIndex(repository.resolve(".git/index"), 2, "project/.gitignore", "project/cache/entries.txt", "project/data.json");
+
+    assertThat(collect(GitFilter.Mode.GITIGNORE)).containsExactlyInAnyOrder(
+      project.resolve("package.json"),
+      project.resolve("data.json"),
+      project.resolve("README.md"),
+      project.resolve("cache/entries.txt"),
+      project.resolve("scripts/sdk/setup.sh"),
+      project.resolve("scripts/settings.json"));
+  }
+
+  @Test
+  void only_keeps_tracked_files() throws IOException {
+    GitIndexTest.writeIndex(repository.resolve(".git/index"), 4, "project/README.md", "project/cache/entries.txt", "project/data.json");
+
+    assertThat(collect(GitFilter.Mode.TRACKED)).containsExactlyInAnyOrder(
+      project.resolve("data.json"),
+      project.resolve("README.md"),
+      project.resolve("cache/entries.txt"));
+  }
+
+  @Test
+  void requires_a_readable_index_to_keep_tracked_files() {
+    assertThat(GitFilter.create(project, GitFilter.Mode.TRACKED)).isEmpty();
+  }
+
+  @Test
+  void finds_the_repository_of_a_worktree() throws IOException {
+    Path worktreeGitDir = Files.createDirectories(repository.resolve(".git/worktrees/feature"));
+    write(worktreeGitDir.resolve("commondir"), "../..\n");
+    GitIndexTest.writeIndex(worktreeGitDir.resolve("index"), 2, "README.md");
+    Path worktree = Files.createDirectories(repository.resolve("feature"));
+    write(worktree.resolve(".git"), "gitdir: " + worktreeGitDir + "\n");
+    write(worktree.resolve("README.md"), "");
+    write(worktree.resolve("local-notes.md"), "");
+    write(worktree.resolve("other.md"), "");
+
+    Optional<GitFilter> tracked = GitFilter.create(worktree, GitFilter.Mode.TRACKED);
+    assertThat(tracked).isPresent();
+    assertThat(tracked.get().isIgnoredFile(worktree.resolve("README.md"))).isFalse();
+    assertThat(tracked.get().isIgnoredFile(worktree.resolve("other.md"))).isTrue();
+
+    GitFilter gitignore = GitFilter.create(worktree, GitFilter.Mode.GITIGNORE).orElseThrow();
+    assertThat(gitignore.isIgnoredFile(worktree.resolve("local-notes.md"))).isTrue();
+    assertThat(gitignore.isIgnoredFile(worktree.resolve("other.md"))).isFalse();
+  }
+
+  @Test
+  void is_disabled_outside_of_a_repository(@TempDir Path notARepository) {
+    assertThat(GitFilter.create(notARepository, GitFilter.Mode.GITIGNORE)).isEmpty();
+  }
+
+  @Test
+  void rules_stamp_changes_with_the_rules() throws IOException {
+    Path scripts = project.resolve("scripts");
+    GitFilter filter = GitFilter.create(project, GitFilter.Mode.GITIGNORE).orElseThrow();
+    filter.enterDirectory(scripts);
+    String stamp = filter.rulesStamp(scripts);
+
+    write(project.resolve(".gitignore"), "cache/\n");
+    GitFilter updated = GitFilter.create(project, GitFilter.Mode.GITIGNORE).orElseThrow();
+    updated.enterDirectory(scripts);
+
+    assertThat(stamp).isNotNull();
+    assertThat(updated.rulesStamp(scripts)).isNotEqualTo(stamp);
+  }
+
+  @Test
+  void parses_modes() {
+    assertThat(GitFilter.Mode.parse(null)).isEmpty();
+    assertThat(GitFilter.Mode.parse(" none ")).isEmpty();
+    assertThat(GitFilter.Mode.parse("gitignore")).contains(GitFilter.Mode.GITIGNORE);
+    assertThat(GitFilter.Mode.parse("Tracked")).contains(GitFilter.Mode.TRACKED);
+    assertThatThrownBy(() -> GitFilter.Mode.parse("all")).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private Set<Path> collect(GitFilter.Mode mode) throws IOException {
+    SourceCollector collector = SourceCollector.builder()
+      .setRoot(project)
+      .setGitFilter(GitFilter.create(project, mode).orElseThrow())
+      .build();
+    Files.walkFileTree(project, collector);
+    return collector.getCollectedSources();
+  }
+
+  private static void write(Path file, String content) throws IOException {
+    Files.createDirectories(file.getParent());
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.sonarqube.gradle.GitIgnoreRules.Result;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GitIgnoreRulesTest {
+
+  @ParameterizedTest
+  @CsvSource({
+    "*.log, debug.log, false, IGNORED",
+    "*.log, logs/debug.log, false, IGNORED",
+    "*.log, debug.log.txt, false, UNMATCHED",
+    "build/, build, true, IGNORED",
+    "build/, build, false, UNMATCHED",
+    "build/, sub/build, true, IGNORED",
+    "/build, build, true, IGNORED",
+    "/build, sub/build, true, UNMATCHED",
+    "doc/frotz, doc/frotz, true, IGNORED",
+    "doc/frotz, a/doc/frotz, true, UNMATCHED",
+    "**/foo, foo, false, IGNORED",
+    "**/foo, a/b/foo, false, IGNORED",
+    "foo/**, foo/a/b, false, IGNORED",
+    "foo/**, foo, true, UNMATCHED",
+    "a/**/b, a/b, false, IGNORED",
+    "a/**/b, a/x/y/b, false, IGNORED",
+    "a/**/b, a/x/y/c, false, UNMATCHED",
+    "a*/b, abc/b, false, IGNORED",
+    "a*/b, a/c/b, false, UNMATCHED",
+    "file?.txt, file1.txt, false, IGNORED",
+    "file?.txt, file10.txt, false, UNMATCHED",
+    "file[0-9].txt, file5.txt, false, IGNORED",
+    "file[!0-9].txt, file5.txt, false, UNMATCHED",
+    "file[!0-9].txt, filex.txt, false, IGNORED",
+    "\\#notes, #notes, false, IGNORED",
+    "# comment, '# comment', false, UNMATCHED",
+    "'trailing   ', trailing, false, IGNORED",
+    "a.b, axb, false, UNMATCHED",
+  })
+  void matches_like_git(String pattern, String path, boolean isDirectory, Result expected) {
+    assertThat(GitIgnoreRules.parse(List.of(pattern)).match(path, isDirectory)).isEqualTo(expected);
+  }
+
+  @Test
+  void last_matching_pattern_wins() {
+    GitIgnoreRules rules = GitIgnoreRules.parse(List.of("*.json", "!package.json", "generated/package.json"));
+
+    assertThat(rules.match("data.json", false)).isEqualTo(Result.IGNORED);
+    assertThat(rules.match("package.json", false)).isEqualTo(Result.NOT_IGNORED);
+    assertThat(rules.match("generated/package.json", false)).isEqualTo(Result.IGNORED);
+    assertThat(rules.match("README.md", false)).isEqualTo(Result.UNMATCHED);
+  }
+
+  @Test
+  void blank_lines_and_comments_are_not_rules() {
+    assertThat(GitIgnoreRules.parse(List.of("", "   ", "# comment", "!", "/")).isEmpty()).isTrue();
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GitIndexTest {
+
+  private static final int REGULAR_FILE = 0100644;
+  private static final int GITLINK = 0160000;
+
+  @TempDir
+  Path dir;
+
+  @ParameterizedTest
+  @ValueSource(ints = {2, 3, 4})
+  void reads_tracked_paths(int version) throws IOException {
+    Path indexFile = dir.resolve("index");
+    writeIndex(indexFile, version, "README.md", "src/main/resources/app.properties", "src/main/resources/logback.xml", "vendor/lib/keep.js");
+
+    GitIndex index = GitIndex.read(indexFile, 20);
+
+    assertThat(index.isTracked("README.md")).isTrue();
+    assertThat(index.isTracked("src/main/resources/logback.xml")).isTrue();
+    assertThat(index.isTracked("vendor/lib/other.js")).isFalse();
+    assertThat(index.containsTracked("")).isTrue();
+    assertThat(index.containsTracked("src/main")).isTrue();
+    assertThat(index.containsTracked("vendor/lib")).isTrue();
+    assertThat(index.containsTracked("vendor/other")).isFalse();
+    assertThat(index.containsTracked("docs")).isFalse();
+  }
+
+  @Test
+  void everything_below_a_submodule_is_tracked() throws IOException {
+    Path indexFile = dir.resolve("index");
+    try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(indexFile))) {
+      writeHeader(out, 2, 2);
+      writeEntry(out, 2, REGULAR_FILE, "README.md", "");
+      writeEntry(out, 2, GITLINK, "libs/sub", "");
+    }
+
+    GitIndex index = GitIndex.read(indexFile, 20);
+
+    assertThat(index.containsTracked("libs")).isTrue();
+    assertThat(index.containsTracked("libs/sub")).isTrue();
+    assertThat(index.containsTracked("libs/sub/src")).isTrue();
+    assertThat(index.isTracked("libs/sub/src/main.c")).isTrue();
+    assertThat(index.isTracked("libs/other.c")).isFalse();
+  }
+
+  @Test
+  void digest_depends_on_tracked_paths_only() throws IOException {
+    writeIndex(dir.resolve("v2"), 2, "a.txt", "b/c.txt");
+    writeIndex(dir.resolve("v4"), 4, "a.txt", "b/c.txt");
+    writeIndex(dir.resolve("other"), 2, "a.txt", "b/d.txt");
+
+    String digest = GitIndex.read(dir.resolve("v2"), 20).digest();
+
+    assertThat(GitIndex.read(dir.resolve("v4"), 20).digest()).isEqualTo(digest);
+    assertThat(GitIndex.read(dir.resolve("other"), 20).digest()).isNotEqualTo(digest);
+  }
+
+  @Test
+  void rejects_other_files() throws IOException {
+    Path notAnIndex = Files.write(dir.resolve("index"), "not an index".getBytes(StandardCharsets.UTF_8));
+    assertThatThrownBy(() -> GitIndex.read(notAnIndex, 20))
+      .isInstanceOf(IOException.class)
+      .hasMessage("Not a git index");
+
+    Path truncated = dir.resolve("truncated");
+    writeIndex(truncated, 2, "a.txt");
+    byte[] content = Files.readAllBytes(truncated);
+    Files.write(truncated, Arrays.copyOf(content, content.length - 20));
+    assertThatThrownBy(() -> GitIndex.read(truncated, 20))
+      .isInstanceOf(IOException.class)
+      .hasMessageStartingWith("Malformed git index");
+  }
+
+  /**
+   * Writes an index listing regular files, in the given format version.
+   */
+  static void writeIndex(Path indexFile, int version, String... paths) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(indexFile))) {
+      writeHeader(out, version, paths.length);
+      String previous = "";
+      for (String path : paths) {
+        writeEntry(out, version, REGULAR_FILE, path, previous);
+        previous = path;
+      }
+    }
+  }
+
+  private static void writeHeader(DataOutputStream out, int version, int entries) throws IOException {
+    out.writeBytes("DIRC");
+    out.writeInt(version);
+    out.writeInt(entries);
+  }
+
+  private static void writeEntry(DataOutputStream out, int version, int mode, String path, String previous) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream entry = new DataOutputStream(bytes);
+    // ctime, mtime, dev, ino
+    entry.write(new byte[24]);
+    entry.writeInt(mode);
+    // uid, gid, size, object name
+    entry.write(new byte[12 + 20]);
+    byte[] name = path.getBytes(StandardCharsets.UTF_8);
+    entry.writeShort(Math.min(name.length, 0xFFF));
+    if (version == 4) {
+      int common = 0;
+      while (common < previous.length() && common < path.length() && previous.charAt(common) == path.charAt(common)) {
+        common++;
+      }
+      // Offsets below 128 fit in a single byte
+      entry.writeByte(previous.length() - common);
+      entry.write(path.substring(common).getBytes(StandardCharsets.UTF_8));
+      entry.writeByte(0);
+    } else {
+      entry.write(name);
+      int length = bytes.size();
+      entry.write(new byte[8 - (length % 8)]);
+    }
+    out.write(bytes.toByteArray());
+  }
+}
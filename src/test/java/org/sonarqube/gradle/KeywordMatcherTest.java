@@ -0,0 +1,64 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeywordMatcherTest {
+
+  private static final List<String> KEYWORDS = List.of("he", "she", "his", "hers", "id_rsa", "key");
+
+  @ParameterizedTest
+  @CsvSource({
+    "ushers, true",
+    "ahishers, true",
+    "public-id_rsa-prod, true",
+    "id_rs, false",
+    "monkey, true",
+    "hi, false",
+    "'', false"
+  })
+  void finds_keywords_anywhere_in_the_value(String value, boolean expected) {
+    assertThat(new KeywordMatcher(KEYWORDS).containsAny(value)).isEqualTo(expected);
+  }
+
+  @Test
+  void agrees_with_naive_search() {
+    List<String> keywords = List.of("ab", "bab", "bc", "aaa", "cab");
+    KeywordMatcher matcher = new KeywordMatcher(keywords);
+    Random random = new Random(42);
+    for (int i = 0; i < 10_000; i++) {
+      StringBuilder value = new StringBuilder();
+      for (int j = random.nextInt(12); j > 0; j--) {
+        value.append((char) ('a' + random.nextInt(3)));
+      }
+      String candidate = value.toString();
+      assertThat(matcher.containsAny(candidate))
+        .as(candidate)
+        .isEqualTo(keywords.stream().anyMatch(candidate::contains));
+    }
+  }
+}
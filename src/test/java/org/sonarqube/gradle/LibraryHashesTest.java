@@ -0,0 +1,93 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LibraryHashesTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void hashes_the_content_of_files() throws IOException {
+    Path first = Files.writeString(tempDir.resolve("first.jar"), "content");
+    Path second = Files.writeString(tempDir.resolve("second.jar"), "content");
+    Path other = Files.writeString(tempDir.resolve("other.jar"), "other content");
+    LibraryHashes hashes = new LibraryHashes();
+
+    assertThat(hashes.hash(first))
+      .isEqualTo(hashes.hash(second))
+      .isEqualTo("ed7002b439e9ac845f22357d822bac1444730fbdb6016d3ec9432297b9ec9f73")
+      .isNotEqualTo(hashes.hash(other));
+  }
+
+  @Test
+  void reuses_persisted_hashes_of_unchanged_files() throws IOException {
+    Path library = Files.writeString(tempDir.resolve("library.jar"), "content");
+    FileTime lastModified = Files.getLastModifiedTime(library);
+    Path hashesFile = tempDir.resolve("hashes").resolve(LibraryHashes.FILE_NAME);
+    LibraryHashes hashes = new LibraryHashes();
+    String hash = hashes.hash(library);
+    hashes.write(hashesFile);
+
+    // Same size and modification time, the persisted hash is used without reading the file
+    Files.writeString(library, "CONTENT");
+    Files.setLastModifiedTime(library, lastModified);
+    assertThat(LibraryHashes.read(hashesFile).hash(library)).isEqualTo(hash);
+
+    Files.setLastModifiedTime(library, FileTime.fromMillis(lastModified.toMillis() + 2000));
+    assertThat(LibraryHashes.read(hashesFile).hash(library)).isNotEqualTo(hash);
+  }
+
+  @Test
+  void only_writes_the_hashes_of_the_files_used_since_it_was_read() throws IOException {
+    Path used = Files.writeString(tempDir.resolve("used.jar"), "used");
+    Path removed = Files.writeString(tempDir.resolve("removed.jar"), "removed");
+    Path hashesFile = tempDir.resolve(LibraryHashes.FILE_NAME);
+    LibraryHashes hashes = new LibraryHashes();
+    hashes.hash(used);
+    hashes.hash(removed);
+    hashes.write(hashesFile);
+
+    LibraryHashes next = LibraryHashes.read(hashesFile);
+    assertThat(next.size()).isEqualTo(2);
+    next.hash(used);
+    next.write(hashesFile);
+
+    assertThat(LibraryHashes.read(hashesFile).size()).isEqualTo(1);
+  }
+
+  @Test
+  void ignores_invalid_files() throws IOException {
+    Path hashesFile = Files.writeString(tempDir.resolve(LibraryHashes.FILE_NAME), "{ not json", StandardCharsets.UTF_8);
+
+    assertThat(LibraryHashes.read(hashesFile).size()).isZero();
+    assertThat(LibraryHashes.read(tempDir.resolve("missing.json")).size()).isZero();
+  }
+}
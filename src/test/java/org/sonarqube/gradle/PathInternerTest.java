@@ -0,0 +1,72 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PathInternerTest {
+
+  private final PathInterner interner = new PathInterner();
+
+  @Test
+  void shares_equal_strings() {
+    String first = new String("/caches/a.jar");
+    String second = new String("/caches/a.jar");
+
+    assertThat(interner.intern(first)).isSameAs(first);
+    assertThat(interner.intern(second)).isSameAs(first);
+    assertThat(interner.intern(first)).isSameAs(first);
+    assertThat(interner.getSharedStrings()).isEqualTo(1);
+  }
+
+  @Test
+  void shares_equal_lists_and_their_elements() {
+    List<String> first = new ArrayList<>(List.of(new String("/caches/a.jar"), new String("/caches/b.jar")));
+    List<String> second = new ArrayList<>(List.of(new String("/caches/a.jar"), new String("/caches/b.jar")));
+    List<String> other = new ArrayList<>(List.of(new String("/caches/b.jar")));
+
+    List<String> internedFirst = interner.intern(first);
+    List<String> internedOther = interner.intern(other);
+
+    assertThat(internedFirst).isEqualTo(first);
+    assertThat(interner.intern(second)).isSameAs(internedFirst);
+    assertThat(internedOther.get(0)).isSameAs(internedFirst.get(1));
+    assertThat(interner.getSharedLists()).isEqualTo(1);
+    assertThatThrownBy(() -> internedFirst.add("/caches/c.jar")).isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  void interns_the_paths_of_project_properties() {
+    ProjectProperties first = new ProjectProperties.Builder(":a", false).compileClasspath(List.of(new String("/caches/a.jar"))).mainLibraries(null).build();
+    ProjectProperties second = new ProjectProperties.Builder(":b", false).testCompileClasspath(List.of(new String("/caches/a.jar"))).build();
+
+    ProjectProperties internedFirst = interner.intern(first);
+    ProjectProperties internedSecond = interner.intern(second);
+
+    assertThat(internedFirst.projectName).isEqualTo(":a");
+    assertThat(internedFirst.mainLibraries).isNull();
+    assertThat(internedSecond.testCompileClasspath.get(0)).isSameAs(internedFirst.compileClasspath.get(0));
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PathRootsTest {
+
+  private final PathRoots roots = new PathRoots(Map.of(
+    PathRoots.ROOT_DIR, "/work/project",
+    PathRoots.GRADLE_USER_HOME, "/work/project/.gradle",
+    PathRoots.JAVA_HOME, "/usr/lib/jvm/java-17"));
+
+  @Test
+  void finds_the_deepest_root_containing_a_path() {
+    assertThat(roots.findRoot("/work/project/app/build/classes")).isEqualTo(PathRoots.ROOT_DIR);
+    assertThat(roots.findRoot("/work/project/.gradle/caches/a.jar")).isEqualTo(PathRoots.GRADLE_USER_HOME);
+    assertThat(roots.findRoot("/work/project")).isEqualTo(PathRoots.ROOT_DIR);
+    assertThat(roots.findRoot("/work/project-other/a.jar")).isNull();
+    assertThat(roots.findRoot("/opt/a.jar")).isNull();
+  }
+
+  @Test
+  void relativizes_and_resolves_paths() {
+    assertThat(roots.relativize(PathRoots.GRADLE_USER_HOME, "/work/project/.gradle/caches/a.jar")).isEqualTo("caches/a.jar");
+    assertThat(roots.relativize(PathRoots.ROOT_DIR, "/work/project")).isEmpty();
+    assertThat(roots.resolve(PathRoots.JAVA_HOME, "lib/jrt-fs.jar")).isEqualTo("/usr/lib/jvm/java-17/lib/jrt-fs.jar");
+    assertThat(roots.resolve(PathRoots.ROOT_DIR, "")).isEqualTo("/work/project");
+    assertThat(roots.resolve("unknown", "a.jar")).isNull();
+  }
+
+  @Test
+  void relocatable_paths_do_not_depend_on_the_location_of_the_roots() {
+    PathRoots movedRoots = new PathRoots(Map.of(
+      PathRoots.ROOT_DIR, "/agent/checkout",
+      PathRoots.GRADLE_USER_HOME, "/home/ci/.gradle",
+      PathRoots.JAVA_HOME, "/opt/java-17"));
+
+    List<String> relocatable = roots.toRelocatable(List.of("/work/project/.gradle/caches/a.jar", "/usr/lib/jvm/java-17/lib/jrt-fs.jar", "/opt/b.jar"));
+
+    assertThat(relocatable).containsExactly("{gradleUserHome}/caches/a.jar", "{javaHome}/lib/jrt-fs.jar", "/opt/b.jar");
+    assertThat(movedRoots.toRelocatable(List.of("/home/ci/.gradle/caches/a.jar", "/opt/java-17/lib/jrt-fs.jar", "/opt/b.jar")))
+      .isEqualTo(relocatable);
+    assertThat(PathRoots.NONE.toRelocatable(List.of("/opt/b.jar"))).containsExactly("/opt/b.jar");
+  }
+}
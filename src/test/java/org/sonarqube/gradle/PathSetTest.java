@@ -0,0 +1,75 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PathSetTest {
+
+  private final PathSet paths = new PathSet();
+
+  @Test
+  void adds_each_normalized_path_once() {
+    assertThat(paths.add(Path.of("/project/src/main/java"))).isTrue();
+    assertThat(paths.add(Path.of("/project/src/../src/main/java"))).isFalse();
+    assertThat(paths.add(Path.of("/project/src/main"))).isTrue();
+
+    assertThat(paths.size()).isEqualTo(2);
+    assertThat(paths.contains(Path.of("/project/src/main/java"))).isTrue();
+    assertThat(paths.contains(Path.of("/project/src"))).isFalse();
+    assertThat(paths.contains(Path.of("/project/src/main/java/org"))).isFalse();
+  }
+
+  @Test
+  void finds_ancestors() {
+    paths.add(Path.of("/project/src/main/java"));
+
+    assertThat(paths.containsAncestorOf(Path.of("/project/src/main/java"))).isTrue();
+    assertThat(paths.containsAncestorOf(Path.of("/project/src/main/java/org/acme/Foo.java"))).isTrue();
+    assertThat(paths.containsAncestorOf(Path.of("/project/src/main/javascript"))).isFalse();
+    assertThat(paths.containsAncestorOf(Path.of("/project/src/main"))).isFalse();
+    assertThat(paths.containsStrictAncestorOf(Path.of("/project/src/main/java"))).isFalse();
+    assertThat(paths.containsStrictAncestorOf(Path.of("/project/src/main/java/org"))).isTrue();
+  }
+
+  @Test
+  void resolves_relative_paths() {
+    paths.add(Path.of("src"));
+
+    assertThat(paths.containsAncestorOf(Path.of("src", "main").toAbsolutePath())).isTrue();
+    assertThat(paths.contains(Path.of("").toAbsolutePath().resolve("src"))).isTrue();
+  }
+
+  @Test
+  void filters_out_sub_files() {
+    File module = new File("/project/module");
+    File sources = new File("/project/module/src/main/java");
+    File other = new File("/project/other");
+
+    List<File> filtered = SonarUtils.filterOutSubFiles(List.of(sources, module, other, module));
+
+    assertThat(filtered).containsExactly(module, other, module);
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PropertyKeysTest {
+
+  @Test
+  void classifies_each_key_by_kind() {
+    PropertyKeys keys = PropertyKeys.classify(List.of(
+      "sonar.sources",
+      ":module.sonar.tests",
+      ":module.sonar.java.binaries",
+      ":module.sonar.java.test.libraries",
+      "sonar.libraries",
+      ":module.sonar.junit.reportPaths",
+      ":module.sonar.coverage.jacoco.xmlReportPaths",
+      "sonar.projectKey",
+      "sonar.unknown"));
+
+    assertThat(keys.get(PropertyKeys.Kind.SOURCE_DIRS)).extracting(key -> key.key).containsExactly("sonar.sources", ":module.sonar.tests");
+    assertThat(keys.get(PropertyKeys.Kind.BINARIES)).extracting(key -> key.key).containsExactly(":module.sonar.java.binaries");
+    assertThat(keys.get(PropertyKeys.Kind.LIBRARIES)).extracting(key -> key.key).containsExactly(":module.sonar.java.test.libraries", "sonar.libraries");
+    assertThat(keys.get(PropertyKeys.Kind.JUNIT_REPORTS)).extracting(key -> key.key).containsExactly(":module.sonar.junit.reportPaths");
+    assertThat(keys.get(PropertyKeys.Kind.JACOCO_REPORTS)).extracting(key -> key.key).containsExactly(":module.sonar.coverage.jacoco.xmlReportPaths");
+  }
+
+  @Test
+  void keeps_the_module_prefix_of_each_key() {
+    PropertyKeys keys = PropertyKeys.classify(List.of("sonar.java.libraries", ":parent.:parent:child.sonar.java.libraries"));
+
+    assertThat(keys.get(PropertyKeys.Kind.LIBRARIES)).extracting(PropertyKeys.Key::modulePrefix).containsExactly("", ":parent.:parent:child.");
+  }
+
+  @Test
+  void finds_the_report_paths_of_the_root_module() {
+    PropertyKeys keys = PropertyKeys.classify(List.of(
+      "sonar.coverageReportPaths",
+      "SONAR.androidLint.reportPaths",
+      "sonar.custom.xmlReportPath",
+      ":module.sonar.junit.reportPaths",
+      "sonar.sources"));
+
+    assertThat(keys.getReportPathKeys()).containsExactly("sonar.coverageReportPaths", "SONAR.androidLint.reportPaths", "sonar.custom.xmlReportPath");
+  }
+}
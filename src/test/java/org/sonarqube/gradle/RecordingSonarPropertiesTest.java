@@ -0,0 +1,78 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class RecordingSonarPropertiesTest {
+
+  private final Map<String, Object> properties = new LinkedHashMap<>(Map.of(
+    "sonar.sources", "src",
+    "sonar.tests", "test",
+    "sonar.java.binaries", "classes"));
+  private final RecordingSonarProperties sonarProperties = new RecordingSonarProperties(properties);
+
+  @Test
+  void records_the_keys_set_through_the_dsl_methods() {
+    sonarProperties.property("sonar.sources", "other");
+    sonarProperties.properties(Map.of("sonar.projectKey", "key"));
+
+    assertThat(properties).contains(entry("sonar.sources", "other"), entry("sonar.projectKey", "key"));
+    assertThat(sonarProperties.getWrittenKeys()).containsExactlyInAnyOrder("sonar.sources", "sonar.projectKey");
+    assertThat(sonarProperties.getChangedKeys()).containsExactlyInAnyOrder("sonar.sources", "sonar.projectKey");
+  }
+
+  @Test
+  void records_the_keys_set_through_the_map_and_its_entries() {
+    Map<String, Object> map = sonarProperties.getProperties();
+    map.putIfAbsent("sonar.exclusions", "**/gen/**");
+    map.entrySet().stream()
+      .filter(e -> e.getKey().equals("sonar.tests"))
+      .forEach(e -> e.setValue("other"));
+
+    assertThat(properties).contains(entry("sonar.exclusions", "**/gen/**"), entry("sonar.tests", "other"));
+    assertThat(sonarProperties.getWrittenKeys()).containsExactlyInAnyOrder("sonar.exclusions", "sonar.tests");
+  }
+
+  @Test
+  void keys_set_to_their_previous_value_or_removed_are_not_changed() {
+    Map<String, Object> map = sonarProperties.getProperties();
+    map.put("sonar.sources", "src");
+    map.put("sonar.tests", "other");
+    map.remove("sonar.tests");
+    map.remove("sonar.java.binaries");
+
+    assertThat(properties).containsOnlyKeys("sonar.sources");
+    assertThat(sonarProperties.getWrittenKeys()).containsExactlyInAnyOrder("sonar.sources", "sonar.tests");
+    assertThat(sonarProperties.getChangedKeys()).isEmpty();
+  }
+
+  @Test
+  void keys_without_previous_value_are_changed() {
+    sonarProperties.property("sonar.projectName", null);
+
+    assertThat(sonarProperties.getChangedKeys()).containsExactly("sonar.projectName");
+  }
+}
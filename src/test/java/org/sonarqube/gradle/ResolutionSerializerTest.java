@@ -21,10 +21,14 @@ package org.sonarqube.gradle;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
@@ -34,6 +38,7 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class ResolutionSerializerTest {
 
@@ -96,4 +101,124 @@ class ResolutionSerializerTest {
 
     assertThat(readProperties).isEmpty();
   }
+
+  @Test
+  void shares_paths_between_lists() throws IOException {
+    File file = tempDir.resolve("properties").toFile();
+    List<String> classpath = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      classpath.add("/home/user/.gradle/caches/modules-2/files-2.1/org.example/library" + i + "/1.0/library" + i + "-1.0.jar");
+    }
+    List<String> sources = List.of("/project/src/main/java", "/project/src/main/kotlin", "/project/\u00fcn\u00efc\u00f6d\u00e9/src", "/project/\u00fc");
+    ProjectProperties properties = new ProjectProperties.Builder(":app", false)
+      .compileClasspath(classpath)
+      .testCompileClasspath(classpath)
+      .mainLibraries(classpath.subList(0, 10))
+      .androidSources(sources)
+      .build();
+
+    ResolutionSerializer.write(file, properties);
+    ProjectProperties read = ResolutionSerializer.read(file).get();
+
+    assertThat(read.projectName).isEqualTo(":app");
+    assertThat(read.isRootProject).isFalse();
+    assertThat(read.compileClasspath).isEqualTo(classpath);
+    assertThat(read.testCompileClasspath).isEqualTo(classpath);
+    assertThat(read.mainLibraries).isEqualTo(classpath.subList(0, 10));
+    assertThat(read.testLibraries).isEmpty();
+    assertThat(read.androidSources).isEqualTo(sources);
+    assertThat(read.androidTests).isEmpty();
+    // Both classpaths take less than half of the size of a single one, as each path is stored once and mostly as a short suffix
+    assertThat(Files.size(file.toPath())).isLessThan(String.join("", classpath).length() / 2);
+  }
+
+  @Test
+  void reads_json_written_by_previous_versions() throws IOException {
+    Path file = tempDir.resolve("properties");
+    Files.writeString(file, "{\n" +
+      "  \"projectName\": \":lib\",\n" +
+      "  \"isRootProject\": true,\n" +
+      "  \"compileClasspath\": [\"/libs/a.jar\", \"/libs/b.jar\"],\n" +
+      "  \"testCompileClasspath\": [\"/libs/junit.jar\"],\n" +
+      "  \"mainLibraries\": [],\n" +
+      "  \"testLibraries\": []\n" +
+      "}", StandardCharsets.UTF_8);
+
+    ProjectProperties read = ResolutionSerializer.read(file.toFile()).get();
+
+    assertThat(read.projectName).isEqualTo(":lib");
+    assertThat(read.isRootProject).isTrue();
+    assertThat(read.compileClasspath).containsExactly("/libs/a.jar", "/libs/b.jar");
+    assertThat(read.testCompileClasspath).containsExactly("/libs/junit.jar");
+  }
+
+  @Test
+  void rejects_unknown_versions() throws IOException {
+    File file = tempDir.resolve("properties").toFile();
+    ResolutionSerializer.write(file, new ProjectProperties.Builder(TEST_PROJECT_NAME, true).compileClasspath(List.of("a.jar")).build());
+    byte[] bytes = Files.readAllBytes(file.toPath());
+    bytes[CompactResolutionFormat.MAGIC.length] = (byte) (CompactResolutionFormat.VERSION + 1);
+    Files.write(file.toPath(), bytes);
+
+    assertThatThrownBy(() -> ResolutionSerializer.read(file))
+      .isInstanceOf(IOException.class)
+      .hasMessage("Unsupported resolver file version " + (CompactResolutionFormat.VERSION + 1) + ", expected " + CompactResolutionFormat.VERSION);
+  }
+
+  @Test
+  void rejects_truncated_files() throws IOException {
+    File file = tempDir.resolve("properties").toFile();
+    ResolutionSerializer.write(file, new ProjectProperties.Builder(TEST_PROJECT_NAME, true).compileClasspath(List.of("a.jar", "b.jar")).build());
+    byte[] bytes = Files.readAllBytes(file.toPath());
+    Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 1));
+
+    assertThatThrownBy(() -> ResolutionSerializer.read(file)).isInstanceOf(IOException.class);
+  }
+
+  @Test
+  void writes_several_projects_to_a_single_file() throws IOException {
+    File file = tempDir.resolve("aggregated-properties").toFile();
+    List<String> shared = List.of("/libs/shared-1.0.jar", "/libs/shared-2.0.jar");
+    ProjectProperties root = new ProjectProperties.Builder(":", true).compileClasspath(shared).build();
+    ProjectProperties empty = new ProjectProperties.Builder(":empty", false).build();
+    ProjectProperties app = new ProjectProperties.Builder(":app", false)
+      .compileClasspath(List.of("/libs/shared-2.0.jar", "/libs/app.jar"))
+      .testCompileClasspath(shared)
+      .build();
+
+    ResolutionSerializer.writeAll(file, List.of(root, empty, app));
+    List<ProjectProperties> read = ResolutionSerializer.readAll(file);
+
+    assertThat(read).extracting(properties -> properties.projectName).containsExactly(":", ":app");
+    assertThat(read.get(0).compileClasspath).isEqualTo(shared);
+    assertThat(read.get(1).compileClasspath).containsExactly("/libs/shared-2.0.jar", "/libs/app.jar");
+    assertThat(read.get(1).testCompileClasspath).isEqualTo(shared);
+    assertThat(ResolutionSerializer.read(file)).get().extracting(properties -> properties.projectName).isEqualTo(":");
+
+    ResolutionSerializer.writeAll(file, List.of(empty));
+    assertThat(file).doesNotExist();
+    assertThat(ResolutionSerializer.readAll(file)).isEmpty();
+  }
+
+  @Test
+  void rebases_paths_below_roots_on_the_roots_of_the_reading_build() throws IOException {
+    File file = tempDir.resolve("properties").toFile();
+    PathRoots writingRoots = new PathRoots(Map.of(PathRoots.ROOT_DIR, "/agent1/checkout", PathRoots.GRADLE_USER_HOME, "/agent1/checkout/.gradle"));
+    PathRoots readingRoots = new PathRoots(Map.of(PathRoots.ROOT_DIR, "/agent2/work", PathRoots.GRADLE_USER_HOME, "/home/ci/.gradle"));
+    ProjectProperties properties = new ProjectProperties.Builder(":app", false)
+      .compileClasspath(List.of("/agent1/checkout/lib/build/classes", "/agent1/checkout/.gradle/caches/a.jar", "/opt/sdk/android.jar"))
+      .androidSources(List.of("/agent1/checkout", "/agent1/checkout-other/src"))
+      .build();
+
+    ResolutionSerializer.writeAll(file, List.of(properties), writingRoots);
+    ProjectProperties read = ResolutionSerializer.readAll(file, readingRoots).get(0);
+
+    assertThat(read.compileClasspath).containsExactly("/agent2/work/lib/build/classes", "/home/ci/.gradle/caches/a.jar", "/opt/sdk/android.jar");
+    assertThat(read.androidSources).containsExactly("/agent2/work", "/agent1/checkout-other/src");
+    assertThat(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8)).doesNotContain("agent1/checkout/");
+
+    assertThatThrownBy(() -> ResolutionSerializer.readAll(file, PathRoots.NONE))
+      .isInstanceOf(IOException.class)
+      .hasMessageStartingWith("Unknown root");
+  }
 }
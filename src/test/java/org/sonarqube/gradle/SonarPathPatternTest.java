@@ -0,0 +1,95 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.nio.file.Paths;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SonarPathPatternTest {
+
+  @ParameterizedTest
+  @CsvSource({
+    "**/*.js, app.js, true",
+    "**/*.js, web/app.js, true",
+    "**/*.js, web/app.jsx, false",
+    "*.js, web/app.js, false",
+    "web/**, web/lib/app.js, true",
+    "web/**, other/web/app.js, false",
+    "**/vendor/**, vendor/lib.js, true",
+    "**/vendor/**, web/vendor/a/lib.js, true",
+    "web/, web/app.js, true",
+    "src/**/generated/*.ts, src/generated/api.ts, true",
+    "src/**/generated/*.ts, src/a/b/generated/api.ts, true",
+    "src/**/generated/*.ts, src/a/b/generated/x/api.ts, false",
+    "file?.txt, file1.txt, true",
+    "file?.txt, file12.txt, false",
+    "app.min.js, app-min-js, false",
+  })
+  void matches_relative_paths(String pattern, String path, boolean expected) {
+    SonarPathPattern sonarPathPattern = new SonarPathPattern(pattern);
+    assertThat(sonarPathPattern.matches(path)).isEqualTo(expected);
+    assertThat(sonarPathPattern.matches(Paths.get(path))).isEqualTo(expected);
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    "**/vendor/**, vendor, true",
+    "**/vendor/**, web/vendor, true",
+    "**/vendor/**, web/vendors, false",
+    "web/**, web, true",
+    "web/, web, true",
+    "web/**/*.js, web, false",
+    "**, anything, true",
+    "**/*.js, web, false",
+  })
+  void knows_when_a_whole_directory_matches(String pattern, String directory, boolean expected) {
+    assertThat(new SonarPathPattern(pattern).matchesEverythingBelow(directory)).isEqualTo(expected);
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    "web/**/*.js, web, true",
+    "web/**/*.js, web/lib, true",
+    "web/**/*.js, docs, false",
+    "web/app/*.js, web/lib, false",
+    "*.js, web, false",
+    "**/*.js, web, true",
+    "src/*/main/**, src/a, true",
+    "src/*/main/**, src/a/test, false",
+  })
+  void knows_when_a_directory_may_contain_matching_paths(String pattern, String directory, boolean expected) {
+    assertThat(new SonarPathPattern(pattern).mayMatchBelow(directory)).isEqualTo(expected);
+  }
+
+  @Test
+  void absolute_patterns_are_prefixed_with_file() {
+    SonarPathPattern pattern = new SonarPathPattern(" file:/opt/project/web/** ");
+
+    assertThat(pattern.isAbsolute()).isTrue();
+    assertThat(pattern.matches("/opt/project/web/app.js")).isTrue();
+    assertThat(pattern.matchesEverythingBelow("/opt/project/web")).isTrue();
+    assertThat(pattern).hasToString("file:/opt/project/web/**");
+    assertThat(new SonarPathPattern("web/**").isAbsolute()).isFalse();
+  }
+}
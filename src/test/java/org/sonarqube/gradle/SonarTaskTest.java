@@ -23,10 +23,12 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -362,6 +364,98 @@ class SonarTaskTest {
       .containsEntry("sonar.java.test.libraries", testLib1.toAbsolutePath().toString());
   }
 
+  @Test
+  void processResolverFile_processes_all_projects_of_an_aggregated_file(@TempDir File tempDir) throws IOException {
+    Map<String, String> result = new HashMap<>();
+    File resolverFile = new File(tempDir, "aggregated-properties");
+    Path lib = Files.createFile(tempDir.toPath().resolve("lib.jar"));
+
+    ResolutionSerializer.writeAll(resolverFile, List.of(
+      new ProjectProperties.Builder(":", true).compileClasspath(List.of(lib.toString())).build(),
+      new ProjectProperties.Builder(":sub", false).testCompileClasspath(List.of(lib.toString())).build()));
+    SonarTask.processResolverFile(resolverFile, result);
+
+    assertThat(result)
+      .containsEntry("sonar.java.libraries", lib.toString())
+      .containsEntry(":sub.sonar.java.libraries", "")
+      .containsEntry(":sub.sonar.java.test.libraries", lib.toString());
+  }
+
+  @Test
+  void readResolverFiles_keeps_the_order_of_the_files_in_parallel(@TempDir File tempDir) throws IOException {
+    Path lib = Files.createFile(tempDir.toPath().resolve("lib.jar"));
+    List<File> resolverFiles = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      File resolverFile = new File(tempDir, "resolver" + i);
+      ProjectProperties props = new ProjectProperties.Builder(":module" + i, false)
+        .compileClasspath(List.of(lib.toString(), tempDir.toPath().resolve("missing" + i + ".jar").toString()))
+        .build();
+      ResolutionSerializer.write(resolverFile, props);
+      resolverFiles.add(resolverFile);
+    }
+    resolverFiles.add(25, new File(tempDir, "non-existent-file"));
+
+    List<SonarTask.ResolvedModule> serial = SonarTask.readResolverFiles(resolverFiles, PathRoots.NONE, new PathInterner(), new FileStatusCache(), 1);
+    List<SonarTask.ResolvedModule> parallel = SonarTask.readResolverFiles(resolverFiles, PathRoots.NONE, new PathInterner(), new FileStatusCache(), 4);
+
+    assertThat(parallel).hasSize(50);
+    assertThat(parallel).extracting(module -> module.properties.projectName)
+      .containsExactlyElementsOf(serial.stream().map(module -> module.properties.projectName).collect(Collectors.toList()))
+      .startsWith(":module0", ":module1", ":module2");
+    assertThat(parallel).extracting(module -> module.libraries).containsOnly(lib.toString());
+
+    Map<String, String> result = new HashMap<>();
+    parallel.forEach(module -> module.mergeInto(result));
+    assertThat(result)
+      .containsEntry(":module49.sonar.java.libraries", lib.toString())
+      .containsEntry(":module49.sonar.java.test.libraries", "");
+  }
+
+  @Test
+  void readResolverFiles_shares_the_values_of_modules_with_the_same_classpath(@TempDir File tempDir) throws IOException {
+    Path lib = Files.createFile(tempDir.toPath().resolve("lib.jar"));
+    List<File> resolverFiles = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      File resolverFile = new File(tempDir, "resolver" + i);
+      ResolutionSerializer.write(resolverFile, new ProjectProperties.Builder(":module" + i, false)
+        .compileClasspath(List.of(lib.toString()))
+        .testCompileClasspath(List.of(lib.toString()))
+        .build());
+      resolverFiles.add(resolverFile);
+    }
+    PathInterner interner = new PathInterner();
+
+    List<SonarTask.ResolvedModule> modules = SonarTask.readResolverFiles(resolverFiles, PathRoots.NONE, interner, new FileStatusCache(), 2);
+
+    assertThat(modules.get(1).properties.compileClasspath).isSameAs(modules.get(0).properties.compileClasspath);
+    assertThat(modules.get(2).libraries).isSameAs(modules.get(0).libraries).isSameAs(modules.get(0).testLibraries);
+    assertThat(interner.getSharedLists()).isPositive();
+  }
+
+  @Test
+  void deduplicateLibraries_removes_copies_of_the_same_library(@TempDir Path tempDir) throws IOException {
+    Path lib = Files.writeString(tempDir.resolve("lib.jar"), "library");
+    Path copy = Files.writeString(Files.createDirectories(tempDir.resolve("transformed")).resolve("lib.jar"), "library");
+    Path other = Files.writeString(tempDir.resolve("other.jar"), "other library");
+    Path classes = Files.createDirectories(tempDir.resolve("classes"));
+    String libraries = String.join(",", lib.toString(), copy.toString(), classes.toString(), other.toString());
+    Map<String, String> properties = new HashMap<>();
+    properties.put(":app.sonar.java.libraries", libraries);
+    properties.put(":app.sonar.libraries", libraries);
+    properties.put(":lib.sonar.java.test.libraries", copy.toString());
+    properties.put(":app.sonar.sources", libraries);
+
+    int removed = SonarTask.deduplicateLibraries(properties, new LibraryHashes());
+
+    String expected = String.join(",", lib.toString(), classes.toString(), other.toString());
+    assertThat(removed).isEqualTo(2);
+    assertThat(properties)
+      .containsEntry(":app.sonar.java.libraries", expected)
+      .containsEntry(":app.sonar.libraries", expected)
+      .containsEntry(":lib.sonar.java.test.libraries", copy.toString())
+      .containsEntry(":app.sonar.sources", libraries);
+  }
+
   @Test
   void filterPathProperties_removes_non_existing_source_paths(@TempDir File tempDir) {
     File existingSources = new File(tempDir, "src/main/java");
@@ -517,4 +611,37 @@ class SonarTaskTest {
       .containsEntry("sonar.sources", existingAutoSources.getAbsolutePath())
       .containsEntry("sonar.tests", nonExistingUserDefinedTestSources.getAbsolutePath());
   }
+
+  @Test
+  void filterPathProperties_gives_the_same_result_in_parallel(@TempDir File tempDir) throws IOException {
+    Map<String, String> properties = new HashMap<>();
+    for (int i = 0; i < 20; i++) {
+      File module = new File(tempDir, "module" + i);
+      File sources = new File(module, "src/main/java");
+      File testResults = new File(module, "build/test-results/test");
+      File generated = new File(module, "build/generated/sources");
+      sources.mkdirs();
+      generated.mkdirs();
+      if (i % 2 == 0) {
+        testResults.mkdirs();
+        Files.createFile(testResults.toPath().resolve("TEST-Module" + i + ".xml"));
+      }
+      String prefix = ":module" + i + ".";
+      properties.put(prefix + "sonar.sources", sources.getAbsolutePath() + "," + generated.getAbsolutePath() + "," + new File(module, "src/main/kotlin").getAbsolutePath());
+      properties.put(prefix + "sonar.tests", new File(module, "src/test/java").getAbsolutePath());
+      properties.put(prefix + "sonar.junit.reportPaths", testResults.getAbsolutePath());
+    }
+    Map<String, String> serial = new HashMap<>(properties);
+    Map<String, String> parallel = new HashMap<>(properties);
+
+    SonarTask.filterPathProperties(serial, Set.of(), new FileStatusCache(), 1);
+    SonarTask.filterPathProperties(parallel, Set.of(), new FileStatusCache(), 4);
+
+    assertThat(parallel).isEqualTo(serial);
+    assertThat(serial)
+      .containsEntry(":module0.sonar.sources", new File(tempDir, "module0/src/main/java").getAbsolutePath())
+      .containsEntry(":module0.sonar.tests", "")
+      .containsEntry(":module0.sonar.junit.reportPaths", new File(tempDir, "module0/build/test-results/test").getAbsolutePath())
+      .doesNotContainKey(":module1.sonar.junit.reportPaths");
+  }
 }
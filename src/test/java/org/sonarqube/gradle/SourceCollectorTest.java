@@ -95,6 +95,22 @@ class SourceCollectorTest {
     assertThat(visitor.preVisitDirectory(srcMainJs, null)).isEqualTo(FileVisitResult.CONTINUE);
   }
 
+  @Test
+  void visitorSkipsDirectoriesInsideExistingSources(@TempDir Path projectDir) throws IOException {
+    Path srcMain = createDirectory(createDirectory(projectDir, "src"), "main");
+    Path srcMainJava = createDirectory(srcMain, "java");
+    Path nestedPackage = createDirectory(createDirectory(srcMainJava, "org"), "acme");
+
+    SourceCollector visitor = SourceCollector.builder()
+      .setRoot(projectDir)
+      .setExistingSources(Collections.singleton(srcMain.resolve("../main/java")))
+      .build();
+
+    assertThat(visitor.preVisitDirectory(nestedPackage, null)).isEqualTo(FileVisitResult.SKIP_SUBTREE);
+    assertThat(visitor.preVisitDirectory(srcMainJava, null)).isEqualTo(FileVisitResult.SKIP_SUBTREE);
+    assertThat(visitor.preVisitDirectory(srcMain, null)).isEqualTo(FileVisitResult.CONTINUE);
+  }
+
   @Test
   void visitorCollectsConsistently() throws IOException {
     // File in the existing source is not repeated in the collected files
@@ -0,0 +1,139 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonarqube.gradle.SonarUtils.InputFileType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SourceCompactorTest {
+
+  @TempDir
+  Path root;
+
+  @BeforeEach
+  void setup() throws IOException {
+    createFiles(
+      "pom.xml",
+      "scripts/build.sh",
+      "scripts/release.sh",
+      "scripts/deploy/upload.sh",
+      "docs/index.md",
+      "docs/Generated.class",
+      "tools/run.sh",
+      "tools/test/check.sh",
+      "config/.env.prod",
+      "config/app.yml",
+      "module1/script.sh",
+      "module1/extras/run.py",
+      "web/app.js",
+      "web/build/bundle.js");
+    Files.createDirectories(root.resolve("empty"));
+  }
+
+  @Test
+  void compacts_fully_collected_directories() throws IOException {
+    Map<Path, InputFileType> compacted = compact();
+
+    assertThat(compacted).containsOnly(
+      Map.entry(root.resolve("pom.xml"), InputFileType.MAIN),
+      Map.entry(root.resolve("scripts"), InputFileType.MAIN),
+      // Generated.class is not collected
+      Map.entry(root.resolve("docs/index.md"), InputFileType.MAIN),
+      // Files of different types
+      Map.entry(root.resolve("tools/run.sh"), InputFileType.MAIN),
+      Map.entry(root.resolve("tools/test"), InputFileType.TEST),
+      // Hidden files are not indexed by the engine when listing a directory
+      Map.entry(root.resolve("config/.env.prod"), InputFileType.MAIN),
+      Map.entry(root.resolve("config/app.yml"), InputFileType.MAIN),
+      // Base directory of another module
+      Map.entry(root.resolve("module1/script.sh"), InputFileType.MAIN),
+      Map.entry(root.resolve("module1/extras/run.py"), InputFileType.MAIN),
+      // The build directory is not walked
+      Map.entry(root.resolve("web/app.js"), InputFileType.MAIN));
+  }
+
+  @Test
+  void compacted_directories_contain_exactly_the_collected_files() throws IOException {
+    SourceTreeWalker walker = new SourceTreeWalker(SourceCollector.builder().setRoot(root).build(), null);
+    Map<Path, InputFileType> collected = walker.walk();
+
+    Map<Path, InputFileType> compacted = SourceCompactor.compact(root, walker.getIndex(), List.of(root.resolve("module1")));
+
+    assertThat(expand(compacted)).isEqualTo(collected);
+  }
+
+  @Test
+  void compaction_works_on_reused_index_entries() throws IOException {
+    SourceCollector collector = SourceCollector.builder().setRoot(root).build();
+    SourceTreeWalker firstWalker = new SourceTreeWalker(collector, null);
+    firstWalker.walk();
+    SourceTreeWalker secondWalker = new SourceTreeWalker(collector, firstWalker.getIndex());
+    secondWalker.walk();
+
+    assertThat(SourceCompactor.compact(root, secondWalker.getIndex(), List.of(root.resolve("module1"))))
+      .isEqualTo(compact());
+  }
+
+  private Map<Path, InputFileType> compact() throws IOException {
+    SourceTreeWalker walker = new SourceTreeWalker(SourceCollector.builder().setRoot(root).build(), null);
+    walker.walk();
+    return SourceCompactor.compact(root, walker.getIndex(), List.of(root.resolve("module1")));
+  }
+
+  /**
+   * Lists the files the scanner engine would index for the given sources.
+   */
+  private static Map<Path, InputFileType> expand(Map<Path, InputFileType> sources) throws IOException {
+    Map<Path, InputFileType> files = new HashMap<>();
+    for (Map.Entry<Path, InputFileType> source : sources.entrySet()) {
+      if (Files.isDirectory(source.getKey())) {
+        Set<Path> below;
+        try (Stream<Path> walk = Files.walk(source.getKey())) {
+          below = walk.filter(Files::isRegularFile).collect(Collectors.toSet());
+        }
+        below.forEach(file -> files.put(file, source.getValue()));
+      } else {
+        files.put(source.getKey(), source.getValue());
+      }
+    }
+    return files;
+  }
+
+  private void createFiles(String... paths) throws IOException {
+    for (String path : paths) {
+      Path file = root.resolve(path);
+      Files.createDirectories(file.getParent());
+      Files.createFile(file);
+    }
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SourceOverlapsTest {
+
+  @TempDir
+  Path projectDir;
+
+  @Test
+  void does_not_change_disjoint_sources() throws IOException {
+    Map<String, String> properties = multiModuleProject();
+    properties.put("sonar.sources", dir("src/main/java"));
+    Map<String, String> expected = new HashMap<>(properties);
+
+    assertThat(SourceOverlaps.resolve(properties)).isZero();
+
+    assertThat(properties).isEqualTo(expected);
+  }
+
+  @Test
+  void lists_the_content_of_a_root_directory_containing_module_sources() throws IOException {
+    Map<String, String> properties = multiModuleProject();
+    properties.put("sonar.sources", ".");
+    properties.put("sonar.exclusions", "**/*.gen");
+    String rootScript = file("build.gradle");
+    String moduleScript = file("moduleA/build.gradle");
+    String moduleResources = dir("moduleA/src/main/resources");
+    String moduleDocs = dir("moduleB/docs");
+
+    assertThat(SourceOverlaps.resolve(properties)).isEqualTo(2);
+
+    assertThat(properties)
+      .containsEntry("sonar.sources", String.join(",", rootScript, moduleScript, moduleResources, moduleDocs))
+      .containsEntry("sonar.exclusions", "**/*.gen")
+      .containsEntry(":moduleA.sonar.sources", dir("moduleA/src/main/java"))
+      .containsEntry(":moduleB.sonar.tests", dir("moduleB/src/test/java"))
+      .doesNotContainKey("sonar.test.exclusions");
+  }
+
+  @Test
+  void excludes_submodule_sources_from_the_module_directory() throws IOException {
+    Map<String, String> properties = multiModuleProjectWithSubmodule();
+
+    assertThat(SourceOverlaps.resolve(properties)).isEqualTo(1);
+
+    assertThat(properties)
+      .containsEntry(":moduleA.sonar.sources", dir("moduleA"))
+      .containsEntry(":moduleA.sonar.exclusions", "**/*.gen,sub/src/main/java/**");
+  }
+
+  @Test
+  void keeps_the_exclusions_inherited_by_a_module() throws IOException {
+    Map<String, String> properties = multiModuleProject();
+    properties.put("sonar.test.exclusions", "**/generated/**");
+    properties.put(":moduleA.sonar.tests", dir("moduleA"));
+    properties.put(":moduleB.sonar.sources", dir("moduleA/shared"));
+
+    assertThat(SourceOverlaps.resolve(properties)).isEqualTo(1);
+
+    assertThat(properties)
+      .containsEntry("sonar.test.exclusions", "**/generated/**")
+      .containsEntry(":moduleA.sonar.test.exclusions", "**/generated/**,shared/**")
+      .doesNotContainKey(":moduleA.sonar.exclusions");
+  }
+
+  @Test
+  void keeps_a_shared_path_in_the_module_containing_it() throws IOException {
+    Map<String, String> properties = multiModuleProject();
+    String moduleSources = dir("moduleA/src/main/java");
+    properties.put("sonar.sources", moduleSources + "," + dir("src/main/java"));
+
+    assertThat(SourceOverlaps.resolve(properties)).isEqualTo(1);
+
+    assertThat(properties)
+      .containsEntry("sonar.sources", dir("src/main/java"))
+      .containsEntry(":moduleA.sonar.sources", moduleSources);
+  }
+
+  @Test
+  void does_not_change_user_defined_sources() throws IOException {
+    Map<String, String> properties = multiModuleProject();
+    String moduleSources = dir("moduleA/src/main/java");
+    properties.put("sonar.sources", moduleSources + "," + dir("src/main/java"));
+    Map<String, String> expected = new HashMap<>(properties);
+
+    assertThat(SourceOverlaps.resolve(properties, Set.of("sonar.sources"), new FileStatusCache())).isZero();
+
+    assertThat(properties).isEqualTo(expected);
+  }
+
+  @Test
+  void does_not_change_user_defined_exclusions() throws IOException {
+    Map<String, String> properties = multiModuleProjectWithSubmodule();
+    Map<String, String> expected = new HashMap<>(properties);
+
+    assertThat(SourceOverlaps.resolve(properties, Set.of(":moduleA.sonar.exclusions"), new FileStatusCache())).isZero();
+
+    assertThat(properties).isEqualTo(expected);
+  }
+
+  @Test
+  void does_not_exclude_from_user_defined_sources() throws IOException {
+    Map<String, String> properties = multiModuleProject();
+    properties.put("sonar.sources", ".");
+
+    assertThat(SourceOverlaps.resolve(properties, Set.of("sonar.sources"), new FileStatusCache())).isZero();
+
+    assertThat(properties).doesNotContainKey("sonar.exclusions");
+  }
+
+  @Test
+  void ignores_wildcards() throws IOException {
+    Map<String, String> properties = multiModuleProject();
+    properties.put("sonar.sources", "**/src/main/java");
+    Map<String, String> expected = new HashMap<>(properties);
+
+    assertThat(SourceOverlaps.resolve(properties)).isZero();
+
+    assertThat(properties).isEqualTo(expected);
+  }
+
+  private Map<String, String> multiModuleProject() throws IOException {
+    Map<String, String> properties = new HashMap<>();
+    properties.put("sonar.projectBaseDir", projectDir.toString());
+    properties.put("sonar.modules", ":moduleA,:moduleB");
+    properties.put("sonar.sources", "");
+    properties.put("sonar.tests", "");
+    properties.put(":moduleA.sonar.projectBaseDir", dir("moduleA"));
+    properties.put(":moduleA.sonar.sources", dir("moduleA/src/main/java"));
+    properties.put(":moduleA.sonar.tests", "");
+    properties.put(":moduleB.sonar.projectBaseDir", dir("moduleB"));
+    properties.put(":moduleB.sonar.sources", "");
+    properties.put(":moduleB.sonar.tests", dir("moduleB/src/test/java"));
+    return properties;
+  }
+
+  private Map<String, String> multiModuleProjectWithSubmodule() throws IOException {
+    Map<String, String> properties = multiModuleProject();
+    properties.put(":moduleA.sonar.sources", dir("moduleA"));
+    properties.put(":moduleA.sonar.exclusions", "**/*.gen");
+    properties.put(":moduleA.sonar.modules", ":moduleA:sub");
+    properties.put(":moduleA.:moduleA:sub.sonar.projectBaseDir", dir("moduleA/sub"));
+    properties.put(":moduleA.:moduleA:sub.sonar.sources", dir("moduleA/sub/src/main/java"));
+    return properties;
+  }
+
+  private String dir(String relativePath) throws IOException {
+    return Files.createDirectories(projectDir.resolve(relativePath)).toString();
+  }
+
+  private String file(String relativePath) throws IOException {
+    Path file = projectDir.resolve(relativePath);
+    Files.createDirectories(file.getParent());
+    return Files.writeString(file, "").toString();
+  }
+}
@@ -0,0 +1,232 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonarqube.gradle.SonarUtils.InputFileType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SourceTreeWalkerTest {
+
+  private static final FileTime AN_HOUR_AGO = FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS));
+
+  @TempDir
+  Path root;
+
+  @TempDir
+  Path buildDir;
+
+  private Path scripts;
+  private Path integrationTests;
+
+  @BeforeEach
+  void setup() throws IOException {
+    scripts = Files.createDirectories(root.resolve("scripts"));
+    integrationTests = Files.createDirectories(root.resolve("integration-tests"));
+    Files.createDirectories(root.resolve("build"));
+    Files.createFile(root.resolve("pom.xml"));
+    Files.createFile(scripts.resolve("run.sh"));
+    Files.createFile(integrationTests.resolve("run.py"));
+    Files.createFile(root.resolve("build").resolve("generated.py"));
+  }
+
+  @Test
+  void walk_collects_the_same_files_as_the_visitor() throws IOException {
+    SourceCollector visitor = SourceCollector.builder().setRoot(root).build();
+    Files.walkFileTree(root, visitor);
+
+    Map<Path, InputFileType> collected = new SourceTreeWalker(SourceCollector.builder().setRoot(root).build(), null).walk();
+
+    assertThat(collected).containsOnlyKeys(visitor.getCollectedSources());
+    assertThat(collected)
+      .containsEntry(root.resolve("pom.xml"), InputFileType.MAIN)
+      .containsEntry(scripts.resolve("run.sh"), InputFileType.MAIN)
+      .containsEntry(integrationTests.resolve("run.py"), InputFileType.TEST);
+  }
+
+  @Test
+  void parallel_walk_collects_the_same_files_as_sequential_walk() throws IOException {
+    for (int i = 0; i < 5; i++) {
+      Path deep = Files.createDirectories(root.resolve("module" + i).resolve("src").resolve("test").resolve("resources"));
+      Files.createFile(deep.resolve("data" + i + ".json"));
+      Files.createFile(root.resolve("module" + i).resolve("build.sh"));
+      Files.createFile(root.resolve("module" + i).resolve("src").resolve("Main.java"));
+    }
+    SourceCollector collector = SourceCollector.builder().setRoot(root).build();
+
+    SourceTreeWalker sequential = new SourceTreeWalker(collector, null, 1);
+    Map<Path, InputFileType> sequentialResult = Map.copyOf(sequential.walk());
+    SourceTreeWalker parallel = new SourceTreeWalker(collector, null, 4);
+    Map<Path, InputFileType> parallelResult = parallel.walk();
+
+    assertThat(parallelResult)
+      .isEqualTo(sequentialResult)
+      .containsEntry(root.resolve("module3/src/test/resources/data3.json"), InputFileType.TEST)
+      .containsEntry(root.resolve("module3/build.sh"), InputFileType.MAIN)
+      .doesNotContainKey(root.resolve("module3/src/Main.java"));
+    assertThat(parallel.getIndex().size()).isEqualTo(sequential.getIndex().size());
+  }
+
+  @Test
+  void parallelism_must_be_positive() {
+    SourceCollector collector = SourceCollector.builder().setRoot(root).build();
+    assertThatThrownBy(() -> new SourceTreeWalker(collector, null, 0))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("Parallelism must be at least 1, got 0");
+  }
+
+  @Test
+  void walk_reuses_unchanged_directories_from_the_previous_index() throws IOException {
+    Path indexFile = buildDir.resolve(ScanAllIndex.FILE_NAME);
+    SourceCollector collector = SourceCollector.builder().setRoot(root).build();
+    markAsUnchangedSinceAnHour(root, scripts, integrationTests);
+    SourceTreeWalker firstWalker = new SourceTreeWalker(collector, null);
+    firstWalker.walk();
+    firstWalker.getIndex().write(indexFile);
+
+    // A file added without touching the directory stamp is not seen, which proves that the listing was reused
+    Path hiddenFromIndex = Files.createFile(scripts.resolve("deploy.sh"));
+    Files.setLastModifiedTime(scripts, AN_HOUR_AGO);
+    // A file added in a modified directory is seen
+    Path added = Files.createFile(integrationTests.resolve("check.py"));
+
+    ScanAllIndex previousIndex = ScanAllIndex.read(indexFile, collector.fingerprint()).orElseThrow();
+    Map<Path, InputFileType> collected = new SourceTreeWalker(collector, previousIndex).walk();
+
+    assertThat(collected)
+      .containsEntry(root.resolve("pom.xml"), InputFileType.MAIN)
+      .containsEntry(scripts.resolve("run.sh"), InputFileType.MAIN)
+      .containsEntry(added, InputFileType.TEST)
+      .doesNotContainKey(hiddenFromIndex);
+  }
+
+  @Test
+  void recently_modified_directories_are_always_listed_again() throws IOException {
+    SourceCollector collector = SourceCollector.builder().setRoot(root).build();
+    SourceTreeWalker firstWalker = new SourceTreeWalker(collector, null);
+    firstWalker.walk();
+
+    Path added = Files.createFile(scripts.resolve("deploy.sh"));
+    // Same stamp as in the index, but too close to the previous walk to be trusted
+    Files.setLastModifiedTime(scripts, FileTime.fromMillis(firstWalker.getIndex().get("scripts").lastModified));
+
+    Map<Path, InputFileType> collected = new SourceTreeWalker(collector, firstWalker.getIndex()).walk();
+
+    assertThat(collected).containsKey(added);
+  }
+
+  @Test
+  void directories_are_listed_again_when_their_git_ignore_rules_change() throws IOException {
+    Files.createDirectories(root.resolve(".git"));
+    Path gitignore = Files.write(scripts.resolve(".gitignore"), "*.sh\n".getBytes(StandardCharsets.UTF_8));
+    markAsUnchangedSinceAnHour(root, scripts, integrationTests);
+    SourceCollector collector = SourceCollector.builder()
+      .setRoot(root)
+      .setGitFilter(GitFilter.create(root, GitFilter.Mode.GITIGNORE).orElseThrow())
+      .build();
+    SourceTreeWalker firstWalker = new SourceTreeWalker(collector, null);
+    assertThat(firstWalker.walk()).doesNotContainKey(scripts.resolve("run.sh"));
+
+    // Editing a file does not change the stamp of its directory
+    Files.write(gitignore, "*.bat\n".getBytes(StandardCharsets.UTF_8));
+    Files.setLastModifiedTime(scripts, AN_HOUR_AGO);
+    SourceCollector nextCollector = SourceCollector.builder()
+      .setRoot(root)
+      .setGitFilter(GitFilter.create(root, GitFilter.Mode.GITIGNORE).orElseThrow())
+      .build();
+    Map<Path, InputFileType> collected = new SourceTreeWalker(nextCollector, firstWalker.getIndex()).walk();
+
+    assertThat(collected)
+      .containsKey(scripts.resolve("run.sh"))
+      .containsKey(root.resolve("pom.xml"));
+  }
+
+  @Test
+  void files_changed_in_unchanged_directories_are_sniffed_again() throws IOException {
+    Path notes = Files.write(scripts.resolve("notes.sh"), "small".getBytes(StandardCharsets.UTF_8));
+    Path data = Files.write(scripts.resolve("data.sh"), new byte[] {1, 0, 2});
+    Files.setLastModifiedTime(notes, AN_HOUR_AGO);
+    Files.setLastModifiedTime(data, AN_HOUR_AGO);
+    markAsUnchangedSinceAnHour(root, scripts, integrationTests);
+    SourceCollector collector = SourceCollector.builder().setRoot(root).setContentSniffer(new ContentSniffer(true, 10)).build();
+    SourceTreeWalker firstWalker = new SourceTreeWalker(collector, null);
+    assertThat(firstWalker.walk()).containsKey(notes).doesNotContainKey(data);
+    assertThat(firstWalker.getIndex().get("scripts").allFilesCollected).isFalse();
+
+    // Growing a file in place does not change the stamp of its directory
+    Files.write(notes, "larger than the ceiling".getBytes(StandardCharsets.UTF_8));
+    Files.setLastModifiedTime(scripts, AN_HOUR_AGO);
+    ContentSniffer sniffer = new ContentSniffer(true, 10);
+    SourceCollector nextCollector = SourceCollector.builder().setRoot(root).setContentSniffer(sniffer).build();
+    SourceTreeWalker nextWalker = new SourceTreeWalker(nextCollector, firstWalker.getIndex());
+    Map<Path, InputFileType> collected = nextWalker.walk();
+
+    assertThat(collected)
+      .containsKey(scripts.resolve("run.sh"))
+      .doesNotContainKeys(notes, data);
+    assertThat(sniffer.getOversizedFiles()).isEqualTo(1);
+    // The verdict of the unchanged binary file is reused, and still counted
+    assertThat(sniffer.getBinaryFiles()).isEqualTo(1);
+    assertThat(nextWalker.getIndex().get("scripts").sniffedFiles.get("notes.sh").verdict).isEqualTo(ContentSniffer.Verdict.OVERSIZED);
+
+    // Shrinking it back brings it back
+    Files.write(notes, "small".getBytes(StandardCharsets.UTF_8));
+    Files.setLastModifiedTime(scripts, AN_HOUR_AGO);
+    SourceCollector lastCollector = SourceCollector.builder().setRoot(root).setContentSniffer(new ContentSniffer(true, 10)).build();
+    assertThat(new SourceTreeWalker(lastCollector, nextWalker.getIndex()).walk()).containsKey(notes);
+  }
+
+  @Test
+  void index_written_with_another_configuration_is_ignored() throws IOException {
+    Path indexFile = buildDir.resolve(ScanAllIndex.FILE_NAME);
+    SourceCollector collector = SourceCollector.builder().setRoot(root).build();
+    SourceTreeWalker walker = new SourceTreeWalker(collector, null);
+    walker.walk();
+    walker.getIndex().write(indexFile);
+
+    SourceCollector otherCollector = SourceCollector.builder()
+      .setRoot(root)
+      .setExistingSources(Set.of(scripts))
+      .build();
+
+    assertThat(ScanAllIndex.read(indexFile, collector.fingerprint())).isPresent();
+    assertThat(ScanAllIndex.read(indexFile, otherCollector.fingerprint())).isEmpty();
+    assertThat(ScanAllIndex.read(buildDir.resolve("missing.json"), collector.fingerprint())).isEmpty();
+  }
+
+  private static void markAsUnchangedSinceAnHour(Path... directories) throws IOException {
+    for (Path directory : directories) {
+      Files.setLastModifiedTime(directory, AN_HOUR_AGO);
+    }
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.util.List;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuffixMatcherTest {
+
+  private static final SuffixMatcher MATCHER = new SuffixMatcher(List.of(".tar", ".tar.gz", ".gz", ".ds_store"));
+
+  @ParameterizedTest
+  @CsvSource({
+    "archive.tar.gz, true",
+    "archive.tar, true",
+    ".ds_store, true",
+    "archive.tar.bak, false",
+    "gz, false",
+    "'', false"
+  })
+  void matches_suffixes_only(String value, boolean expected) {
+    assertThat(MATCHER.matches(value)).isEqualTo(expected);
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * SonarQube Scanner for Gradle
+ * Copyright (C) 2015-2025 SonarSource
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarqube.gradle;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the compiled classes of the plugin, used as real class files by the tests of the classpath filters.
+ */
+final class TestClasses {
+
+  private TestClasses() {
+  }
+
+  /**
+   * @return the content of the class file of the given class of the plugin package
+   */
+  static byte[] classBytes(String className) throws IOException {
+    try (InputStream input = TestClasses.class.getResourceAsStream("/org/sonarqube/gradle/" + className + ".class")) {
+      if (input == null) {
+        throw new IOException("No class file for " + className);
+      }
+      return input.readAllBytes();
+    }
+  }
+}
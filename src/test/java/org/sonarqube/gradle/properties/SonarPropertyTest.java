@@ -42,7 +42,10 @@ class SonarPropertyTest {
       Arguments.of((String) null),
       Arguments.of(""),
       Arguments.of("invalid"),
-      Arguments.of("sonar.unknown")
+      Arguments.of("sonar.unknown"),
+      Arguments.of("." + SonarProperty.SKIP),
+      Arguments.of("module" + SonarProperty.SKIP),
+      Arguments.of(SonarProperty.SKIP + ".unknown")
     );
   }
 
@@ -114,7 +117,9 @@ class SonarPropertyTest {
       Arguments.of(SonarProperty.PROJECT_KEY, null, SonarProperty.PROJECT_KEY),
       Arguments.of("mySubproject." + SonarProperty.SKIP, "mySubproject", SonarProperty.SKIP),
       Arguments.of("a.b.c." + SonarProperty.PROJECT_KEY, "a.b.c", SonarProperty.PROJECT_KEY),
-      Arguments.of("module.with.dots." + SonarProperty.VERBOSE, "module.with.dots", SonarProperty.VERBOSE)
+      Arguments.of("module.with.dots." + SonarProperty.VERBOSE, "module.with.dots", SonarProperty.VERBOSE),
+      Arguments.of(":parent.:parent:child." + SonarProperty.JAVA_BINARIES, ":parent.:parent:child", SonarProperty.JAVA_BINARIES),
+      Arguments.of(":module." + SonarProperty.BINARIES, ":module", SonarProperty.BINARIES)
     );
   }
 }